@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Throughput of GET /available-book at high concurrency, to compare the default
+# platform-thread setup with the "virtual" profile (Java 21+):
+#
+#   java -jar target/*.jar                                  # then: scripts/load-test.sh
+#   java -jar target/*.jar --spring.profiles.active=virtual # then: scripts/load-test.sh
+#
+# Needs wrk (https://github.com/wg/wrk), curl and jq. 5000 connections need a raised
+# open-file limit on both sides (ulimit -n 65535).
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080}"
+EMAIL="${EMAIL:-admin@gmail.com}"
+PASSWORD="${PASSWORD:-123456789}"
+CONNECTIONS="${CONNECTIONS:-5000}"
+THREADS="${THREADS:-8}"
+DURATION="${DURATION:-60s}"
+ENDPOINT="${ENDPOINT:-/api/auth/book/available-book}"
+
+TOKEN=$(curl -sf -X POST "$BASE_URL/api/login" \
+	-H "Content-Type: application/json" \
+	-d "{\"data\":{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}}" | jq -r '.data.token')
+if [ -z "$TOKEN" ] || [ "$TOKEN" = "null" ]; then
+	echo "Login failed for $EMAIL" >&2
+	exit 1
+fi
+
+# Warm the caches and the JIT before measuring
+wrk -t "$THREADS" -c 100 -d 10s -H "Authorization: Bearer $TOKEN" "$BASE_URL$ENDPOINT" > /dev/null
+
+echo "GET $ENDPOINT with $CONNECTIONS connections for $DURATION"
+wrk -t "$THREADS" -c "$CONNECTIONS" -d "$DURATION" --timeout 10s --latency \
+	-H "Authorization: Bearer $TOKEN" "$BASE_URL$ENDPOINT"
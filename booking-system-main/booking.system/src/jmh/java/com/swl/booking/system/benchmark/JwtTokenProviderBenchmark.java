@@ -0,0 +1,63 @@
+package com.swl.booking.system.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.swl.booking.system.security.JwtTokenProvider;
+import com.swl.booking.system.security.VerifiedJwt;
+
+/**
+ * Token checks done by JwtAuthenticationFilter on every authenticated request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "benchmarkSecretKeyThatIsLongEnoughForHs512");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationIns", 24L);
+        token = tokenProvider.generateToken("reader@example.com");
+    }
+
+    @Benchmark
+    public VerifiedJwt verifyCached() {
+        return tokenProvider.verify(token);
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String parseUsername() {
+        // Always runs the full HMAC verify
+        return tokenProvider.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken("reader@example.com");
+    }
+}
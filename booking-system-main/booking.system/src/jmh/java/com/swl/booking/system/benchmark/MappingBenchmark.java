@@ -0,0 +1,91 @@
+package com.swl.booking.system.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.entity.User;
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.util.CommonConstant;
+import com.swl.booking.system.util.CommonUtil;
+
+/**
+ * Per-row entity to response mapping and date formatting
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private Book book;
+
+    private User verifiedUser;
+
+    private User unverifiedUser;
+
+    private Date date;
+
+    @Setup
+    public void setUp() {
+        date = new Date();
+
+        book = new Book();
+        book.setId(42L);
+        book.setIsbn("9780134685991");
+        book.setTitle("Effective Java");
+        book.setAuthor("Joshua Bloch");
+        book.setQuantity(5);
+        book.setAvailableQuantity(3);
+        book.setCreatedTime(date);
+        book.setUpdatedTime(date);
+
+        verifiedUser = user(true);
+        unverifiedUser = user(false);
+    }
+
+    private User user(boolean verified) {
+        User user = new User();
+        user.setId(7L);
+        user.setName("Reader");
+        user.setEmail("reader@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setAddress("Yangon");
+        user.setVerified(verified);
+        return user;
+    }
+
+    @Benchmark
+    public BookResponse bookResponseFromBook() {
+        return new BookResponse(book);
+    }
+
+    @Benchmark
+    public UserPrincipal userPrincipalVerified() {
+        return UserPrincipal.create(verifiedUser);
+    }
+
+    @Benchmark
+    public UserPrincipal userPrincipalUnverified() {
+        return UserPrincipal.create(unverifiedUser);
+    }
+
+    @Benchmark
+    public String dateToString() {
+        return CommonUtil.dateToString(CommonConstant.STD_DATE_TIME_FORMAT, date);
+    }
+}
@@ -0,0 +1,83 @@
+package com.swl.booking.system.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.swl.booking.system.config.BookPayloadRedisSerializer;
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.service.CachedBookList;
+
+/**
+ * Round trips of cached book lists through each codec RedisConfig can install.
+ * The encoded size of each payload is printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisSerializationBenchmark {
+
+    @Param({ "1", "50", "500" })
+    public int size;
+
+    @Param({ "json", "binary", "binary-deflate" })
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+
+    private CachedBookList books;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        serializer = switch (codec) {
+            case "binary" -> new BookPayloadRedisSerializer(json, true, 0);
+            case "binary-deflate" -> new BookPayloadRedisSerializer(json, true, 1024);
+            default -> new BookPayloadRedisSerializer(json, false, 0);
+        };
+        List<BookResponse> list = new ArrayList<>(size);
+        Date now = new Date();
+        for (int i = 0; i < size; i++) {
+            list.add(new BookResponse((long) i, String.format("978%010d", i), "Title " + i, "Author " + i,
+                    true, 3, 2, now, now));
+        }
+        books = new CachedBookList(list, now.getTime());
+        serialized = serializer.serialize(books);
+        System.out.printf("%n%s codec, %d books: %d bytes%n", codec, size, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(books);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(books));
+    }
+}
@@ -1,5 +1,7 @@
 package com.swl.booking.system;
 
+import java.util.Map;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -9,7 +11,16 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class Application {
 
 	public static void main(String[] args) {
-		SpringApplication.run(Application.class, args);
+		SpringApplication application = new SpringApplication(Application.class);
+		// Fallbacks only; application.properties and the environment still override them
+		application.setDefaultProperties(Map.of(
+				"management.endpoints.web.exposure.include", "health,info,metrics,prometheus",
+				"management.endpoint.health.probes.enabled", "true",
+				// Lets the MySQL driver send JDBC batches as multi-row INSERTs
+				"spring.datasource.hikari.data-source-properties.rewriteBatchedStatements", "true",
+				// Availability streams hold a connection each (Tomcat's default is 8192)
+				"server.tomcat.max-connections", "60000"));
+		application.run(args);
 	}
 
 }
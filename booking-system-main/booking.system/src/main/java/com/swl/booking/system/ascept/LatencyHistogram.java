@@ -0,0 +1,113 @@
+package com.swl.booking.system.ascept;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram for one method.
+ * <p>
+ * Buckets are powers of two split into four linear steps, so any recorded value is reported
+ * within 25% of its true value from 1 ns up to the full {@code long} range. Recording is a
+ * few atomic increments and never allocates.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 2;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+	private final String name;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public LatencyHistogram(String name) {
+		this.name = name;
+	}
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets.incrementAndGet(bucketIndex(nanos));
+		count.increment();
+		totalNanos.add(nanos);
+		if (nanos > maxNanos.get()) {
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+	static int bucketIndex(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Largest value that falls into a bucket
+	 */
+	static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	/**
+	 * Value at a quantile, read without stopping writers, so concurrent records may or may not
+	 * be included
+	 *
+	 * @param quantile between 0 and 1, e.g. 0.99
+	 * @return upper bound of the bucket holding the quantile, 0 if nothing was recorded
+	 */
+	public long valueAtQuantile(double quantile) {
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(bucketUpperBound(i), getMaxNanos());
+			}
+		}
+		return getMaxNanos();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getMeanNanos() {
+		long calls = count.sum();
+		return calls == 0 ? 0 : totalNanos.sum() / calls;
+	}
+
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+}
@@ -0,0 +1,117 @@
+package com.swl.booking.system.ascept;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the wall-clock latency of controller and service calls into per-method
+ * {@link LatencyHistogram}s.
+ * <p>
+ * Each histogram is published as {@code booking.timing.latency} gauges, tagged by method and
+ * quantile, read from the buckets at scrape time; the quantiles cover every call since startup.
+ * Services annotated with {@code @Timed} already have a Micrometer timer and are skipped.
+ * Nothing is logged on the fast path: only calls slower than the threshold, or a sampled
+ * fraction of calls, are written to the log, and arguments and return values never are.
+ */
+@Aspect
+public class TimingAspect {
+
+	private final Logger logger = LoggerFactory.getLogger(TimingAspect.class);
+
+	private static final double[] QUANTILES = { 0.5, 0.95, 0.99, 1.0 };
+
+	private final long slowThresholdNanos;
+
+	private final double sampleRate;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+	/**
+	 * @param slowThresholdMillis calls at or above this are logged at WARN; negative disables
+	 * @param sampleRate          fraction of the remaining calls logged at DEBUG, 0 to 1
+	 * @param meterRegistry       registry the histogram quantiles are published to
+	 */
+	public TimingAspect(long slowThresholdMillis, double sampleRate, MeterRegistry meterRegistry) {
+		this.slowThresholdNanos = slowThresholdMillis < 0 ? Long.MAX_VALUE
+				: TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+		this.sampleRate = sampleRate;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Pointcut("execution(public * com.swl.booking.system.controller.*.*(..))")
+	public void controllerMethods() {
+	}
+
+	@Pointcut("within(com.swl.booking.system.service..*) && @within(org.springframework.stereotype.Service)"
+			+ " && !@within(io.micrometer.core.annotation.Timed) && execution(public * *(..))")
+	public void serviceMethods() {
+	}
+
+	@Around("controllerMethods() || serviceMethods()")
+	public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+		long start = System.nanoTime();
+		try {
+			return joinPoint.proceed();
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+			LatencyHistogram histogram = histograms.get(method);
+			if (histogram == null) {
+				histogram = histograms.computeIfAbsent(method, this::register);
+			}
+			histogram.record(elapsed);
+
+			if (elapsed >= slowThresholdNanos) {
+				logger.warn("Slow call {} took {} ms", histogram.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+			} else if (sampleRate > 0 && logger.isDebugEnabled()
+					&& ThreadLocalRandom.current().nextDouble() < sampleRate) {
+				logger.debug("Call {} took {} us", histogram.getName(), TimeUnit.NANOSECONDS.toMicros(elapsed));
+			}
+		}
+	}
+
+	private LatencyHistogram register(Method method) {
+		LatencyHistogram histogram = new LatencyHistogram(name(method));
+		for (double quantile : QUANTILES) {
+			Gauge.builder("booking.timing.latency", histogram, h -> h.valueAtQuantile(quantile) / 1e9)
+					.description("Latency of controller and service methods since startup")
+					.baseUnit("seconds")
+					.tag("method", histogram.getName())
+					.tag("quantile", String.valueOf(quantile))
+					.register(meterRegistry);
+		}
+		return histogram;
+	}
+
+	// Parameter types keep overloads apart; gauges with the same tags would collide
+	private static String name(Method method) {
+		return method.getDeclaringClass().getSimpleName() + "." + method.getName()
+				+ Stream.of(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(",", "(", ")"));
+	}
+
+	/**
+	 * Histograms recorded so far, one per advised method
+	 */
+	public Map<Method, LatencyHistogram> getHistograms() {
+		return Collections.unmodifiableMap(histograms);
+	}
+}
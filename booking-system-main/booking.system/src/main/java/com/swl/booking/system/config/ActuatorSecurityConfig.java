@@ -0,0 +1,61 @@
+package com.swl.booking.system.config;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
+
+/**
+ * Security for the actuator endpoints, ahead of the JWT chain in {@link SecurityConfig}.
+ * Health and info stay public; metrics and the Prometheus scrape need HTTP basic auth as
+ * the configured scrape user. With no scrape password set, those endpoints reject everyone.
+ */
+@Configuration
+public class ActuatorSecurityConfig {
+
+	public static final String SCRAPE_ROLE = "METRICS";
+
+	@Value("${app.actuator.scrape-username:prometheus}")
+	private String scrapeUsername;
+
+	@Value("${app.actuator.scrape-password:}")
+	private String scrapePassword;
+
+	@Bean
+	@Order(1)
+	public SecurityFilterChain actuatorFilterChain(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
+		// Own user store, so the scrape user is not a library account and login users cannot scrape
+		InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+		if (StringUtils.hasText(scrapePassword)) {
+			scrapeUsers.createUser(User.withUsername(scrapeUsername)
+					.password(passwordEncoder.encode(scrapePassword))
+					.roles(SCRAPE_ROLE)
+					.build());
+		}
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+		provider.setUserDetailsService(scrapeUsers);
+		provider.setPasswordEncoder(passwordEncoder);
+
+		http.securityMatcher(antMatcher("/actuator/**"))
+				.csrf(csrf -> csrf.disable())
+				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+				.authenticationManager(new ProviderManager(provider))
+				.authorizeHttpRequests(authorize -> authorize
+						.requestMatchers(antMatcher("/actuator/health/**"), antMatcher("/actuator/info")).permitAll()
+						.anyRequest().hasRole(SCRAPE_ROLE))
+				.httpBasic(Customizer.withDefaults());
+		return http.build();
+	}
+}
@@ -1,10 +1,13 @@
 package com.swl.booking.system.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
-import com.swl.booking.system.ascept.LoggingAspect;
+import com.swl.booking.system.ascept.TimingAspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
 import org.springframework.context.annotation.ComponentScan;
@@ -22,7 +25,8 @@ public class AopConfig {
     }
     
     @Bean
-    public LoggingAspect loggingAspect() {
-        return new LoggingAspect();
+    public TimingAspect timingAspect(@Value("${app.timing.slow-threshold-ms:500}") long slowThresholdMillis,
+            @Value("${app.timing.sample-rate:0.0}") double sampleRate, MeterRegistry meterRegistry) {
+        return new TimingAspect(slowThresholdMillis, sampleRate, meterRegistry);
     }
 }
@@ -0,0 +1,59 @@
+package com.swl.booking.system.config;
+
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded executor for cache warmup and refresh work, also used for any {@code @Async} method.
+ * A full queue rejects new work (TaskRejectedException) instead of growing without limit, and
+ * shutdown waits for running tasks so a refresh is not cut off between invalidate and rebuild.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+	public static final String CACHE_TASK_EXECUTOR = "cacheTaskExecutor";
+
+	@Value("${app.cache.executor.threads:2}")
+	private int threads;
+
+	@Value("${app.cache.executor.queue-capacity:16}")
+	private int queueCapacity;
+
+	@Value("${app.cache.executor.await-termination-seconds:30}")
+	private int awaitTerminationSeconds;
+
+	@Bean(name = CACHE_TASK_EXECUTOR)
+	public ThreadPoolTaskExecutor cacheTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setThreadNamePrefix("cache-task-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+		return executor;
+	}
+
+	@Override
+	public Executor getAsyncExecutor() {
+		return cacheTaskExecutor();
+	}
+
+	@Override
+	public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+		return (ex, method, params) -> logger.error("Error in async method {}: {}", method.getName(), ex.getMessage(), ex);
+	}
+}
@@ -0,0 +1,257 @@
+package com.swl.booking.system.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.service.CachedBookList;
+
+/**
+ * Redis value serializer with a compact binary layout for {@link BookResponse} and
+ * {@link CachedBookList}; every other value goes through the JSON serializer it wraps.
+ * <p>
+ * Binary values start with a format byte that JSON never starts with, so reads accept
+ * both encodings and the writer format can be switched node by node. Layout (v1):
+ * <pre>
+ * format(1) type(1, high bit = deflated) body
+ * book  = presence-mask(varint) [id varlong] [isbn str] [title str] [author str]
+ *         [quantity varint] [availableQuantity varint] [createdTime varlong] [updatedTime varlong]
+ * list  = refreshAt(varlong) count(varint) book*
+ * str   = length(varint) UTF-8 bytes
+ * </pre>
+ */
+public class BookPayloadRedisSerializer implements RedisSerializer<Object> {
+
+	static final byte FORMAT_V1 = (byte) 0xB1;
+
+	private static final int TYPE_BOOK = 1;
+
+	private static final int TYPE_BOOK_LIST = 2;
+
+	private static final int FLAG_DEFLATED = 0x80;
+
+	// Presence mask bits; AVAILABLE carries the boolean value itself
+	private static final int HAS_ID = 1;
+	private static final int HAS_ISBN = 1 << 1;
+	private static final int HAS_TITLE = 1 << 2;
+	private static final int HAS_AUTHOR = 1 << 3;
+	private static final int HAS_QUANTITY = 1 << 4;
+	private static final int HAS_AVAILABLE_QUANTITY = 1 << 5;
+	private static final int HAS_CREATED_TIME = 1 << 6;
+	private static final int HAS_UPDATED_TIME = 1 << 7;
+	private static final int AVAILABLE = 1 << 8;
+
+	private final RedisSerializer<Object> json;
+
+	private final boolean binary;
+
+	private final int compressThreshold;
+
+	/**
+	 * @param json              serializer for everything that is not a book payload, and for
+	 *                          book payloads when {@code binary} is false
+	 * @param binary            write book payloads in the binary layout
+	 * @param compressThreshold deflate binary bodies of at least this many bytes; 0 disables
+	 */
+	public BookPayloadRedisSerializer(RedisSerializer<Object> json, boolean binary, int compressThreshold) {
+		this.json = json;
+		this.binary = binary;
+		this.compressThreshold = compressThreshold;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		if (!binary || !(value instanceof BookResponse || value instanceof CachedBookList)) {
+			return json.serialize(value);
+		}
+		try {
+			ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+			DataOutputStream out = new DataOutputStream(body);
+			int type;
+			if (value instanceof BookResponse book) {
+				type = TYPE_BOOK;
+				writeBook(out, book);
+			} else {
+				type = TYPE_BOOK_LIST;
+				CachedBookList list = (CachedBookList) value;
+				List<BookResponse> books = list.getBooks() != null ? list.getBooks() : List.of();
+				writeVarLong(out, list.getRefreshAt());
+				writeVarLong(out, books.size());
+				for (BookResponse book : books) {
+					writeBook(out, book);
+				}
+			}
+			out.flush();
+			boolean deflate = compressThreshold > 0 && body.size() >= compressThreshold;
+			ByteArrayOutputStream frame = new ByteArrayOutputStream(deflate ? body.size() / 2 : body.size() + 2);
+			frame.write(FORMAT_V1);
+			frame.write(deflate ? type | FLAG_DEFLATED : type);
+			if (deflate) {
+				Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+				try (OutputStream compressed = new DeflaterOutputStream(frame, deflater)) {
+					body.writeTo(compressed);
+				} finally {
+					deflater.end();
+				}
+			} else {
+				body.writeTo(frame);
+			}
+			return frame.toByteArray();
+		} catch (IOException e) {
+			throw new SerializationException("Could not write book payload", e);
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] != FORMAT_V1) {
+			return json.deserialize(bytes);
+		}
+		if (bytes.length < 2) {
+			throw new SerializationException("Truncated book payload");
+		}
+		int type = bytes[1] & 0xFF;
+		InputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+		if ((type & FLAG_DEFLATED) != 0) {
+			body = new InflaterInputStream(body);
+		}
+		try (DataInputStream in = new DataInputStream(body)) {
+			switch (type & ~FLAG_DEFLATED) {
+			case TYPE_BOOK:
+				return readBook(in);
+			case TYPE_BOOK_LIST:
+				long refreshAt = readVarLong(in);
+				int count = (int) readVarLong(in);
+				List<BookResponse> books = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					books.add(readBook(in));
+				}
+				return new CachedBookList(books, refreshAt);
+			default:
+				throw new SerializationException("Unknown book payload type " + type);
+			}
+		} catch (IOException e) {
+			throw new SerializationException("Could not read book payload", e);
+		}
+	}
+
+	private static void writeBook(DataOutputStream out, BookResponse book) throws IOException {
+		int mask = (book.getId() != null ? HAS_ID : 0)
+				| (book.getIsbn() != null ? HAS_ISBN : 0)
+				| (book.getTitle() != null ? HAS_TITLE : 0)
+				| (book.getAuthor() != null ? HAS_AUTHOR : 0)
+				| (book.getQuantity() != null ? HAS_QUANTITY : 0)
+				| (book.getAvailableQuantity() != null ? HAS_AVAILABLE_QUANTITY : 0)
+				| (book.getCreatedTime() != null ? HAS_CREATED_TIME : 0)
+				| (book.getUpdatedTime() != null ? HAS_UPDATED_TIME : 0)
+				| (book.isAvailable() ? AVAILABLE : 0);
+		writeVarLong(out, mask);
+		if (book.getId() != null) {
+			writeVarLong(out, book.getId());
+		}
+		writeString(out, book.getIsbn());
+		writeString(out, book.getTitle());
+		writeString(out, book.getAuthor());
+		if (book.getQuantity() != null) {
+			writeVarLong(out, book.getQuantity());
+		}
+		if (book.getAvailableQuantity() != null) {
+			writeVarLong(out, book.getAvailableQuantity());
+		}
+		if (book.getCreatedTime() != null) {
+			writeVarLong(out, book.getCreatedTime().getTime());
+		}
+		if (book.getUpdatedTime() != null) {
+			writeVarLong(out, book.getUpdatedTime().getTime());
+		}
+	}
+
+	private static BookResponse readBook(DataInputStream in) throws IOException {
+		int mask = (int) readVarLong(in);
+		BookResponse book = new BookResponse();
+		if ((mask & HAS_ID) != 0) {
+			book.setId(readVarLong(in));
+		}
+		if ((mask & HAS_ISBN) != 0) {
+			book.setIsbn(readString(in));
+		}
+		if ((mask & HAS_TITLE) != 0) {
+			book.setTitle(readString(in));
+		}
+		if ((mask & HAS_AUTHOR) != 0) {
+			book.setAuthor(readString(in));
+		}
+		if ((mask & HAS_QUANTITY) != 0) {
+			book.setQuantity((int) readVarLong(in));
+		}
+		if ((mask & HAS_AVAILABLE_QUANTITY) != 0) {
+			book.setAvailableQuantity((int) readVarLong(in));
+		}
+		if ((mask & HAS_CREATED_TIME) != 0) {
+			book.setCreatedTime(new Date(readVarLong(in)));
+		}
+		if ((mask & HAS_UPDATED_TIME) != 0) {
+			book.setUpdatedTime(new Date(readVarLong(in)));
+		}
+		book.setAvailable((mask & AVAILABLE) != 0);
+		return book;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, utf8.length);
+		out.write(utf8);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] utf8 = new byte[(int) readVarLong(in)];
+		in.readFully(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	// Unsigned LEB128; negative values still round-trip, they just take ten bytes
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Truncated book payload");
+			}
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new SerializationException("Malformed varint in book payload");
+	}
+}
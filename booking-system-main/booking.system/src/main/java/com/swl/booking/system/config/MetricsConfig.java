@@ -0,0 +1,55 @@
+package com.swl.booking.system.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+/**
+ * Micrometer setup: {@code @Timed} support and latency histograms for HTTP endpoints and the
+ * application's own {@code booking.*} timers, so Prometheus can compute percentiles per endpoint
+ * and per operation across instances.
+ */
+@Configuration
+public class MetricsConfig {
+
+	public static final String METRIC_PREFIX = "booking.";
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	@Bean
+	public MeterRegistryCustomizer<MeterRegistry> commonTags(
+			@Value("${spring.application.name:booking-system}") String applicationName) {
+		return registry -> registry.config().commonTags("application", applicationName);
+	}
+
+	@Bean
+	public MeterFilter latencyHistograms() {
+		return new MeterFilter() {
+			@Override
+			public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+				if (id.getType() != Meter.Type.TIMER
+						|| !(id.getName().equals("http.server.requests") || id.getName().startsWith(METRIC_PREFIX))) {
+					return config;
+				}
+				return DistributionStatisticConfig.builder()
+						.percentilesHistogram(true)
+						.minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+						.maximumExpectedValue((double) Duration.ofSeconds(10).toNanos())
+						.build()
+						.merge(config);
+			}
+		};
+	}
+}
@@ -1,22 +1,57 @@
 package com.swl.booking.system.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.swl.booking.system.security.TokenRevocationStore;
+import com.swl.booking.system.service.BookAvailabilityStream;
+import com.swl.booking.system.service.LocalBookCacheService;
+
 @Configuration
 @EnableCaching
 public class RedisConfig {
+
+	// json or binary; both are always readable, so this can be flipped one node at a time
+	@Value("${app.cache.codec.format:json}")
+	private String codecFormat;
+
+	@Value("${app.cache.codec.compress-threshold:1024}")
+	private int compressThreshold;
+
 	@Bean
 	public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
 		RedisTemplate<String, Object> template = new RedisTemplate<>();
 		template.setConnectionFactory(redisConnectionFactory);
+		BookPayloadRedisSerializer valueSerializer = new BookPayloadRedisSerializer(
+				new GenericJackson2JsonRedisSerializer(), "binary".equalsIgnoreCase(codecFormat), compressThreshold);
 		template.setKeySerializer(new StringRedisSerializer());
-		template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+		template.setValueSerializer(valueSerializer);
+		// The available-books hash is also written by a Lua script, so fields and values must use the same encodings
+		template.setHashKeySerializer(new StringRedisSerializer());
+		template.setHashValueSerializer(valueSerializer);
 		return template;
 	}
+
+	@Bean
+	public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+			LocalBookCacheService localBookCacheService, TokenRevocationStore tokenRevocationStore,
+			BookAvailabilityStream bookAvailabilityStream) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(redisConnectionFactory);
+		container.addMessageListener(localBookCacheService,
+				new ChannelTopic(localBookCacheService.getInvalidationChannel()));
+		container.addMessageListener(tokenRevocationStore,
+				new ChannelTopic(tokenRevocationStore.getRevocationChannel()));
+		container.addMessageListener(bookAvailabilityStream,
+				new ChannelTopic(bookAvailabilityStream.getChannel()));
+		return container;
+	}
 }
@@ -0,0 +1,56 @@
+package com.swl.booking.system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+/**
+ * Opt-in {@code virtual} profile: Tomcat requests, application task execution and {@code @Scheduled}
+ * jobs each run on their own virtual thread instead of a platform thread pool. Request time is
+ * mostly spent waiting on MySQL and Redis, so a blocked virtual thread costs little.
+ * <p>
+ * Needs a Java 21+ runtime; the build still targets 17, so the same jar runs either way.
+ * Connection pools (Hikari, Lettuce) stay the real concurrency limit.
+ */
+@Configuration
+@Profile("virtual")
+public class VirtualThreadConfig {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	public VirtualThreadConfig() {
+		// Fail at startup rather than on the first request
+		if (Runtime.version().feature() < 21) {
+			throw new IllegalStateException(
+					"The virtual profile needs a Java 21 or later runtime, running on " + Runtime.version());
+		}
+		logger.info("Running request handling, async and scheduled work on virtual threads");
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadTaskExecutor("tomcat-vt-"));
+	}
+
+	// Replaces Boot's applicationTaskExecutor; cache work keeps its own bounded pool (AsyncConfig)
+	@Bean(name = { "applicationTaskExecutor", "taskExecutor" })
+	public SimpleAsyncTaskExecutor virtualThreadTaskExecutor() {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-vt-");
+		executor.setVirtualThreads(true);
+		return executor;
+	}
+
+	@Bean(name = "taskScheduler")
+	public SimpleAsyncTaskScheduler virtualThreadTaskScheduler() {
+		SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+		scheduler.setThreadNamePrefix("scheduling-vt-");
+		scheduler.setVirtualThreads(true);
+		return scheduler;
+	}
+}
@@ -0,0 +1,105 @@
+package com.swl.booking.system.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier, typically while blocking inside a
+ * {@code synchronized} block or a native frame (the MySQL driver before 9.0 is a known source).
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process, so no recording file or
+ * {@code -Djdk.tracePinnedThreads} is needed. Each pinning site is logged once at WARN and
+ * counted afterwards.
+ */
+@Component
+@Profile("virtual")
+public class VirtualThreadPinningMonitor {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+	private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private final boolean enabled;
+
+	private final Duration threshold;
+
+	private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+
+	private RecordingStream stream;
+
+	public VirtualThreadPinningMonitor(
+			@Value("${app.virtual-threads.pinning-monitor.enabled:true}") boolean enabled,
+			@Value("${app.virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMillis) {
+		this.enabled = enabled;
+		this.threshold = Duration.ofMillis(thresholdMillis);
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		stream = new RecordingStream();
+		stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		stream.onEvent(PINNED_EVENT, this::onPinned);
+		stream.startAsync();
+		logger.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+	}
+
+	private void onPinned(RecordedEvent event) {
+		String site = pinningSite(event);
+		LongAdder first = new LongAdder();
+		LongAdder existing = pinnedBySite.putIfAbsent(site, first);
+		LongAdder count = existing != null ? existing : first;
+		count.increment();
+		if (existing == null) {
+			logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+		} else {
+			logger.debug("Virtual thread pinned for {} ms at {} ({} times)", event.getDuration().toMillis(), site,
+					count.sum());
+		}
+	}
+
+	// First frame outside the JDK: the code that holds the monitor or made the blocking call
+	private static String pinningSite(RecordedEvent event) {
+		if (event.getStackTrace() == null) {
+			return "unknown";
+		}
+		for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+			String type = frame.getMethod().getType().getName();
+			if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+				return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+			}
+		}
+		return "unknown";
+	}
+
+	/**
+	 * Pinning events seen so far, by site
+	 */
+	public Map<String, Long> getPinnedCounts() {
+		Map<String, Long> counts = new ConcurrentHashMap<>();
+		pinnedBySite.forEach((site, count) -> counts.put(site, count.sum()));
+		return counts;
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (stream != null) {
+			stream.close();
+		}
+	}
+}
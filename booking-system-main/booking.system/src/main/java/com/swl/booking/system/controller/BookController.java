@@ -1,5 +1,17 @@
 package com.swl.booking.system.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -7,16 +19,39 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import com.swl.booking.system.request.book.BookBatchRequest;
 import com.swl.booking.system.request.book.BookRegisterRequest;
 import com.swl.booking.system.request.book.BorrowBookRequest;
+import com.swl.booking.system.request.book.HoldBookRequest;
 import com.swl.booking.system.request.book.ReturnBookRequest;
+import com.swl.booking.system.response.book.BookBatchResponse;
+import com.swl.booking.system.response.book.BookHoldResponse;
 import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookPageResponse;
 import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.response.book.BookSuggestionResponse;
+import com.swl.booking.system.response.book.BulkRegisterResponse;
 import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.service.AvailableBooksResponseCache;
+import com.swl.booking.system.service.AvailableBooksResponseCache.Snapshot;
+import com.swl.booking.system.service.BookAvailabilityStream;
+import com.swl.booking.system.service.BookBulkRegistrationService;
+import com.swl.booking.system.service.BookFeedReader;
+import com.swl.booking.system.service.BookHoldService;
 import com.swl.booking.system.service.BookService;
+import com.swl.booking.system.service.BookSuggestIndex;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -26,10 +61,33 @@ import jakarta.validation.Valid;
 @Validated
 public class BookController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final BookService bookService;
 
-    public BookController(BookService bookService) {
+    private final ObjectMapper objectMapper;
+
+    private final AvailableBooksResponseCache availableBooksResponseCache;
+
+    private final BookSuggestIndex bookSuggestIndex;
+
+    private final BookBulkRegistrationService bookBulkRegistrationService;
+
+    private final BookHoldService bookHoldService;
+
+    private final BookAvailabilityStream bookAvailabilityStream;
+
+    public BookController(BookService bookService, ObjectMapper objectMapper,
+            AvailableBooksResponseCache availableBooksResponseCache, BookSuggestIndex bookSuggestIndex,
+            BookBulkRegistrationService bookBulkRegistrationService, BookHoldService bookHoldService,
+            BookAvailabilityStream bookAvailabilityStream) {
         this.bookService = bookService;
+        this.objectMapper = objectMapper;
+        this.availableBooksResponseCache = availableBooksResponseCache;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.bookBulkRegistrationService = bookBulkRegistrationService;
+        this.bookHoldService = bookHoldService;
+        this.bookAvailabilityStream = bookAvailabilityStream;
     }
 
     @PostMapping("/register-book")
@@ -46,19 +104,140 @@ public class BookController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping(value = "/register-books", consumes = { "text/csv", "application/x-ndjson" })
+    @Operation(summary = "Register books in bulk (Admin only)", description = "Stream books as CSV with an isbn,title,author,quantity header or as one JSON book per line. Valid new books are inserted in chunks; the response reports each chunk's throughput and the rejected rows.")
+    public ResponseEntity<BulkRegisterResponse> registerBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body, Authentication authentication) throws IOException {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+
+        if (!userPrincipal.isSuperAdmin()) {
+            throw new AccessDeniedException("Admin privileges required");
+        }
+
+        InputStreamReader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        try (BookFeedReader feed = APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? BookFeedReader.ndjson(reader, objectMapper)
+                : BookFeedReader.csv(reader)) {
+            BulkRegisterResponse response = bookBulkRegistrationService.registerBooks(feed);
+            return ResponseEntity.ok(response);
+        }
+    }
+
     @GetMapping("/available-book")
-    @Operation(summary = "Get available books", description = "Retrieve all books that are currently available for borrowing")
-    public ResponseEntity<BookListResponse> getAvailableBooks() {
-        BookListResponse response = bookService.getAvailableBooksResponse();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get available books", description = "Retrieve books that are currently available for borrowing; pass cursor or size to page through them by id. The full list supports If-None-Match and gzip.")
+    public ResponseEntity<?> getAvailableBooks(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (cursor != null || size != null) {
+            BookPageResponse response = bookService.getAvailableBooks(cursor, size);
+            return ResponseEntity.ok(response);
+        }
+
+        // Version first: a body built afterwards is never older than its ETag
+        String version = availableBooksResponseCache.currentVersion();
+        if (version == null) {
+            BookListResponse response = bookService.getAvailableBooksResponse();
+            return ResponseEntity.ok(response);
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = AvailableBooksResponseCache.etag(version, gzip);
+        if (AvailableBooksResponseCache.matches(ifNoneMatch, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        Snapshot snapshot = availableBooksResponseCache.getSnapshot(version);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return response.body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client refuses it
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
     @GetMapping("/all-book")
-    public ResponseEntity<BookListResponse> getAllBooks() {
-        BookListResponse response = bookService.getAllBooks();
+    @Operation(summary = "Get all books (paginated)", description = "Retrieve one page of the catalog ordered by id; pass nextCursor back as cursor to get the following page")
+    public ResponseEntity<BookPageResponse> getAllBooks(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        BookPageResponse response = bookService.getAllBooks(cursor, size);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/all-book/stream")
+    @Operation(summary = "Stream all books", description = "Stream the whole catalog as newline-delimited JSON without buffering it in memory")
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = this::writeBooksAsNdjson;
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private void writeBooksAsNdjson(OutputStream outputStream) throws IOException {
+        // Let the servlet buffer decide when to flush instead of flushing after every row
+        ObjectWriter writer = objectMapper.writerFor(BookResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            bookService.streamAllBooks(book -> {
+                try {
+                    writer.writeValue(generator, book);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search books", description = "Ranked search over title, author and ISBN; pass available=true to skip books with no copy left and nextCursor back as cursor to get the following page")
+    public ResponseEntity<BookPageResponse> searchBooks(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        BookPageResponse response = bookService.searchBooks(query, available, cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest titles and authors", description = "Complete a typed prefix of a title or author word, most borrowed first")
+    public ResponseEntity<List<BookSuggestionResponse>> suggest(@RequestParam("q") String prefix,
+            @RequestParam(required = false) Integer limit) {
+        // Served from memory without a transaction, as it is called on every keystroke
+        List<BookSuggestionResponse> suggestions = bookSuggestIndex.suggest(prefix,
+                limit != null ? limit : BookSuggestIndex.DEFAULT_LIMIT);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping(value = "/availability-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream availability changes", description = "Server-Sent Events: each 'availability' event is a JSON array of {bookId, available} for books whose available count changed. Load /available-book once, then apply the events instead of polling.")
+    public ResponseEntity<SseEmitter> streamAvailability() {
+        SseEmitter emitter = bookAvailabilityStream.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     @PostMapping("/borrow-book")
     @Operation(summary = "Borrow a book", description = "Borrow an available book")
     public ResponseEntity<String> borrowBook(@Valid @RequestBody BorrowBookRequest request, Authentication authentication) {
@@ -77,6 +256,51 @@ public class BookController {
         return ResponseEntity.ok(message);
     }
 
+    @PostMapping("/borrow-books")
+    @Operation(summary = "Borrow several books", description = "Check out up to 20 books in one transaction; the response reports the outcome for each book")
+    public ResponseEntity<BookBatchResponse> borrowBooks(@Valid @RequestBody BookBatchRequest request, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        BookBatchResponse response = bookService.borrowBooks(request, userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/return-books")
+    @Operation(summary = "Return several books", description = "Return up to 20 borrowed books in one transaction; the response reports the outcome for each book")
+    public ResponseEntity<BookBatchResponse> returnBooks(@Valid @RequestBody BookBatchRequest request, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        BookBatchResponse response = bookService.returnBooks(request, userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/hold-book")
+    @Operation(summary = "Place a hold", description = "Join the queue for a book with no copy left; the next returned copy is set aside for the oldest hold")
+    public ResponseEntity<String> placeHold(@Valid @RequestBody HoldBookRequest request, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        String message = bookHoldService.placeHold(request, userId);
+        return ResponseEntity.ok(message);
+    }
+
+    @PostMapping("/cancel-hold")
+    @Operation(summary = "Cancel a hold", description = "Leave the queue for a book; a copy set aside for the hold goes to the next holder")
+    public ResponseEntity<String> cancelHold(@Valid @RequestBody HoldBookRequest request, Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        String message = bookHoldService.cancelHold(request, userId);
+        return ResponseEntity.ok(message);
+    }
+
+    @GetMapping("/my-holds")
+    @Operation(summary = "Get my holds", description = "Open holds of the authenticated user with their place in each queue")
+    public ResponseEntity<List<BookHoldResponse>> getMyHolds(Authentication authentication) {
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        Long userId = userPrincipal.getId();
+        List<BookHoldResponse> response = bookHoldService.getHolds(userId);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/my-borrowed")
     @Operation(summary = "Get my borrowed books", description = "Retrieve books currently borrowed by the authenticated user")
     public ResponseEntity<BookListResponse> getMyBorrowedBooks(Authentication authentication) {
@@ -1,12 +1,15 @@
 package com.swl.booking.system.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.swl.booking.system.exception.RdpException;
+import com.swl.booking.system.exception.ResponseInfoException;
 import com.swl.booking.system.request.ApiRequest;
 import com.swl.booking.system.request.user.UserLoginRequest; 
 import com.swl.booking.system.request.user.UserRegisterRequest;
@@ -15,6 +18,8 @@ import com.swl.booking.system.response.ApiResponse;
 import com.swl.booking.system.response.user.UserLoginResponse;
 import com.swl.booking.system.response.user.UserProfileResponse;
 import com.swl.booking.system.security.JwtTokenProvider;
+import com.swl.booking.system.security.TokenRevocationStore;
+import com.swl.booking.system.security.VerifiedJwt;
 import com.swl.booking.system.service.UserService;
 import com.swl.booking.system.util.CommonConstant;
 
@@ -29,9 +34,13 @@ public class UserController {
 
 	private final JwtTokenProvider jwtTokenProvider;
 
-	public UserController(UserService userService, JwtTokenProvider jwtTokenProvider) {
+	private final TokenRevocationStore tokenRevocationStore;
+
+	public UserController(UserService userService, JwtTokenProvider jwtTokenProvider,
+			TokenRevocationStore tokenRevocationStore) {
 		this.userService = userService;
 		this.jwtTokenProvider = jwtTokenProvider;
+		this.tokenRevocationStore = tokenRevocationStore;
 	}
 
 	@PostMapping("/register")
@@ -63,4 +72,15 @@ public class UserController {
 		UserProfileResponse resp = userService.getUser();
 		return new ApiResponse<>(CommonConstant.MSG_PREFIX_SUCCESS, "Users retrieved successfully", resp);
 	}
+
+	@PostMapping("/auth/logout")
+	public ApiResponse<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+		String token = authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization;
+		VerifiedJwt verified = jwtTokenProvider.verify(token);
+		if (verified == null) {
+			throw new ResponseInfoException("Invalid JWT.");
+		}
+		tokenRevocationStore.revoke(token, verified.getExpiration());
+		return new ApiResponse<>(CommonConstant.MSG_PREFIX_SUCCESS, "Logout successful.");
+	}
 }
@@ -4,6 +4,8 @@ import java.util.Date;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -11,9 +13,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "book_borrowing")
+@Table(name = "book_borrowing", indexes = {
+        @Index(name = "idx_borrower_returned", columnList = "borrower_id, is_returned")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,12 +27,18 @@ public class BookBorrowing extends BaseEntity {
 
     private static final long serialVersionUID = 1L;
 
-    @ManyToOne
+    // Lazy so borrowing queries do not pull a user and a book per row;
+    // queries that need them fetch-join explicitly
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "borrower_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User borrower;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Book book;
 
     @Column(name = "borrow_date", nullable = false)
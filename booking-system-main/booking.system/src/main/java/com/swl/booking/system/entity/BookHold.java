@@ -0,0 +1,68 @@
+package com.swl.booking.system.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A user's place in the queue for a book with no copy left. Holds are served in id order;
+ * a returned copy is set aside for the oldest waiting hold until its pickup window closes.
+ */
+@Entity
+@Table(name = "book_hold", indexes = {
+        @Index(name = "idx_book_hold_queue", columnList = "book_id, status, id"),
+        @Index(name = "idx_book_hold_user", columnList = "user_id, status"),
+        @Index(name = "idx_book_hold_expires", columnList = "status, expires_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class BookHold extends BaseEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        // in the queue
+        WAITING,
+        // a copy is set aside until expires_date
+        READY,
+        // the copy was borrowed
+        FULFILLED,
+        CANCELLED,
+        // the copy was not picked up in time
+        EXPIRED
+    }
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Book book;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status = Status.WAITING;
+
+    @Column(name = "expires_date")
+    private Date expiresAt;
+}
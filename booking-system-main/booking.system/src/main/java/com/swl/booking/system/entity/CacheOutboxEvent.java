@@ -0,0 +1,43 @@
+package com.swl.booking.system.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache change written in the same transaction as the data it describes, and deleted once
+ * Redis has been brought in line. Rows left behind by a crash are replayed later.
+ */
+@Entity
+@Table(name = "cache_outbox", indexes = {
+        @Index(name = "idx_cache_outbox_created", columnList = "created_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class CacheOutboxEvent extends BaseEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        // target is a book id: re-sync its entry in the available set and drop its detail
+        BOOK,
+        // target is a user id: drop the user's borrowed list
+        BORROWED_BOOKS
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+}
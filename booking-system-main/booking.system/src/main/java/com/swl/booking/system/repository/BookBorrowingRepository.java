@@ -1,9 +1,14 @@
 package com.swl.booking.system.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,6 +16,9 @@ import org.springframework.stereotype.Repository;
 import com.swl.booking.system.entity.Book;
 import com.swl.booking.system.entity.BookBorrowing;
 import com.swl.booking.system.entity.User;
+import com.swl.booking.system.response.book.BookResponse;
+
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface BookBorrowingRepository extends JpaRepository<BookBorrowing, Long> {
@@ -19,5 +27,65 @@ public interface BookBorrowingRepository extends JpaRepository<BookBorrowing, Lo
     
     List<BookBorrowing> findByBorrowerId(Long borrowerId);
 
+    @EntityGraph(attributePaths = { "borrower", "book" })
     List<BookBorrowing> findByIsReturnedFalse();
-}
\ No newline at end of file
+
+    /**
+     * Books a user currently has out, projected straight into responses in one
+     * statement. Served by the (borrower_id, is_returned) index.
+     */
+    @Query("SELECT new com.swl.booking.system.response.book.BookResponse("
+            + "b.id, b.isbn, b.title, b.author, b.isAvailable, b.quantity, b.availableQuantity, b.createdTime, b.updatedTime) "
+            + "FROM BookBorrowing bb JOIN bb.book b "
+            + "WHERE bb.borrower.id = :borrowerId AND bb.isReturned = false "
+            + "ORDER BY bb.borrowDate")
+    List<BookResponse> findActiveBorrowedBooks(@Param("borrowerId") Long borrowerId);
+
+    boolean existsByBorrowerIdAndBookIdAndIsReturnedFalse(Long borrowerId, Long bookId);
+
+    /**
+     * Close the active borrowing of a book by a user in a single statement.
+     * @return number of borrowings closed (0 when there is no active borrowing)
+     */
+    @Modifying
+    @Query("UPDATE BookBorrowing bb SET bb.isReturned = true, bb.returnDate = :returnDate, bb.updatedTime = :returnDate "
+            + "WHERE bb.borrower.id = :borrowerId AND bb.book.id = :bookId AND bb.isReturned = false")
+    int markReturned(@Param("borrowerId") Long borrowerId, @Param("bookId") Long bookId,
+            @Param("returnDate") Date returnDate);
+
+    /**
+     * Which of the given books the user currently has out
+     */
+    @Query("SELECT bb.book.id FROM BookBorrowing bb "
+            + "WHERE bb.borrower.id = :borrowerId AND bb.book.id IN :bookIds AND bb.isReturned = false")
+    List<Long> findActiveBookIds(@Param("borrowerId") Long borrowerId, @Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Lock the user's active borrowings of the given books, so a concurrent return of the same
+     * book waits for this transaction and then finds nothing left to close
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT bb FROM BookBorrowing bb "
+            + "WHERE bb.borrower.id = :borrowerId AND bb.book.id IN :bookIds AND bb.isReturned = false "
+            + "ORDER BY bb.id")
+    List<BookBorrowing> findActiveForUpdate(@Param("borrowerId") Long borrowerId,
+            @Param("bookIds") Collection<Long> bookIds);
+
+    @Modifying
+    @Query("UPDATE BookBorrowing bb SET bb.isReturned = true, bb.returnDate = :returnDate, bb.updatedTime = :returnDate "
+            + "WHERE bb.id IN :ids")
+    int markReturnedByIds(@Param("ids") Collection<Long> ids, @Param("returnDate") Date returnDate);
+
+    /**
+     * How many times each book has been borrowed, returned or not
+     */
+    @Query("SELECT bb.book.id AS bookId, COUNT(bb) AS borrowings FROM BookBorrowing bb GROUP BY bb.book.id")
+    List<BorrowingCount> countBorrowingsByBook();
+
+    interface BorrowingCount {
+
+        Long getBookId();
+
+        long getBorrowings();
+    }
+}
@@ -0,0 +1,94 @@
+package com.swl.booking.system.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swl.booking.system.entity.BookHold;
+import com.swl.booking.system.response.book.BookHoldResponse;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    boolean existsByUserIdAndBookIdAndStatusIn(Long userId, Long bookId, Collection<BookHold.Status> statuses);
+
+    long countByBookIdAndStatusAndIdLessThanEqual(Long bookId, BookHold.Status status, Long id);
+
+    /**
+     * Oldest waiting holds for a book, locked so two returns of the same book cannot hand
+     * their copies to the same holder. Served by the (book_id, status, id) index.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BookHold h WHERE h.book.id = :bookId "
+            + "AND h.status = com.swl.booking.system.entity.BookHold.Status.WAITING ORDER BY h.id")
+    List<BookHold> findWaitingForUpdate(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM BookHold h WHERE h.user.id = :userId AND h.book.id = :bookId "
+            + "AND h.status IN (com.swl.booking.system.entity.BookHold.Status.WAITING, "
+            + "com.swl.booking.system.entity.BookHold.Status.READY)")
+    Optional<BookHold> findOpenForUpdate(@Param("userId") Long userId, @Param("bookId") Long bookId);
+
+    /**
+     * Turn the user's ready hold on a book into a borrowing
+     * @return 1 if a copy was set aside for the user, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = com.swl.booking.system.entity.BookHold.Status.FULFILLED, "
+            + "h.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE h.user.id = :userId AND h.book.id = :bookId "
+            + "AND h.status = com.swl.booking.system.entity.BookHold.Status.READY AND h.expiresAt > :now")
+    int claimReady(@Param("userId") Long userId, @Param("bookId") Long bookId, @Param("now") Date now);
+
+    /**
+     * Close a ready hold whose pickup window has passed
+     * @return 1 if the hold expired, 0 if it was claimed, cancelled or is not due yet
+     */
+    @Modifying
+    @Query("UPDATE BookHold h SET h.status = com.swl.booking.system.entity.BookHold.Status.EXPIRED, "
+            + "h.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE h.id = :id AND h.status = com.swl.booking.system.entity.BookHold.Status.READY "
+            + "AND h.expiresAt <= :now")
+    int expireIfDue(@Param("id") Long id, @Param("now") Date now);
+
+    /**
+     * The user's open holds with their place in each queue (1 = next in line, 0 = copy ready),
+     * in one statement. Each position is a count over the (book_id, status, id) index.
+     */
+    @Query("SELECT new com.swl.booking.system.response.book.BookHoldResponse("
+            + "h.id, b.id, b.title, h.status, "
+            + "(SELECT COUNT(w) FROM BookHold w WHERE w.book.id = b.id "
+            + "AND w.status = com.swl.booking.system.entity.BookHold.Status.WAITING AND w.id <= h.id), "
+            + "h.expiresAt, h.createdTime) "
+            + "FROM BookHold h JOIN h.book b "
+            + "WHERE h.user.id = :userId AND h.status IN (com.swl.booking.system.entity.BookHold.Status.WAITING, "
+            + "com.swl.booking.system.entity.BookHold.Status.READY) "
+            + "ORDER BY h.id")
+    List<BookHoldResponse> findOpenHolds(@Param("userId") Long userId);
+
+    /**
+     * Ready holds whose pickup window closes before the given time, from the (status, expires_date) index
+     */
+    @Query("SELECT h.id AS id, h.expiresAt AS expiresAt FROM BookHold h "
+            + "WHERE h.status = com.swl.booking.system.entity.BookHold.Status.READY AND h.expiresAt < :before "
+            + "ORDER BY h.expiresAt")
+    List<ReadyHold> findReadyExpiringBefore(@Param("before") Date before);
+
+    interface ReadyHold {
+
+        Long getId();
+
+        Date getExpiresAt();
+    }
+}
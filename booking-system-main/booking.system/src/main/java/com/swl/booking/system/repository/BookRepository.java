@@ -1,19 +1,29 @@
 package com.swl.booking.system.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.swl.booking.system.entity.Book;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    List<Book> findByIsAvailableTrue();
+    List<Book> findByIsAvailableTrueOrderByIdAsc();
     
     List<Book> findByTitleContainingIgnoreCase(String title);
     
@@ -21,4 +31,74 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     @Query("SELECT COUNT(b) FROM Book b WHERE b.isbn = :isbn")
     long countByIsbn(@Param("isbn") String isbn);
-}
\ No newline at end of file
+
+    /**
+     * Keyset page: books with an id strictly greater than the given one, ordered by id.
+     * Served by the primary key index, so the cost does not grow with the page offset.
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Full catalog as a forward-only stream. The MySQL driver only streams rows
+     * (instead of buffering the whole result set) when the fetch size is Integer.MIN_VALUE.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllOrderById();
+
+    /**
+     * Take one copy out of inventory if, and only if, one is left. The row lock taken by the
+     * UPDATE serialises concurrent borrowers, so there is no read-modify-write race.
+     * is_available is assigned first so it is computed from the pre-decrement quantity
+     * regardless of how the database orders SET assignments.
+     * @return 1 if a copy was taken, 0 if the book does not exist or none is available
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.isAvailable = CASE WHEN b.availableQuantity > 1 THEN true ELSE false END, "
+            + "b.availableQuantity = b.availableQuantity - 1, b.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE b.id = :id AND b.availableQuantity > 0")
+    int decrementAvailableQuantity(@Param("id") Long id);
+
+    /**
+     * Lock the given books for the rest of the transaction (SELECT ... FOR UPDATE).
+     * Rows are locked in id order, so two transactions locking overlapping sets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Take one copy of each book out of inventory, with the same guard as {@link #decrementAvailableQuantity}
+     * @return number of books a copy was taken from
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.isAvailable = CASE WHEN b.availableQuantity > 1 THEN true ELSE false END, "
+            + "b.availableQuantity = b.availableQuantity - 1, b.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE b.id IN :ids AND b.availableQuantity > 0")
+    int decrementAvailableQuantities(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Put one copy back into inventory, never exceeding the total quantity.
+     * @return 1 if the copy was put back, 0 if the book does not exist or is already fully stocked
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.isAvailable = true, "
+            + "b.availableQuantity = b.availableQuantity + 1, b.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE b.id = :id AND b.availableQuantity < b.quantity")
+    int incrementAvailableQuantity(@Param("id") Long id);
+
+    /**
+     * Put one copy of each book back into inventory, with the same guard as {@link #incrementAvailableQuantity}
+     * @return number of books a copy was put back into
+     */
+    @Modifying
+    @Query("UPDATE Book b SET b.isAvailable = true, "
+            + "b.availableQuantity = b.availableQuantity + 1, b.updatedTime = CURRENT_TIMESTAMP "
+            + "WHERE b.id IN :ids AND b.availableQuantity < b.quantity")
+    int incrementAvailableQuantities(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,20 @@
+package com.swl.booking.system.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.swl.booking.system.entity.CacheOutboxEvent;
+
+@Repository
+public interface CacheOutboxRepository extends JpaRepository<CacheOutboxEvent, Long> {
+
+    /**
+     * Oldest rows written before the given time; younger rows are still being handled
+     * by the node that committed them.
+     */
+    List<CacheOutboxEvent> findByCreatedTimeBeforeOrderByIdAsc(Date before, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.swl.booking.system.request.book;
+
+import java.io.Serializable;
+import java.util.List;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BookBatchRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotEmpty(message = "Book IDs are required")
+    @Size(max = 20, message = "At most 20 books can be processed at once")
+    private List<@NotNull(message = "Book ID is required") @Min(value = 1, message = "Book ID must be greater than 0") Long> bookIds;
+}
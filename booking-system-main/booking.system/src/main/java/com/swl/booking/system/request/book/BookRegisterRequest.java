@@ -2,6 +2,8 @@ package com.swl.booking.system.request.book;
 
 import java.io.Serializable;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -22,4 +24,8 @@ public class BookRegisterRequest implements Serializable {
     @NotBlank(message = "Author is required")
     @Size(max = 255, message = "Author must not exceed 255 characters")
     private String author;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 10000, message = "Quantity must not exceed 10000")
+    private Integer quantity;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.swl.booking.system.response.book;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+public class BookBatchResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int succeeded;
+    private int failed;
+    // One per requested book, in request order
+    private List<Item> items = new ArrayList<>();
+
+    public void succeed(Long bookId, String message) {
+        items.add(new Item(bookId, true, message));
+        succeeded++;
+    }
+
+    public void fail(Long bookId, String message) {
+        items.add(new Item(bookId, false, message));
+        failed++;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Long bookId;
+        private boolean success;
+        private String message;
+    }
+}
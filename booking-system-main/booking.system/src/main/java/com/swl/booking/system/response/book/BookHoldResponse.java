@@ -0,0 +1,37 @@
+package com.swl.booking.system.response.book;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.swl.booking.system.entity.BookHold;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BookHoldResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private Long bookId;
+    private String title;
+    private BookHold.Status status;
+    // Place in the queue, 1 for next in line; 0 once a copy is ready
+    private long position;
+    // End of the pickup window, set once a copy is ready
+    private Date expiresAt;
+    private Date createdTime;
+
+    public BookHoldResponse(Long id, Long bookId, String title, BookHold.Status status, long queuePosition,
+            Date expiresAt, Date createdTime) {
+        this.id = id;
+        this.bookId = bookId;
+        this.title = title;
+        this.status = status;
+        this.position = status == BookHold.Status.WAITING ? queuePosition : 0;
+        this.expiresAt = expiresAt;
+        this.createdTime = createdTime;
+    }
+}
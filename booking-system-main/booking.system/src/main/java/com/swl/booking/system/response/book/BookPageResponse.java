@@ -0,0 +1,25 @@
+package com.swl.booking.system.response.book;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BookPageResponse extends BookListResponse {
+
+    private static final long serialVersionUID = 1L;
+
+    private String nextCursor;
+    private boolean hasMore;
+
+    public BookPageResponse() {
+    }
+
+    public BookPageResponse(List<BookResponse> books, String nextCursor, boolean hasMore) {
+        super(books);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+}
@@ -16,6 +16,8 @@ public class BookResponse implements Serializable {
     private String title;
     private String author;
     private boolean isAvailable;
+    private Integer quantity;
+    private Integer availableQuantity;
     private Date createdTime;
     private Date updatedTime;
 
@@ -26,11 +28,26 @@ public class BookResponse implements Serializable {
             this.title = book.getTitle();
             this.author = book.getAuthor();
             this.isAvailable = book.isAvailable();
+            this.quantity = book.getQuantity();
+            this.availableQuantity = book.getAvailableQuantity();
             this.createdTime = book.getCreatedTime();
             this.updatedTime = book.getUpdatedTime();
         }
     }
 
+    public BookResponse(Long id, String isbn, String title, String author, boolean isAvailable,
+            Integer quantity, Integer availableQuantity, Date createdTime, Date updatedTime) {
+        this.id = id;
+        this.isbn = isbn;
+        this.title = title;
+        this.author = author;
+        this.isAvailable = isAvailable;
+        this.quantity = quantity;
+        this.availableQuantity = availableQuantity;
+        this.createdTime = createdTime;
+        this.updatedTime = updatedTime;
+    }
+
     public BookResponse() {
     }
 }
\ No newline at end of file
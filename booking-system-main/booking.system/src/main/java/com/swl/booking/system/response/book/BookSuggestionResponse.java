@@ -0,0 +1,25 @@
+package com.swl.booking.system.response.book;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+@Data
+public class BookSuggestionResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TITLE = "TITLE";
+    public static final String AUTHOR = "AUTHOR";
+
+    private String text;
+    private String type;
+
+    public BookSuggestionResponse() {
+    }
+
+    public BookSuggestionResponse(String text, String type) {
+        this.text = text;
+        this.type = type;
+    }
+}
@@ -0,0 +1,50 @@
+package com.swl.booking.system.response.book;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+public class BulkRegisterResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long received;
+    private long inserted;
+    private long rejected;
+    private long elapsedMillis;
+    private List<ChunkResult> chunks = new ArrayList<>();
+    // Capped; rejected still counts every row
+    private List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkResult implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private int chunk;
+        private int rows;
+        private int inserted;
+        private int rejected;
+        private long elapsedMillis;
+        private long rowsPerSecond;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RejectedRow implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long row;
+        private String isbn;
+        private String reason;
+    }
+}
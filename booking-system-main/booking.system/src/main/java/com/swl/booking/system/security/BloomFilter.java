@@ -0,0 +1,58 @@
+package com.swl.booking.system.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over 128-bit hashes. Callers pass two independent
+ * 64-bit halves (e.g. from a SHA-256 digest) and the filter derives its probe
+ * positions by double hashing.
+ */
+final class BloomFilter {
+
+	private final AtomicLongArray bits;
+
+	private final long bitCount;
+
+	private final int hashCount;
+
+	BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long n = Math.max(1, expectedInsertions);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bits = new AtomicLongArray((int) Math.max(1, (m + 63) >>> 6));
+		this.bitCount = (long) bits.length() << 6;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+	}
+
+	void put(long hash1, long hash2) {
+		for (int i = 0; i < hashCount; i++) {
+			long index = index(hash1, hash2, i);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current;
+			do {
+				current = bits.get(word);
+				if ((current & mask) != 0) {
+					break;
+				}
+			} while (!bits.compareAndSet(word, current, current | mask));
+		}
+	}
+
+	boolean mightContain(long hash1, long hash2) {
+		for (int i = 0; i < hashCount; i++) {
+			long index = index(hash1, hash2, i);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long index(long hash1, long hash2, int i) {
+		return Math.floorMod(hash1 + i * hash2, bitCount);
+	}
+
+	int getHashCount() {
+		return hashCount;
+	}
+}
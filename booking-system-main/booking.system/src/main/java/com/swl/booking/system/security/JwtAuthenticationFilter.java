@@ -13,6 +13,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +28,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	@Autowired
 	private CustomUserDetailsService customUserDetailsService; 
 
+	@Autowired
+	private UserPrincipalCache userPrincipalCache;
+
+	@Autowired
+	private TokenRevocationStore tokenRevocationStore;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
 	@Override
@@ -42,22 +53,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 					return;
 				}
 
-				String name = tokenProvider.getUsernameFromToken(jwt);
-				if (!tokenProvider.validateToken(jwt) || name == null) {
+				// Signature check plus revocation lookup, tagged by outcome
+				Timer.Sample verifySample = Timer.start(meterRegistry);
+				VerifiedJwt verified = tokenProvider.verify(jwt);
+				String name = verified != null ? verified.getSubject() : null;
+				if (name == null) {
 					// invalid token
+					recordVerify(verifySample, "invalid");
 					response.setStatus(HttpStatus.BAD_REQUEST.value());
 					response.getWriter().write("Invalid JWT.");
 					return;
 				}
 				
-				boolean isexpire = JWTSingleton.getInstance().checkJWTexist(name, jwt);
-				if(isexpire) {
+				if (tokenRevocationStore.isRevoked(jwt)) {
+					recordVerify(verifySample, "revoked");
 					response.setStatus(HttpStatus.BAD_REQUEST.value());
 					response.getWriter().write("Invalid JWT.");
 					return;
 				}
 
-				UserDetails userDetails = customUserDetailsService.loadUserByUsername(name);
+				recordVerify(verifySample, "valid");
+
+				UserDetails userDetails = userPrincipalCache.get(name, customUserDetailsService::loadUserByUsername);
 				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 						userDetails, null, userDetails.getAuthorities());
 
@@ -74,6 +91,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 	}
 
+	private void recordVerify(Timer.Sample sample, String result) {
+		sample.stop(Timer.builder("booking.jwt.verify")
+				.description("JWT signature and revocation check")
+				.tag("result", result)
+				.register(meterRegistry));
+	}
+
 	/**
 	 * Get JWT From Request
 	 * 
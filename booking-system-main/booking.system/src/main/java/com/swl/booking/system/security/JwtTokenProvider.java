@@ -3,44 +3,131 @@ package com.swl.booking.system.security;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import java.util.Date; 
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 @Component
 public class JwtTokenProvider {
 
+	private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS512;
+
+	private static final int VERIFIED_TOKEN_CACHE_SIZE = 10000;
+
 	@Value("${app.jwt.secret}")
 	private String jwtSecret;
 
 	@Value("${app.jwt.expirationins}")
 	private long jwtExpirationIns;
 
+	// Built from jwtSecret on first use; same key bytes jjwt decoded from the Base64 form, so issued tokens stay valid
+	private volatile Key signingKey;
+
+	// SHA-256 of recently verified tokens, each kept until the token's own exp
+	private final Cache<String, VerifiedJwt> verifiedTokens = Caffeine.newBuilder()
+			.maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+			.expireAfter(new Expiry<String, VerifiedJwt>() {
+				@Override
+				public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+					long remainingMillis = value.getExpiration().getTime() - System.currentTimeMillis();
+					return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+				}
+
+				@Override
+				public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+					return expireAfterCreate(key, value, currentTime);
+				}
+
+				@Override
+				public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+					return currentDuration;
+				}
+			})
+			.build();
+
+	private Key signingKey() {
+		Key key = signingKey;
+		if (key == null) {
+			key = new SecretKeySpec(jwtSecret.getBytes(), SIGNATURE_ALGORITHM.getJcaName());
+			signingKey = key;
+		}
+		return key;
+	}
+
 	public String generateToken(String username) {
 		return Jwts.builder().setSubject(username).setIssuedAt(new Date())
 				.setExpiration(new Date(System.currentTimeMillis() + jwtExpirationIns * 3600000)) // Set expiration time
-				.signWith(SignatureAlgorithm.HS512, Base64.getEncoder().encodeToString(jwtSecret.getBytes())).compact();
+				.signWith(SIGNATURE_ALGORITHM, signingKey()).compact();
 	}
 
-	public boolean validateToken(String token) {
+	/**
+	 * Verify signature and expiry and extract claims in one parse. Tokens seen
+	 * before are answered from the digest cache without redoing the HMAC.
+	 *
+	 * @param token compact JWT
+	 * @return verified claims, or null if the token is missing, malformed, forged or expired
+	 */
+	public VerifiedJwt verify(String token) {
+		if (token == null || token.isEmpty()) {
+			return null;
+		}
+		String digest = digest(token);
+		VerifiedJwt cached = verifiedTokens.getIfPresent(digest);
+		if (cached != null) {
+			return cached;
+		}
+		VerifiedJwt verified;
 		try {
-			Jwts.parser().setSigningKey(Base64.getEncoder().encodeToString(jwtSecret.getBytes())).parseClaimsJws(token);
-			return true;
+			Claims claims = parseClaims(token);
+			verified = new VerifiedJwt(claims.getSubject(), claims.getExpiration());
 		} catch (Exception e) {
-			return false;
+			return null;
+		}
+		if (verified.getExpiration() != null) {
+			verifiedTokens.put(digest, verified);
 		}
+		return verified;
+	}
+
+	public boolean validateToken(String token) {
+		return verify(token) != null;
 	}
 
 	public String getUsernameFromToken(String token) {
-		return Jwts.parser().setSigningKey(Base64.getEncoder().encodeToString(jwtSecret.getBytes()))
-				.parseClaimsJws(token).getBody().getSubject();
+		return parseClaims(token).getSubject();
 	}
 
 	public Long getUserIdFromJWT(String token) {
-		String secretKey = Base64.getEncoder().encodeToString(jwtSecret.getBytes());
-		Claims claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
-		return Long.parseLong(claims.getSubject());
+		return Long.parseLong(parseClaims(token).getSubject());
+	}
+
+	private Claims parseClaims(String token) {
+		return Jwts.parser().setSigningKey(signingKey()).parseClaimsJws(token).getBody();
+	}
+
+	/**
+	 * SHA-256 of a compact token, Base64 encoded; used to key tokens without keeping them
+	 */
+	static String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
 	}
 }
@@ -0,0 +1,217 @@
+package com.swl.booking.system.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revoked-token store checked by {@link JwtAuthenticationFilter} on every request.
+ * Tokens are keyed by their SHA-256 digest and remembered only until their own
+ * {@code exp}, after which the signature check rejects them anyway.
+ * <p>
+ * Local mode keeps the digests in a concurrent map. Redis mode keeps them as
+ * expiring Redis keys shared by all nodes; each node holds a Bloom filter of revoked
+ * digests, fed by revocations broadcast over pub/sub and rebuilt periodically from a
+ * SCAN, so only Bloom hits cost a Redis round trip. Until the first rebuild succeeds
+ * the filter is incomplete, so every lookup goes to Redis.
+ */
+@Component
+public class TokenRevocationStore implements MessageListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+	private final StringRedisTemplate stringRedisTemplate;
+
+	private final boolean redisEnabled;
+
+	private final String revokedKeyPrefix;
+
+	private final String revocationChannel;
+
+	private final long expectedInsertions;
+
+	private final double falsePositiveRate;
+
+	// Local mode: digest -> expiry in epoch millis
+	private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+	// Redis mode: pre-check so most lookups stay local
+	private volatile BloomFilter bloomFilter;
+
+	// Also fed while a rebuild is scanning, so no revocation falls between the two filters
+	private volatile BloomFilter rebuildingFilter;
+
+	// Set once a rebuild has seeded the filter with the revocations already in Redis
+	private volatile boolean bloomFilterLoaded;
+
+	@Autowired
+	public TokenRevocationStore(StringRedisTemplate stringRedisTemplate,
+			@Value("${app.security.revocation.redis-enabled:false}") boolean redisEnabled,
+			@Value("${app.security.revocation.key-prefix:booking:jwt}") String keyPrefix,
+			@Value("${app.security.revocation.bloom.expected-insertions:100000}") long expectedInsertions,
+			@Value("${app.security.revocation.bloom.fpp:0.01}") double falsePositiveRate) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.redisEnabled = redisEnabled;
+		this.revokedKeyPrefix = keyPrefix + ":revoked:";
+		this.revocationChannel = keyPrefix + ":revocations";
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+	}
+
+	/**
+	 * Seed the Bloom filter once the application is up, so a slow or unavailable
+	 * Redis does not hold up startup; a failed load is retried by {@link #maintain()}
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadBloomFilter() {
+		if (redisEnabled) {
+			rebuildBloomFilter();
+		}
+	}
+
+	public String getRevocationChannel() {
+		return revocationChannel;
+	}
+
+	/**
+	 * Revoke a token until it expires
+	 *
+	 * @param token      compact JWT
+	 * @param expiration the token's exp claim
+	 */
+	public void revoke(String token, Date expiration) {
+		long ttlMillis = expiration.getTime() - System.currentTimeMillis();
+		if (ttlMillis <= 0) {
+			return;
+		}
+		String digest = JwtTokenProvider.digest(token);
+		if (!redisEnabled) {
+			revokedTokens.put(digest, expiration.getTime());
+			return;
+		}
+		// Write Redis before the filters so a concurrent rebuild's SCAN sees the key
+		stringRedisTemplate.opsForValue().set(revokedKeyPrefix + digest, "1", ttlMillis, TimeUnit.MILLISECONDS);
+		addToBloomFilters(digest);
+		try {
+			stringRedisTemplate.convertAndSend(revocationChannel, digest);
+		} catch (Exception e) {
+			// Other nodes still find the key once their next rebuild picks it up
+			logger.error("Error publishing token revocation: {}", e.getMessage());
+		}
+	}
+
+	public boolean isRevoked(String token) {
+		String digest = JwtTokenProvider.digest(token);
+		if (!redisEnabled) {
+			Long expiresAt = revokedTokens.get(digest);
+			if (expiresAt == null) {
+				return false;
+			}
+			if (expiresAt <= System.currentTimeMillis()) {
+				revokedTokens.remove(digest, expiresAt);
+				return false;
+			}
+			return true;
+		}
+		long[] hashes = hashes(digest);
+		if (bloomFilterLoaded && !bloomFilter.mightContain(hashes[0], hashes[1])) {
+			return false;
+		}
+		try {
+			return Boolean.TRUE.equals(stringRedisTemplate.hasKey(revokedKeyPrefix + digest));
+		} catch (Exception e) {
+			// Fail closed: only Bloom hits reach here, so this rejects few valid tokens
+			logger.error("Error checking token revocation: {}", e.getMessage());
+			return true;
+		}
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String digest = new String(message.getBody(), StandardCharsets.UTF_8);
+		try {
+			addToBloomFilters(digest);
+		} catch (IllegalArgumentException e) {
+			logger.warn("Ignoring malformed token revocation message: {}", digest);
+		}
+	}
+
+	/**
+	 * Drop expired local entries, or rebuild the Bloom filter from Redis so it
+	 * forgets expired revocations and catches any missed broadcasts
+	 */
+	@Scheduled(fixedRateString = "${app.security.revocation.maintenance-ms:300000}", initialDelayString = "${app.security.revocation.maintenance-ms:300000}")
+	public void maintain() {
+		if (redisEnabled) {
+			rebuildBloomFilter();
+		} else {
+			purgeExpired();
+		}
+	}
+
+	int purgeExpired() {
+		long now = System.currentTimeMillis();
+		int before = revokedTokens.size();
+		revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+		int removed = before - revokedTokens.size();
+		logger.debug("Purged {} expired revoked tokens", removed);
+		return removed;
+	}
+
+	synchronized void rebuildBloomFilter() {
+		BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+		rebuildingFilter = rebuilt;
+		ScanOptions options = ScanOptions.scanOptions().match(revokedKeyPrefix + "*").count(1000).build();
+		long count = 0;
+		try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+			while (cursor.hasNext()) {
+				long[] hashes = hashes(cursor.next().substring(revokedKeyPrefix.length()));
+				rebuilt.put(hashes[0], hashes[1]);
+				count++;
+			}
+			bloomFilter = rebuilt;
+			bloomFilterLoaded = true;
+			logger.debug("Rebuilt token revocation filter with {} revoked tokens", count);
+		} catch (Exception e) {
+			// Keep the old filter; it may over-report but never under-reports
+			logger.error("Error rebuilding token revocation filter: {}", e.getMessage());
+		} finally {
+			rebuildingFilter = null;
+		}
+	}
+
+	private void addToBloomFilters(String digest) {
+		long[] hashes = hashes(digest);
+		// Feed the rebuilding filter first: a rebuild swaps bloomFilter before clearing
+		// rebuildingFilter, so if that read misses the rebuild, the read below sees the new filter
+		BloomFilter rebuilding = rebuildingFilter;
+		if (rebuilding != null) {
+			rebuilding.put(hashes[0], hashes[1]);
+		}
+		bloomFilter.put(hashes[0], hashes[1]);
+	}
+
+	private static long[] hashes(String digest) {
+		ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(digest));
+		return new long[] { buffer.getLong(0), buffer.getLong(8) };
+	}
+}
@@ -0,0 +1,69 @@
+package com.swl.booking.system.security;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded, TTL-based cache of authenticated principals keyed by email, so that
+ * {@link JwtAuthenticationFilter} does not query the user table on every request.
+ * Entries are evicted explicitly when a user's credentials or roles change; the TTL
+ * bounds how long another node may keep serving a principal it was not told about.
+ */
+@Component
+public class UserPrincipalCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+	private final Cache<String, UserDetails> cache;
+
+	@Autowired
+	public UserPrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+			@Value("${app.security.principal-cache.ttl:300}") long ttlSeconds) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.build();
+	}
+
+	/**
+	 * Get the principal for an email, loading it on a miss
+	 *
+	 * @param email  user email (JWT subject)
+	 * @param loader loads the principal from the database
+	 * @return cached or freshly loaded principal
+	 */
+	public UserDetails get(String email, Function<String, UserDetails> loader) {
+		return cache.get(email, loader);
+	}
+
+	public void evict(String email) {
+		cache.invalidate(email);
+	}
+
+	/**
+	 * Evict by user id, for callers that only know the id
+	 *
+	 * @param userId user id
+	 */
+	public void evictById(Long userId) {
+		boolean removed = cache.asMap().values()
+				.removeIf(details -> details instanceof UserPrincipal principal && userId.equals(principal.getId()));
+		if (removed) {
+			logger.debug("Evicted cached principal for user {}", userId);
+		}
+	}
+
+	public void evictAll() {
+		cache.invalidateAll();
+	}
+}
@@ -0,0 +1,26 @@
+package com.swl.booking.system.security;
+
+import java.util.Date;
+
+/**
+ * Claims of a token whose signature and expiry have been checked
+ */
+public class VerifiedJwt {
+
+	private final String subject;
+
+	private final Date expiration;
+
+	public VerifiedJwt(String subject, Date expiration) {
+		this.subject = subject;
+		this.expiration = expiration;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public Date getExpiration() {
+		return expiration;
+	}
+}
@@ -0,0 +1,116 @@
+package com.swl.booking.system.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swl.booking.system.response.book.BookListResponse;
+
+/**
+ * Serialized {@code /available-book} response bodies, plain and gzip, kept per node and keyed
+ * by the available set's version. Clients revalidate with the version as ETag, so an unchanged
+ * catalog costs one small Redis GET and no serialization.
+ */
+@Service
+public class AvailableBooksResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailableBooksResponseCache.class);
+
+    private final RedisBookCacheService redisBookCacheService;
+
+    private final BookService bookService;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public AvailableBooksResponseCache(RedisBookCacheService redisBookCacheService, BookService bookService,
+            ObjectMapper objectMapper) {
+        this.redisBookCacheService = redisBookCacheService;
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Current version of the available books, to be checked against If-None-Match
+     * @return version, null if it cannot be read and the response must not be cached
+     */
+    public String currentVersion() {
+        return redisBookCacheService.getAvailableBooksVersion();
+    }
+
+    /**
+     * Response bodies for a version, serialized at most once per node while it is current
+     * @param version value returned by {@link #currentVersion()}
+     * @return serialized bodies labelled with the version
+     */
+    public Snapshot getSnapshot(String version) {
+        Snapshot current = snapshot;
+        if (current != null && current.version().equals(version)) {
+            return current;
+        }
+        // Bypass L1: it may not have seen the invalidation behind this version yet
+        BookListResponse response = bookService.getAvailableBooksResponse(true);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            Snapshot built = new Snapshot(version, json, gzip(json));
+            snapshot = built;
+            logger.debug("Serialized available books response for version {}: {} bytes, {} gzipped",
+                    version, json.length, built.gzip().length);
+            return built;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Strong ETag of one representation; the encodings differ in bytes, so in tag too
+     */
+    public static String etag(String version, boolean gzipped) {
+        return "\"" + version + (gzipped ? "-gzip\"" : "\"");
+    }
+
+    /**
+     * Whether an If-None-Match header names either representation of a version
+     */
+    public static boolean matches(String ifNoneMatch, String version) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String plain = etag(version, false);
+        String gzipped = etag(version, true);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(plain) || tag.equals(gzipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serialized bodies of one version of the available books
+     */
+    public record Snapshot(String version, byte[] json, byte[] gzip) {
+    }
+}
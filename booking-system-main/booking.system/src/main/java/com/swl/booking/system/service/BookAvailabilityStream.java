@@ -0,0 +1,341 @@
+package com.swl.booking.system.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes book availability changes to clients over Server-Sent Events instead of having them
+ * poll the available list.
+ * <p>
+ * {@link BookCacheSyncService} calls {@link #publish} with the committed count of a changed
+ * book. The change goes out on a Redis channel, so every node hears it, including the sender,
+ * and applies it to its {@link BookSearchIndex} so {@code available=true} searches stay current.
+ * Each node keeps the latest count per book and, every {@code app.availability.flush-ms}, sends
+ * the batch as one {@code availability} event to its subscribers. The JSON is built once per
+ * batch. An idle subscriber is an async request without a thread.
+ * <p>
+ * Each subscriber has a small bounded queue drained by at most one task at a time, so its events
+ * arrive in order and a slow client only holds up itself. The scheduler thread only enqueues;
+ * a client whose queue is full has fallen behind and is dropped rather than waited for.
+ */
+@Service
+public class BookAvailabilityStream implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookAvailabilityStream.class);
+
+    public static final String EVENT_NAME = "availability";
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * One entry of an availability event
+     */
+    public record Change(Long bookId, int available) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final TaskExecutor fanoutExecutor;
+
+    private final String channel;
+
+    private final long timeoutMillis;
+
+    private final int maxSubscribers;
+
+    private final int queueCapacity;
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    // Latest available count per book since the last flush
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BookAvailabilityStream(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+            BookSearchIndex bookSearchIndex, MeterRegistry meterRegistry,
+            @Value("${app.cache.book.key-prefix:booking:book}") String keyPrefix,
+            @Value("${app.availability.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.availability.max-subscribers:50000}") int maxSubscribers,
+            @Value("${app.availability.client-queue:16}") int queueCapacity,
+            @Value("${app.availability.fanout-threads:8}") int fanoutThreads) {
+        this(stringRedisTemplate, objectMapper, bookSearchIndex, fanoutExecutor(fanoutThreads, maxSubscribers),
+                keyPrefix, timeoutMillis, maxSubscribers, queueCapacity);
+        Gauge.builder("booking.availability.subscribers", subscribers, Map::size)
+                .description("Open availability streams on this node")
+                .register(meterRegistry);
+    }
+
+    BookAvailabilityStream(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+            BookSearchIndex bookSearchIndex, TaskExecutor fanoutExecutor, String keyPrefix, long timeoutMillis,
+            int maxSubscribers, int queueCapacity) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.bookSearchIndex = bookSearchIndex;
+        this.fanoutExecutor = fanoutExecutor;
+        this.channel = keyPrefix + ":availability";
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    // Neither executor blocks the caller: a subscriber has at most one drain task queued or running
+    private static TaskExecutor fanoutExecutor(int threads, int maxSubscribers) {
+        if (Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("availability-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("availability-");
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (fanoutExecutor instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Open a stream for one client
+     *
+     * @return the emitter to return from the handler, or null when this node is full
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            logger.warn("Refusing availability stream, {} already open", subscribers.size());
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(emitter);
+        return emitter;
+    }
+
+    void register(SseEmitter emitter) {
+        subscribers.put(emitter, new Subscriber(emitter));
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> {
+            subscribers.remove(emitter);
+            emitter.complete();
+        });
+        emitter.onError(error -> subscribers.remove(emitter));
+    }
+
+    /**
+     * Announce the committed available count of a book to every node
+     *
+     * @param updatedTime the row's updated time, so a node can ignore a change older than its copy
+     */
+    public void publish(Long bookId, int available, Date updatedTime) {
+        String message = String.valueOf(bookId) + SEPARATOR + available;
+        if (updatedTime != null) {
+            message += SEPARATOR + String.valueOf(updatedTime.getTime());
+        }
+        try {
+            stringRedisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            // Other nodes' clients see it with the next change to the book
+            logger.error("Error publishing availability of book {}: {}", bookId, e.getMessage());
+            pending.put(bookId, available);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        Long bookId;
+        int available;
+        Date updatedTime;
+        try {
+            // bookId:available, then :updatedMillis unless the row had no updated time
+            String[] parts = body.split(String.valueOf(SEPARATOR), 3);
+            bookId = Long.valueOf(parts[0]);
+            available = Integer.parseInt(parts[1]);
+            updatedTime = parts.length > 2 ? new Date(Long.parseLong(parts[2])) : null;
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed availability message '{}'", body);
+            return;
+        }
+        pending.put(bookId, available);
+        bookSearchIndex.updateAvailability(bookId, available, updatedTime);
+    }
+
+    /**
+     * Send the changes collected since the last flush as one event
+     */
+    @Scheduled(fixedDelayString = "${app.availability.flush-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> batch = new LinkedHashMap<>();
+        for (Long bookId : pending.keySet()) {
+            // remove() hands over each value once, so a change racing this loop lands in the next batch
+            Integer available = pending.remove(bookId);
+            if (available != null) {
+                batch.put(bookId, available);
+            }
+        }
+        if (batch.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+
+        List<Change> changes = new ArrayList<>(batch.size());
+        batch.forEach((bookId, available) -> changes.add(new Change(bookId, available)));
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            logger.error("Error encoding availability changes: {}", e.getMessage());
+            return;
+        }
+        broadcast(() -> SseEmitter.event().name(EVENT_NAME).data(json, MediaType.APPLICATION_JSON));
+    }
+
+    /**
+     * Comment line that keeps idle connections open through proxies and finds clients that left
+     */
+    @Scheduled(fixedRateString = "${app.availability.heartbeat-ms:30000}", initialDelayString = "${app.availability.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(() -> SseEmitter.event().comment(""));
+        }
+    }
+
+    // Builders are filled in on send, so each emitter gets its own
+    private void broadcast(Supplier<SseEmitter.SseEventBuilder> event) {
+        for (Subscriber subscriber : subscribers.values()) {
+            if (!subscriber.offer(event)) {
+                logger.warn("Dropping availability stream that fell {} events behind", queueCapacity);
+                subscriber.close(null);
+            }
+        }
+    }
+
+    /**
+     * One client's pending events. Only the drain task touches the emitter, so a client that has
+     * stopped reading never blocks the thread that enqueues for it.
+     */
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile Throwable closeError;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        boolean offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed || !queue.offer(event)) {
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        void close(Throwable error) {
+            subscribers.remove(emitter);
+            closeError = error;
+            closed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                fanoutExecutor.execute(this);
+            } catch (TaskRejectedException e) {
+                // No drain task is running, so nothing else is sending to this emitter
+                subscribers.remove(emitter);
+                closed = true;
+                emitter.complete();
+                logger.warn("Dropping availability stream, fan-out executor is full: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            Supplier<SseEmitter.SseEventBuilder> event;
+            try {
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event.get());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                subscribers.remove(emitter);
+                closed = true;
+                closeError = e;
+            }
+            if (closed) {
+                queue.clear();
+                if (closeError != null) {
+                    emitter.completeWithError(closeError);
+                } else {
+                    emitter.complete();
+                }
+                return;
+            }
+            draining.set(false);
+            // An event or close that arrived after the last poll found this task still running
+            if (!queue.isEmpty() || closed) {
+                schedule();
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+}
@@ -0,0 +1,249 @@
+package com.swl.booking.system.service;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.swl.booking.system.config.AsyncConfig;
+import com.swl.booking.system.request.book.BookRegisterRequest;
+import com.swl.booking.system.response.book.BulkRegisterResponse;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Registers books from a feed in chunks, bypassing the entity manager.
+ * <p>
+ * Books use IDENTITY ids, which make Hibernate insert one row per round trip, so chunks go
+ * straight to JDBC as a single batch; with {@code rewriteBatchedStatements} the MySQL driver
+ * sends that batch as multi-row INSERTs. Each chunk is checked against the table with one
+ * {@code IN} query and committed on its own, so a bad row or a failed chunk never undoes the
+ * chunks before it. Caches and search indexes are refreshed once, after the whole feed.
+ */
+@Service
+public class BookBulkRegistrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookBulkRegistrationService.class);
+
+    private static final String INSERT_BOOK = "INSERT INTO book "
+            + "(isbn, title, author, is_available, quantity, available_quantity, created_date, updated_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EXISTING_ISBNS = "SELECT isbn FROM book WHERE isbn IN (:isbns)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionOperations transactionOperations;
+
+    private final Validator validator;
+
+    private final RedisBookCacheService redisBookCacheService;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookSuggestIndex bookSuggestIndex;
+
+    private final AsyncTaskExecutor cacheTaskExecutor;
+
+    private final int chunkSize;
+
+    private final int maxReportedRejections;
+
+    @Autowired
+    public BookBulkRegistrationService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+            TransactionOperations transactionOperations, Validator validator,
+            RedisBookCacheService redisBookCacheService, BookSearchIndex bookSearchIndex,
+            BookSuggestIndex bookSuggestIndex,
+            @Qualifier(AsyncConfig.CACHE_TASK_EXECUTOR) AsyncTaskExecutor cacheTaskExecutor,
+            @Value("${app.book.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${app.book.bulk.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.redisBookCacheService = redisBookCacheService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.cacheTaskExecutor = cacheTaskExecutor;
+        this.chunkSize = chunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    /**
+     * Register every valid, new book in the feed
+     *
+     * @param feed rows to register; read to the end but not closed
+     * @return counts, per-chunk throughput and the first rejected rows
+     */
+    public BulkRegisterResponse registerBooks(BookFeedReader feed) throws IOException {
+        long start = System.nanoTime();
+        BulkRegisterResponse response = new BulkRegisterResponse();
+        List<BookFeedReader.Row> chunk = new ArrayList<>(chunkSize);
+        BookFeedReader.Row row;
+        try {
+            while ((row = feed.read()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    registerChunk(chunk, response);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                registerChunk(chunk, response);
+            }
+        } finally {
+            // Earlier chunks are committed even if the feed breaks off
+            if (response.getInserted() > 0) {
+                refreshCatalogViews();
+            }
+        }
+
+        response.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Bulk registration: {} rows, {} inserted, {} rejected in {} ms", response.getReceived(),
+                response.getInserted(), response.getRejected(), response.getElapsedMillis());
+        return response;
+    }
+
+    private void registerChunk(List<BookFeedReader.Row> rows, BulkRegisterResponse response) {
+        long start = System.nanoTime();
+        long rejectedBefore = response.getRejected();
+
+        // Keyed by upper-cased ISBN: the unique index compares case-insensitively
+        Map<String, BookFeedReader.Row> accepted = new LinkedHashMap<>();
+        for (BookFeedReader.Row row : rows) {
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                reject(response, row, error);
+                continue;
+            }
+            String isbn = row.request().getIsbn().trim();
+            if (accepted.putIfAbsent(isbn.toUpperCase(Locale.ROOT), row) != null) {
+                reject(response, row, "Duplicate ISBN earlier in the feed");
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<String> existing = namedParameterJdbcTemplate.queryForList(SELECT_EXISTING_ISBNS,
+                    Map.of("isbns", accepted.values().stream().map(row -> row.request().getIsbn().trim())
+                            .collect(Collectors.toList())),
+                    String.class);
+            for (String isbn : existing) {
+                BookFeedReader.Row row = accepted.remove(isbn.toUpperCase(Locale.ROOT));
+                if (row != null) {
+                    reject(response, row, "Book with ISBN " + row.request().getIsbn().trim() + " already exists");
+                }
+            }
+        }
+
+        int inserted = accepted.isEmpty() ? 0 : insert(new ArrayList<>(accepted.values()), response);
+        response.setReceived(response.getReceived() + rows.size());
+        response.setInserted(response.getInserted() + inserted);
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        int chunkNumber = response.getChunks().size() + 1;
+        BulkRegisterResponse.ChunkResult result = new BulkRegisterResponse.ChunkResult(chunkNumber, rows.size(),
+                inserted, (int) (response.getRejected() - rejectedBefore),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows.size() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        response.getChunks().add(result);
+        logger.info("Bulk registration chunk {}: {} rows, {} inserted, {} rejected in {} ms ({} rows/s)",
+                chunkNumber, result.getRows(), result.getInserted(), result.getRejected(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+    }
+
+    /**
+     * Insert the chunk as one batch; if another writer registered one of its ISBNs in the
+     * meantime, the batch is rolled back and the rows are inserted one at a time instead
+     */
+    private int insert(List<BookFeedReader.Row> rows, BulkRegisterResponse response) {
+        try {
+            transactionOperations.executeWithoutResult(status -> insertBatch(rows));
+            return rows.size();
+        } catch (DuplicateKeyException e) {
+            logger.debug("Chunk raced with another registration, inserting row by row: {}", e.getMessage());
+        }
+
+        int inserted = 0;
+        for (BookFeedReader.Row row : rows) {
+            try {
+                transactionOperations.executeWithoutResult(status -> insertBatch(List.of(row)));
+                inserted++;
+            } catch (DuplicateKeyException e) {
+                reject(response, row, "Book with ISBN " + row.request().getIsbn().trim() + " already exists");
+            }
+        }
+        return inserted;
+    }
+
+    private void insertBatch(List<BookFeedReader.Row> rows) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_BOOK, rows, rows.size(), (PreparedStatement ps, BookFeedReader.Row row) -> {
+            BookRegisterRequest request = row.request();
+            int quantity = request.getQuantity() != null ? request.getQuantity() : 1;
+            ps.setString(1, request.getIsbn().trim());
+            ps.setString(2, request.getTitle().trim());
+            ps.setString(3, request.getAuthor().trim());
+            ps.setBoolean(4, true);
+            ps.setInt(5, quantity);
+            ps.setInt(6, quantity);
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+    }
+
+    private String validate(BookRegisterRequest request) {
+        Set<ConstraintViolation<BookRegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reject(BulkRegisterResponse response, BookFeedReader.Row row, String reason) {
+        response.setRejected(response.getRejected() + 1);
+        if (response.getRejectedRows().size() < maxReportedRejections) {
+            String isbn = row.request() != null ? row.request().getIsbn() : null;
+            response.getRejectedRows().add(new BulkRegisterResponse.RejectedRow(row.number(), isbn, reason));
+        }
+    }
+
+    /**
+     * New books skip the outbox, so the available list is invalidated and the indexes rebuilt
+     * in the background rather than fed one book at a time
+     */
+    private void refreshCatalogViews() {
+        redisBookCacheService.invalidateAvailableBooksCache();
+        try {
+            cacheTaskExecutor.execute(bookSearchIndex::rebuild);
+            cacheTaskExecutor.execute(bookSuggestIndex::rebuild);
+        } catch (TaskRejectedException e) {
+            logger.warn("Cache executor rejected the index rebuild, new books appear after the next scheduled one: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.swl.booking.system.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.entity.CacheOutboxEvent;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.repository.CacheOutboxRepository;
+import com.swl.booking.system.response.book.BookResponse;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies book and borrowing changes to Redis only after the transaction that made them commits.
+ * <p>
+ * {@link #record} writes an outbox row inside the caller's transaction and publishes it. After
+ * commit the row is queued and a single background thread drains the queue, applying each
+ * distinct change once per batch and deleting the rows it applied. Rolled-back changes never
+ * reach Redis, and the request thread no longer waits on Redis while holding row locks. Rows
+ * left behind by a crash or a failed apply are replayed by {@link #relayPending()}.
+ */
+@Service
+public class BookCacheSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookCacheSyncService.class);
+
+    private final CacheOutboxRepository cacheOutboxRepository;
+
+    private final BookRepository bookRepository;
+
+    private final RedisBookCacheService redisBookCacheService;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookSuggestIndex bookSuggestIndex;
+
+    private final BookAvailabilityStream bookAvailabilityStream;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long relayAfterMillis;
+
+    private final int batchSize;
+
+    private final Queue<CacheOutboxEvent> committed = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private final ThreadPoolExecutor syncExecutor;
+
+    @Autowired
+    public BookCacheSyncService(CacheOutboxRepository cacheOutboxRepository, BookRepository bookRepository,
+            RedisBookCacheService redisBookCacheService, BookSearchIndex bookSearchIndex,
+            BookSuggestIndex bookSuggestIndex, BookAvailabilityStream bookAvailabilityStream,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.cache.outbox.relay-after-ms:10000}") long relayAfterMillis,
+            @Value("${app.cache.outbox.batch-size:500}") int batchSize) {
+        this.cacheOutboxRepository = cacheOutboxRepository;
+        this.bookRepository = bookRepository;
+        this.redisBookCacheService = redisBookCacheService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestIndex = bookSuggestIndex;
+        this.bookAvailabilityStream = bookAvailabilityStream;
+        this.eventPublisher = eventPublisher;
+        this.relayAfterMillis = relayAfterMillis;
+        this.batchSize = batchSize;
+        this.syncExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-sync");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.syncExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Record a cache change as part of the current transaction
+     *
+     * @param type     what the target id refers to
+     * @param targetId book or user id
+     */
+    public void record(CacheOutboxEvent.Type type, Long targetId) {
+        CacheOutboxEvent event = new CacheOutboxEvent(type, targetId);
+        event.setCreatedTime(new Date());
+        eventPublisher.publishEvent(cacheOutboxRepository.save(event));
+    }
+
+    /**
+     * Queue a committed change; runs without a transaction too, so direct callers are not lost
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommitted(CacheOutboxEvent event) {
+        committed.add(event);
+        // One queued flush drains everything committed until it runs, so bursts share a batch
+        if (flushQueued.compareAndSet(false, true)) {
+            syncExecutor.execute(this::flush);
+        }
+    }
+
+    void flush() {
+        flushQueued.set(false);
+        List<CacheOutboxEvent> batch = new ArrayList<>();
+        CacheOutboxEvent event;
+        while ((event = committed.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            apply(batch);
+        }
+    }
+
+    /**
+     * Replay outbox rows that were not applied shortly after their commit
+     */
+    @Scheduled(fixedDelayString = "${app.cache.outbox.relay-ms:30000}", initialDelayString = "${app.cache.outbox.relay-ms:30000}")
+    public void relayPending() {
+        try {
+            List<CacheOutboxEvent> pending;
+            do {
+                Date before = new Date(System.currentTimeMillis() - relayAfterMillis);
+                pending = cacheOutboxRepository.findByCreatedTimeBeforeOrderByIdAsc(before, PageRequest.of(0, batchSize));
+                if (!pending.isEmpty()) {
+                    logger.info("Replaying {} pending cache changes", pending.size());
+                }
+            } while (apply(pending) == batchSize);
+        } catch (Exception e) {
+            logger.error("Error replaying cache outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply each distinct change once and delete the rows that were applied
+     *
+     * @return number of rows deleted
+     */
+    int apply(List<CacheOutboxEvent> events) {
+        Map<String, List<Long>> rowIdsByChange = new LinkedHashMap<>();
+        Map<String, CacheOutboxEvent> changes = new LinkedHashMap<>();
+        for (CacheOutboxEvent event : events) {
+            String change = event.getType() + ":" + event.getTargetId();
+            changes.putIfAbsent(change, event);
+            rowIdsByChange.computeIfAbsent(change, key -> new ArrayList<>()).add(event.getId());
+        }
+
+        List<Long> applied = new ArrayList<>(events.size());
+        changes.forEach((change, event) -> {
+            try {
+                applyChange(event);
+                applied.addAll(rowIdsByChange.get(change));
+            } catch (Exception e) {
+                // Row stays in the outbox and the relay retries it
+                logger.error("Error applying cache change {}: {}", change, e.getMessage());
+            }
+        });
+
+        if (!applied.isEmpty()) {
+            try {
+                cacheOutboxRepository.deleteAllByIdInBatch(applied);
+            } catch (Exception e) {
+                // Changes are idempotent, so a later replay only repeats them
+                logger.error("Error deleting {} applied cache changes: {}", applied.size(), e.getMessage());
+                return 0;
+            }
+        }
+        logger.debug("Applied {} cache changes from {} outbox rows", changes.size(), events.size());
+        return applied.size();
+    }
+
+    private void applyChange(CacheOutboxEvent event) {
+        Long targetId = event.getTargetId();
+        switch (event.getType()) {
+        case BOOK:
+            // Read the committed row rather than trusting state captured inside the transaction
+            Book book = bookRepository.findById(targetId).orElse(null);
+            if (book == null) {
+                bookSearchIndex.remove(targetId);
+                redisBookCacheService.invalidateAvailableBooksCache();
+            } else {
+                BookResponse response = new BookResponse(book);
+                // In-memory first, so a Redis failure does not hold back search results
+                bookSearchIndex.put(response);
+                bookSuggestIndex.put(response);
+                bookAvailabilityStream.publish(targetId, book.getAvailableQuantity(), book.getUpdatedTime());
+                redisBookCacheService.applyAvailabilityChange(response);
+            }
+            redisBookCacheService.invalidateBookDetailCache(targetId);
+            break;
+        case BORROWED_BOOKS:
+            redisBookCacheService.invalidateUserBorrowedBooksCache(targetId);
+            break;
+        default:
+            logger.warn("Ignoring unknown cache change type {}", event.getType());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdown();
+    }
+}
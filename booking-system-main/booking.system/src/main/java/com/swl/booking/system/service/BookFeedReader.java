@@ -0,0 +1,189 @@
+package com.swl.booking.system.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.swl.booking.system.exception.ResponseInfoException;
+import com.swl.booking.system.request.book.BookRegisterRequest;
+
+/**
+ * Reads a publisher feed of books one row at a time, either as CSV with a header line naming
+ * the {@code isbn}, {@code title}, {@code author} and optional {@code quantity} columns, or as
+ * newline-delimited JSON with one {@link BookRegisterRequest} per line. Nothing is buffered
+ * beyond the current row, and a row that cannot be parsed comes back with an error instead of
+ * ending the feed.
+ */
+public abstract class BookFeedReader implements Closeable {
+
+    /**
+     * One row of the feed
+     *
+     * @param number  1-based data row (CSV) or line (NDJSON) number
+     * @param request parsed row, null if it could not be parsed
+     * @param error   why the row could not be parsed, null otherwise
+     */
+    public record Row(long number, BookRegisterRequest request, String error) {
+    }
+
+    protected final BufferedReader reader;
+
+    protected long rowNumber;
+
+    protected BookFeedReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @return next row, null at the end of the feed
+     */
+    public abstract Row read() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    public static BookFeedReader csv(Reader reader) throws IOException {
+        return new Csv(reader);
+    }
+
+    public static BookFeedReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+
+    private static final class Ndjson extends BookFeedReader {
+
+        private final ObjectReader rowReader;
+
+        Ndjson(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.rowReader = objectMapper.readerFor(BookRegisterRequest.class);
+        }
+
+        @Override
+        public Row read() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+                rowNumber++;
+            } while (line.isBlank());
+            try {
+                return new Row(rowNumber, rowReader.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new Row(rowNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static final class Csv extends BookFeedReader {
+
+        private final int isbnColumn;
+        private final int titleColumn;
+        private final int authorColumn;
+        private final int quantityColumn;
+
+        Csv(Reader reader) throws IOException {
+            super(reader);
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new ResponseInfoException("CSV feed is empty");
+            }
+            List<String> names = new ArrayList<>(header.size());
+            for (String name : header) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            this.isbnColumn = names.indexOf("isbn");
+            this.titleColumn = names.indexOf("title");
+            this.authorColumn = names.indexOf("author");
+            this.quantityColumn = names.indexOf("quantity");
+            if (isbnColumn < 0 || titleColumn < 0 || authorColumn < 0) {
+                throw new ResponseInfoException("CSV header must name the isbn, title and author columns");
+            }
+        }
+
+        @Override
+        public Row read() throws IOException {
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            rowNumber++;
+
+            BookRegisterRequest request = new BookRegisterRequest();
+            request.setIsbn(field(fields, isbnColumn));
+            request.setTitle(field(fields, titleColumn));
+            request.setAuthor(field(fields, authorColumn));
+            String quantity = field(fields, quantityColumn);
+            if (quantity != null && !quantity.isEmpty()) {
+                try {
+                    request.setQuantity(Integer.valueOf(quantity));
+                } catch (NumberFormatException e) {
+                    return new Row(rowNumber, null, "Quantity is not a number: " + quantity);
+                }
+            }
+            return new Row(rowNumber, request, null);
+        }
+
+        private static String field(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column).trim() : null;
+        }
+
+        /**
+         * One RFC 4180 record: comma separated, fields optionally quoted, "" inside quotes for a
+         * quote, and line breaks allowed inside quotes
+         *
+         * @return fields, null at the end of input
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.swl.booking.system.service;
+
+import java.util.List;
+
+import com.swl.booking.system.request.book.HoldBookRequest;
+import com.swl.booking.system.response.book.BookHoldResponse;
+
+public interface BookHoldService {
+
+    String placeHold(HoldBookRequest request, Long userId);
+
+    String cancelHold(HoldBookRequest request, Long userId);
+
+    List<BookHoldResponse> getHolds(Long userId);
+
+    /**
+     * Fulfil the user's ready hold on a book, if any
+     * @return true if a copy was set aside for the user and is now theirs to borrow
+     */
+    boolean claimHold(Long bookId, Long userId);
+
+    /**
+     * Set a returned copy aside for the oldest waiting hold on the book
+     * @return true if a holder got the copy, false if it should go back into inventory
+     */
+    boolean allocateReturnedCopy(Long bookId);
+
+    /**
+     * Expire a ready hold whose pickup window has passed and pass its copy on
+     */
+    void expireHold(Long holdId);
+}
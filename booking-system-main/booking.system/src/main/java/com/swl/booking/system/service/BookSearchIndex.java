@@ -0,0 +1,405 @@
+package com.swl.booking.system.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swl.booking.system.config.AsyncConfig;
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.response.book.BookResponse;
+
+/**
+ * In-process inverted index over book titles, authors and ISBNs.
+ * <p>
+ * Each term maps to a {@link PostingList} of book ids. The index is loaded from the database
+ * after startup and kept current by {@link BookCacheSyncService}, which calls {@link #put} with
+ * the committed row after every register, borrow and return on this node. Available counts changed
+ * on any node arrive through {@link #updateAvailability} from {@link BookAvailabilityStream}; other
+ * edits made on other nodes are picked up by a periodic {@link #rebuild()} on the cache executor. Reads never lock; writes are serialised.
+ */
+@Service
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    static final String TITLE_FIELD = "t:";
+    static final String AUTHOR_FIELD = "a:";
+    static final String ISBN_FIELD = "i:";
+
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double AUTHOR_WEIGHT = 1.5;
+    private static final double ISBN_WEIGHT = 10.0;
+
+    // Terms are tracked in a bit mask per hit
+    private static final int MAX_QUERY_TERMS = 16;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ISBN = Pattern.compile("[^0-9X]");
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::matchedTerms)
+            .thenComparingDouble(hit -> hit.score)
+            .thenComparing(Comparator.comparingLong((Hit hit) -> hit.id).reversed());
+
+    private final BookRepository bookRepository;
+
+    private final int batchSize;
+
+    private final AsyncTaskExecutor cacheTaskExecutor;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile IndexState state = new IndexState();
+
+    private volatile boolean ready;
+
+    // Non-null while a rebuild reads the catalog; its changes are replayed onto the new index
+    private List<Change> changedDuringRebuild;
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository,
+            @Value("${app.search.rebuild-batch-size:1000}") int batchSize,
+            @Qualifier(AsyncConfig.CACHE_TASK_EXECUTOR) AsyncTaskExecutor cacheTaskExecutor) {
+        this.bookRepository = bookRepository;
+        this.batchSize = batchSize;
+        this.cacheTaskExecutor = cacheTaskExecutor;
+    }
+
+    /**
+     * Load the index once the application is up, off the startup thread
+     */
+    @Async(AsyncConfig.CACHE_TASK_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Queue a periodic rebuild, so the catalog read does not hold up the shared scheduler thread
+     */
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:900000}", initialDelayString = "${app.search.rebuild-ms:900000}")
+    public void scheduleRebuild() {
+        try {
+            cacheTaskExecutor.execute(this::rebuild);
+        } catch (TaskRejectedException e) {
+            // The next period tries again
+            logger.warn("Cache executor rejected the search index rebuild: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the whole catalog into a new index and swap it in
+     */
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            if (changedDuringRebuild != null) {
+                logger.debug("Search index rebuild already running");
+                return;
+            }
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        long start = System.nanoTime();
+        IndexState fresh = null;
+        try {
+            fresh = load();
+        } catch (Exception e) {
+            logger.error("Error building search index: {}", e.getMessage(), e);
+        }
+
+        writeLock.lock();
+        try {
+            if (fresh != null) {
+                for (Change change : changedDuringRebuild) {
+                    apply(fresh, change);
+                }
+                state = fresh;
+                ready = true;
+                logger.info("Search index built with {} books and {} terms in {} ms", fresh.books.size(),
+                        fresh.postings.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            changedDuringRebuild = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private IndexState load() {
+        IndexState fresh = new IndexState();
+        Map<String, IdBuffer> buffers = new HashMap<>();
+        long afterId = 0;
+        List<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, batchSize));
+            for (Book book : page) {
+                BookResponse response = new BookResponse(book);
+                fresh.books.put(response.getId(), response);
+                // Keyset pages arrive in id order, so every buffer stays sorted
+                for (String term : terms(response)) {
+                    buffers.computeIfAbsent(term, key -> new IdBuffer()).add(response.getId());
+                }
+                afterId = book.getId();
+            }
+        } while (page.size() == batchSize);
+
+        buffers.forEach((term, buffer) -> fresh.postings.put(term, PostingList.of(buffer.ids, buffer.size)));
+        return fresh;
+    }
+
+    /**
+     * Add or update one book; a copy older than the indexed one is ignored
+     */
+    public void put(BookResponse book) {
+        update(new Change(book.getId(), book, null, null));
+    }
+
+    public void remove(Long bookId) {
+        update(new Change(bookId, null, null, null));
+    }
+
+    /**
+     * Set the available count of an indexed book; ignored for a book not indexed yet, or when the
+     * indexed copy was updated after the change
+     */
+    public void updateAvailability(Long bookId, int available, Date updatedTime) {
+        update(new Change(bookId, null, available, updatedTime));
+    }
+
+    private void update(Change change) {
+        writeLock.lock();
+        try {
+            apply(state, change);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void apply(IndexState target, Change change) {
+        long id = change.id();
+        BookResponse previous = target.books.get(id);
+        BookResponse book = change.book();
+        if (change.available() != null) {
+            if (previous == null || isOlder(change.updatedTime(), previous.getUpdatedTime())) {
+                return;
+            }
+            book = withAvailability(previous, change.available(), change.updatedTime());
+        } else if (book != null && previous != null && isOlder(book.getUpdatedTime(), previous.getUpdatedTime())) {
+            return;
+        }
+
+        Set<String> oldTerms = previous != null ? terms(previous) : Set.of();
+        Set<String> newTerms = book != null ? terms(book) : Set.of();
+        // Postings never point at a missing book: add the book before its postings, drop it after
+        if (book != null) {
+            target.books.put(id, book);
+        }
+        for (String term : oldTerms) {
+            if (!newTerms.contains(term)) {
+                target.postings.computeIfPresent(term, (key, postings) -> {
+                    PostingList remaining = postings.without(id);
+                    return remaining.size() == 0 ? null : remaining;
+                });
+            }
+        }
+        for (String term : newTerms) {
+            if (!oldTerms.contains(term)) {
+                target.postings.merge(term, PostingList.of(new long[] { id }, 1), (postings, single) -> postings.with(id));
+            }
+        }
+        if (book == null) {
+            target.books.remove(id);
+        }
+    }
+
+    private static boolean isOlder(Date updatedTime, Date indexedTime) {
+        return updatedTime != null && indexedTime != null && updatedTime.before(indexedTime);
+    }
+
+    // Readers may hold the indexed copy, so the change goes into a new one
+    private static BookResponse withAvailability(BookResponse book, int available, Date updatedTime) {
+        return new BookResponse(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), available > 0,
+                book.getQuantity(), available, book.getCreatedTime(),
+                updatedTime != null ? updatedTime : book.getUpdatedTime());
+    }
+
+    /**
+     * Ranked search: books matching more query terms come first, then higher TF-IDF style score
+     * (title above author), then lower id. An exact ISBN in the query matches every term.
+     *
+     * @param query         free text
+     * @param availableOnly skip books with no copy left
+     * @param limit         number of top results to return
+     * @return at most limit books, best first
+     */
+    public List<BookResponse> search(String query, boolean availableOnly, int limit) {
+        IndexState current = state;
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.size() > MAX_QUERY_TERMS) {
+            queryTerms = queryTerms.subList(0, MAX_QUERY_TERMS);
+        }
+        double bookCount = Math.max(1, current.books.size());
+
+        Map<Long, Hit> hits = new HashMap<>();
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String term = queryTerms.get(i);
+            long mask = 1L << i;
+            score(current, TITLE_FIELD + term, TITLE_WEIGHT, mask, bookCount, hits);
+            score(current, AUTHOR_FIELD + term, AUTHOR_WEIGHT, mask, bookCount, hits);
+        }
+        String isbn = normalizeIsbn(query);
+        if (isbn.length() == 10 || isbn.length() == 13) {
+            long allTerms = queryTerms.isEmpty() ? 1L : (1L << queryTerms.size()) - 1;
+            score(current, ISBN_FIELD + isbn, ISBN_WEIGHT, allTerms, bookCount, hits);
+        }
+
+        // Keep only the best limit hits instead of sorting every match
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, Math.min(limit, hits.size())), RANKING);
+        for (Hit hit : hits.values()) {
+            hit.book = current.books.get(hit.id);
+            if (hit.book == null || (availableOnly && !hit.book.isAvailable())) {
+                continue;
+            }
+            top.add(hit);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<BookResponse> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(top.poll().book);
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private static void score(IndexState current, String term, double weight, long mask, double bookCount,
+            Map<Long, Hit> hits) {
+        PostingList postings = current.postings.get(term);
+        if (postings == null) {
+            return;
+        }
+        double termScore = weight * Math.log(1 + bookCount / postings.size());
+        postings.forEach(id -> {
+            Hit hit = hits.computeIfAbsent(id, Hit::new);
+            hit.terms |= mask;
+            hit.score += termScore;
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return state.books.size();
+    }
+
+    static Set<String> terms(BookResponse book) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(book.getTitle())) {
+            terms.add(TITLE_FIELD + token);
+        }
+        for (String token : tokenize(book.getAuthor())) {
+            terms.add(AUTHOR_FIELD + token);
+        }
+        String isbn = normalizeIsbn(book.getIsbn());
+        if (!isbn.isEmpty()) {
+            terms.add(ISBN_FIELD + isbn);
+        }
+        return terms;
+    }
+
+    /**
+     * Lower-cased words with accents removed, in order and without duplicates
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    static String normalizeIsbn(String text) {
+        return text == null ? "" : NON_ISBN.matcher(text.toUpperCase(Locale.ROOT)).replaceAll("");
+    }
+
+    private static final class IndexState {
+        private final Map<Long, BookResponse> books = new ConcurrentHashMap<>();
+        private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+    }
+
+    // A whole book, a removal (no book), or only an available count
+    private record Change(long id, BookResponse book, Integer available, Date updatedTime) {
+    }
+
+    private static final class IdBuffer {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static final class Hit {
+        private final long id;
+        private long terms;
+        private double score;
+        private BookResponse book;
+
+        Hit(long id) {
+            this.id = id;
+        }
+
+        int matchedTerms() {
+            return Long.bitCount(terms);
+        }
+    }
+}
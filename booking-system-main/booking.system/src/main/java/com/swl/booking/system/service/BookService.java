@@ -1,10 +1,15 @@
 package com.swl.booking.system.service;
 
+import java.util.function.Consumer;
+
 import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.request.book.BookBatchRequest;
 import com.swl.booking.system.request.book.BookRegisterRequest;
 import com.swl.booking.system.request.book.BorrowBookRequest;
 import com.swl.booking.system.request.book.ReturnBookRequest;
+import com.swl.booking.system.response.book.BookBatchResponse;
 import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookPageResponse;
 import com.swl.booking.system.response.book.BookResponse;
 
 public interface BookService {
@@ -13,11 +18,23 @@ public interface BookService {
     
     BookListResponse getAvailableBooksResponse();
 
-    BookListResponse getAllBooks();
+    BookListResponse getAvailableBooksResponse(boolean skipLocalCache);
+
+    BookPageResponse getAvailableBooks(String cursor, Integer size);
+
+    BookPageResponse getAllBooks(String cursor, Integer size);
+
+    void streamAllBooks(Consumer<BookResponse> consumer);
+
+    BookPageResponse searchBooks(String query, boolean availableOnly, String cursor, Integer size);
 
     String borrowBook(BorrowBookRequest request, Long userId);
 
     String returnBook(ReturnBookRequest request, Long userId);
 
+    BookBatchResponse borrowBooks(BookBatchRequest request, Long userId);
+
+    BookBatchResponse returnBooks(BookBatchRequest request, Long userId);
+
     BookListResponse getBorrowedBooks(Long userId);
 }
\ No newline at end of file
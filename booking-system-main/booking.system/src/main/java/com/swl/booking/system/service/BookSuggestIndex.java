@@ -0,0 +1,295 @@
+package com.swl.booking.system.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swl.booking.system.config.AsyncConfig;
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.repository.BookBorrowingRepository;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.response.book.BookSuggestionResponse;
+
+/**
+ * Autocomplete over book titles and authors.
+ * <p>
+ * Every distinct normalized title and author is a suggestion weighted by the books behind it:
+ * one for each book plus the number of times it has been borrowed. Suggestions are stored in a
+ * {@link SuggestTrie} under each of their first words, so "potter" completes "Harry Potter".
+ * Queries read the current trie without locking. New books are added through {@link #put} from
+ * {@link BookCacheSyncService}; borrow counts and changes from other nodes are refreshed by
+ * {@link #rebuild()}, which builds a new trie while the old one keeps serving.
+ */
+@Service
+public class BookSuggestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSuggestIndex.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 20;
+
+    // Keys start at each of the first few words of a title or author
+    private static final int MAX_WORD_STARTS = 6;
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final char KEY_SEPARATOR = '\u0001';
+
+    private final BookRepository bookRepository;
+
+    private final BookBorrowingRepository bookBorrowingRepository;
+
+    private final int batchSize;
+
+    private final AsyncTaskExecutor cacheTaskExecutor;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile SuggestTrie<Suggestion> trie = SuggestTrie.empty();
+
+    // Writer-side bookkeeping behind the trie, guarded by writeLock
+    private State state = new State(SuggestTrie.empty());
+
+    // Non-null while a rebuild reads the catalog; its changes are replayed onto the new state
+    private List<BookResponse> changedDuringRebuild;
+
+    @Autowired
+    public BookSuggestIndex(BookRepository bookRepository, BookBorrowingRepository bookBorrowingRepository,
+            @Value("${app.suggest.rebuild-batch-size:1000}") int batchSize,
+            @Qualifier(AsyncConfig.CACHE_TASK_EXECUTOR) AsyncTaskExecutor cacheTaskExecutor) {
+        this.bookRepository = bookRepository;
+        this.bookBorrowingRepository = bookBorrowingRepository;
+        this.batchSize = batchSize;
+        this.cacheTaskExecutor = cacheTaskExecutor;
+    }
+
+    /**
+     * Top completions for what the user has typed so far
+     *
+     * @param prefix partial title or author, in any case and with or without accents
+     * @param limit  number of suggestions, clamped to [1, MAX_LIMIT]
+     * @return suggestions, most popular first; empty for a blank prefix
+     */
+    public List<BookSuggestionResponse> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<Suggestion> top = trie.topK(key, k);
+        List<BookSuggestionResponse> responses = new ArrayList<>(top.size());
+        for (Suggestion suggestion : top) {
+            responses.add(new BookSuggestionResponse(suggestion.text(), suggestion.type()));
+        }
+        return responses;
+    }
+
+    /**
+     * Load titles, authors and borrow counts once the application is up, off the startup thread
+     */
+    @Async(AsyncConfig.CACHE_TASK_EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Queue a periodic rebuild, so the catalog read and borrow count do not hold up the shared
+     * scheduler thread
+     */
+    @Scheduled(fixedDelayString = "${app.suggest.rebuild-ms:900000}", initialDelayString = "${app.suggest.rebuild-ms:900000}")
+    public void scheduleRebuild() {
+        try {
+            cacheTaskExecutor.execute(this::rebuild);
+        } catch (TaskRejectedException e) {
+            // The next period tries again
+            logger.warn("Cache executor rejected the suggestion rebuild: {}", e.getMessage());
+        }
+    }
+
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            if (changedDuringRebuild != null) {
+                logger.debug("Suggestion rebuild already running");
+                return;
+            }
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        long start = System.nanoTime();
+        State fresh = null;
+        try {
+            fresh = load();
+        } catch (Exception e) {
+            logger.error("Error building suggestions: {}", e.getMessage(), e);
+        }
+
+        writeLock.lock();
+        try {
+            if (fresh != null) {
+                for (BookResponse change : changedDuringRebuild) {
+                    fresh.put(change, null);
+                }
+                state = fresh;
+                trie = fresh.trie;
+                logger.info("Suggestions built for {} books, {} titles and authors, in {} ms", fresh.books.size(),
+                        fresh.completions.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            changedDuringRebuild = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private State load() {
+        Map<Long, Long> borrowings = new HashMap<>();
+        for (BookBorrowingRepository.BorrowingCount count : bookBorrowingRepository.countBorrowingsByBook()) {
+            borrowings.put(count.getBookId(), count.getBorrowings());
+        }
+
+        State fresh = new State(SuggestTrie.empty());
+        long afterId = 0;
+        List<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, batchSize));
+            for (Book book : page) {
+                fresh.put(new BookResponse(book), borrowings.getOrDefault(book.getId(), 0L));
+                afterId = book.getId();
+            }
+        } while (page.size() == batchSize);
+        return fresh;
+    }
+
+    /**
+     * Add a book or pick up a change to its title or author; its borrow count is kept
+     */
+    public void put(BookResponse book) {
+        writeLock.lock();
+        try {
+            state.put(book, null);
+            trie = state.trie;
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(book);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lower-cased words with accents removed, separated by single spaces
+     */
+    static String normalize(String text) {
+        String normalized = String.join(" ", BookSearchIndex.tokenize(text));
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    /**
+     * One title or author as offered to the user
+     */
+    record Suggestion(String type, String text, long weight) implements SuggestTrie.Weighted {
+    }
+
+    private record BookEntry(String title, String author, long borrowings) {
+    }
+
+    private static final class Completion {
+        private final String type;
+        private final String key;
+        private String text;
+        private long weight;
+        private int books;
+
+        Completion(String type, String key) {
+            this.type = type;
+            this.key = key;
+        }
+    }
+
+    private static final class State {
+        private final Map<Long, BookEntry> books = new HashMap<>();
+        private final Map<String, Completion> completions = new HashMap<>();
+        private SuggestTrie<Suggestion> trie;
+
+        State(SuggestTrie<Suggestion> trie) {
+            this.trie = trie;
+        }
+
+        /**
+         * @param borrowings borrow count, or null to keep the one already known
+         */
+        void put(BookResponse book, Long borrowings) {
+            BookEntry previous = books.get(book.getId());
+            long count = borrowings != null ? borrowings : previous != null ? previous.borrowings() : 0;
+            BookEntry entry = new BookEntry(book.getTitle(), book.getAuthor(), count);
+            if (entry.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                contribute(BookSuggestionResponse.TITLE, previous.title(), -(1 + previous.borrowings()), -1);
+                contribute(BookSuggestionResponse.AUTHOR, previous.author(), -(1 + previous.borrowings()), -1);
+            }
+            books.put(book.getId(), entry);
+            contribute(BookSuggestionResponse.TITLE, entry.title(), 1 + count, 1);
+            contribute(BookSuggestionResponse.AUTHOR, entry.author(), 1 + count, 1);
+        }
+
+        private void contribute(String type, String text, long weight, int books) {
+            String key = normalize(text);
+            if (key.isEmpty()) {
+                return;
+            }
+            Completion completion = completions.computeIfAbsent(type + '|' + key, ignored -> new Completion(type, key));
+            completion.weight += weight;
+            completion.books += books;
+            if (books > 0 || completion.text == null) {
+                // Show the most recently indexed spelling
+                completion.text = text.trim();
+            }
+
+            Suggestion suggestion = null;
+            if (completion.books <= 0) {
+                completions.remove(type + '|' + key);
+            } else {
+                suggestion = new Suggestion(type, completion.text, completion.weight);
+            }
+            // Different suggestions can start with the same words, so each trie key ends in
+            // a separator that no query contains, followed by the suggestion's own identity
+            String identity = KEY_SEPARATOR + type + key;
+            String[] words = key.split(" ");
+            int offset = 0;
+            for (int i = 0; i < words.length && i < MAX_WORD_STARTS; i++) {
+                trie = trie.put(key.substring(offset) + identity, suggestion);
+                offset += words[i].length() + 1;
+            }
+        }
+    }
+
+    int size() {
+        writeLock.lock();
+        try {
+            return state.books.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.swl.booking.system.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import com.swl.booking.system.config.AsyncConfig;
+
+/**
+ * Keeps a cache miss from turning into one database query per caller.
+ * <p>
+ * On a node, concurrent misses for the same name share one load (single-flight). Across
+ * nodes, the loader first takes a short Redis lease ({@code SET NX PX}); a node that loses
+ * the race polls the cache for a bounded time before falling back to loading itself.
+ * Stale values are refreshed on the bounded cache task executor, at most once per name at a time.
+ */
+@Component
+public class CacheLoadCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheLoadCoordinator.class);
+
+    // Delete the lease only if we still own it, so an expired lease taken over by another node survives
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    // Redis unavailable: load without a lease rather than not at all
+    private static final String NO_LEASE = "";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final String leaseKeyPrefix;
+
+    private final long leaseMillis;
+
+    private final long waitMillis;
+
+    private final long pollMillis;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final AsyncTaskExecutor cacheTaskExecutor;
+
+    @Autowired
+    public CacheLoadCoordinator(StringRedisTemplate stringRedisTemplate,
+            @Value("${app.cache.book.key-prefix:booking:book}") String keyPrefix,
+            @Value("${app.cache.load.lease-ms:5000}") long leaseMillis,
+            @Value("${app.cache.load.wait-ms:2000}") long waitMillis,
+            @Value("${app.cache.load.poll-ms:50}") long pollMillis,
+            @Qualifier(AsyncConfig.CACHE_TASK_EXECUTOR) AsyncTaskExecutor cacheTaskExecutor) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaseKeyPrefix = keyPrefix + ":lease:";
+        this.leaseMillis = leaseMillis;
+        this.waitMillis = waitMillis;
+        this.pollMillis = pollMillis;
+        this.cacheTaskExecutor = cacheTaskExecutor;
+    }
+
+    /**
+     * Load a missing value once per node and, while the lease holds, once per cluster
+     *
+     * @param name        cache entry name, also the lease name
+     * @param cacheReader re-reads the cache, null on a miss
+     * @param loader      loads from the database and writes the cache
+     * @return loaded or concurrently cached value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Supplier<T> cacheReader, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(name, mine);
+        if (existing != null) {
+            return (T) awaitLoad(name, existing, loader);
+        }
+        try {
+            T value = loadOnce(name, cacheReader, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, mine);
+        }
+    }
+
+    /**
+     * Rebuild a stale value in the background; a no-op if a refresh of this name is already
+     * running here or another node holds its lease
+     *
+     * @param name      cache entry name
+     * @param refresher loads from the database and writes the cache
+     */
+    public void refreshInBackground(String name, Runnable refresher) {
+        if (!refreshing.add(name)) {
+            return;
+        }
+        try {
+            cacheTaskExecutor.execute(() -> {
+                try {
+                    String token = acquireLease(name);
+                    if (token == null) {
+                        return;
+                    }
+                    try {
+                        refresher.run();
+                        logger.debug("Refreshed stale cache entry {}", name);
+                    } finally {
+                        releaseLease(name, token);
+                    }
+                } catch (Exception e) {
+                    logger.error("Error refreshing cache entry {}: {}", name, e.getMessage());
+                } finally {
+                    refreshing.remove(name);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Queue full: the stale value keeps being served and a later read retries
+            refreshing.remove(name);
+            logger.debug("Skipped refresh of cache entry {}: cache executor is full", name);
+        }
+    }
+
+    private <T> T loadOnce(String name, Supplier<T> cacheReader, Supplier<T> loader) {
+        String token = acquireLease(name);
+        if (token != null) {
+            try {
+                return loader.get();
+            } finally {
+                releaseLease(name, token);
+            }
+        }
+        // Another node is loading; give it a moment to fill the cache
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            T cached = cacheReader.get();
+            if (cached != null) {
+                return cached;
+            }
+        }
+        logger.warn("Cache entry {} was not rebuilt by the lease holder in time, loading it here", name);
+        return loader.get();
+    }
+
+    private Object awaitLoad(String name, CompletableFuture<Object> pending, Supplier<?> loader) {
+        try {
+            return pending.get(leaseMillis + waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            logger.warn("Timed out waiting for concurrent load of cache entry {}, loading it here", name);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        }
+    }
+
+    private String acquireLease(String name) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(leaseKeyPrefix + name, token, leaseMillis, TimeUnit.MILLISECONDS);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            logger.error("Error acquiring cache lease {}: {}", name, e.getMessage());
+            return NO_LEASE;
+        }
+    }
+
+    private void releaseLease(String name, String token) {
+        if (NO_LEASE.equals(token)) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(leaseKeyPrefix + name), token);
+        } catch (Exception e) {
+            // The lease expires on its own
+            logger.error("Error releasing cache lease {}: {}", name, e.getMessage());
+        }
+    }
+}
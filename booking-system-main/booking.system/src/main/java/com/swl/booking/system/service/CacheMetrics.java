@@ -0,0 +1,66 @@
+package com.swl.booking.system.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hit, miss and error counters for the book caches. Redis failures are swallowed so requests
+ * fall back to the database; these counters are how they become visible.
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String REQUESTS = "booking.cache.requests";
+
+    public static final String ERRORS = "booking.cache.errors";
+
+    public static final String LOCAL_HIT = "local_hit";
+
+    public static final String HIT = "hit";
+
+    public static final String STALE_HIT = "stale_hit";
+
+    public static final String MISS = "miss";
+
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    // Registered counters by name and tags, so the hot path skips the registry lookup
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Count one cache read
+     * @param cache cache name, e.g. available, borrowed, detail
+     * @param result one of {@link #LOCAL_HIT}, {@link #HIT}, {@link #STALE_HIT}, {@link #MISS}, {@link #ERROR}
+     */
+    public void recordRead(String cache, String result) {
+        counters.computeIfAbsent(REQUESTS + ":" + cache + ":" + result, key -> Counter.builder(REQUESTS)
+                .description("Book cache reads by result")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Count one failed Redis operation
+     * @param operation cache operation that failed
+     */
+    public void recordError(String operation) {
+        counters.computeIfAbsent(ERRORS + ":" + operation, key -> Counter.builder(ERRORS)
+                .description("Failed Redis operations of the book cache")
+                .tag("operation", operation)
+                .register(meterRegistry)).increment();
+    }
+}
@@ -37,15 +37,12 @@ public class CacheRefreshService {
         }
         
         try {
-            logger.info("Starting scheduled cache refresh...");
-            
-            // Clear all existing cache to ensure fresh data
-            redisBookCacheService.invalidateAllBookCaches();
-            
-            // Warm up cache with fresh data from database
-            cacheWarmupService.manualWarmup();
-            
-            logger.info("Scheduled cache refresh completed successfully");
+            // Invalidate and rebuild on the cache executor so the scheduler thread is not held for the whole pass
+            if (cacheWarmupService.startRefresh()) {
+                logger.info("Scheduled cache refresh started");
+            } else {
+                logger.info("Scheduled cache refresh skipped - a warmup is already in progress or the executor is full");
+            }
             
         } catch (Exception e) {
             logger.error("Error during scheduled cache refresh: {}", e.getMessage(), e);
@@ -54,7 +51,7 @@ public class CacheRefreshService {
     
     /**
      * Scheduled cache cleanup every hour
-     * Removes expired keys and performs maintenance
+     * Unlinks keys left behind by older cache generations
      */
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
     public void scheduledCacheCleanup() {
@@ -65,8 +62,9 @@ public class CacheRefreshService {
         try {
             logger.debug("Starting scheduled cache cleanup...");
             
-            // Redis automatically handles TTL expiration, but we can log the cleanup
-            logger.debug("Cache cleanup completed - expired keys automatically removed by Redis TTL");
+            long removed = redisBookCacheService.sweepStaleGenerations();
+            
+            logger.debug("Cache cleanup completed - {} stale keys removed", removed);
             
         } catch (Exception e) {
             logger.error("Error during scheduled cache cleanup: {}", e.getMessage());
@@ -9,19 +9,38 @@ import com.swl.booking.system.response.book.BookResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.swl.booking.system.config.AsyncConfig;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Service responsible for warming up Redis cache with initial book data
  * on application startup to improve performance for first requests.
+ * <p>
+ * Warmups run on the bounded cache executor, one at a time; callers get back
+ * whether theirs was accepted, can cancel it between chunks and read its progress.
  */
 @Service
 public class CacheWarmupService {
@@ -37,72 +56,256 @@ public class CacheWarmupService {
     @Autowired
     private RedisBookCacheService redisBookCacheService;
     
+    @Value("${app.cache.warmup.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${app.cache.warmup.progress-interval-ms:5000}")
+    private long progressIntervalMillis;
+    
+    @Autowired
+    @Qualifier(AsyncConfig.CACHE_TASK_EXECUTOR)
+    private AsyncTaskExecutor cacheTaskExecutor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Latest warmup, running or finished
+    private final AtomicReference<WarmupRun> currentRun = new AtomicReference<>();
+    
+    public enum WarmupState {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED, REJECTED
+    }
+    
+    /**
+     * Progress of one warmup run
+     */
+    public record WarmupStatus(WarmupState state, boolean refresh, long booksProcessed, Date startedAt, Date finishedAt) {
+    }
+    
     /**
      * Warm up cache when application is ready
      */
     @EventListener(ApplicationReadyEvent.class)
-    @Async
     public void warmupCache() {
-        logger.info("Starting cache warmup process...");
+        startWarmup();
+    }
+    
+    /**
+     * Queue a warmup unless one is already queued or running
+     *
+     * @return whether the warmup was accepted
+     */
+    public boolean startWarmup() {
+        return start(false);
+    }
+    
+    /**
+     * Queue an invalidate-everything-then-warm-up refresh unless a warmup is already queued or running
+     *
+     * @return whether the refresh was accepted
+     */
+    public boolean startRefresh() {
+        return start(true);
+    }
+    
+    private boolean start(boolean refresh) {
+        WarmupRun previous = currentRun.get();
+        if (previous != null && !previous.isDone()) {
+            logger.info("Cache warmup already {}, not starting another", previous.state.name().toLowerCase());
+            return false;
+        }
+        WarmupRun run = new WarmupRun(refresh);
+        if (!currentRun.compareAndSet(previous, run)) {
+            return false;
+        }
+        try {
+            run.future = cacheTaskExecutor.submit(() -> execute(run));
+            return true;
+        } catch (TaskRejectedException e) {
+            logger.warn("Cache executor rejected the warmup: {}", e.getMessage());
+            run.finish(WarmupState.REJECTED);
+            return false;
+        }
+    }
+    
+    private void execute(WarmupRun run) {
+        if (run.cancelled) {
+            run.finish(WarmupState.CANCELLED);
+            return;
+        }
+        run.state = WarmupState.RUNNING;
+        logger.info("Starting cache {} process...", run.refresh ? "refresh" : "warmup");
         
         try {
-            // Warm up available books cache
-            warmupAvailableBooks();
+            if (run.refresh) {
+                // Clear all existing cache to ensure fresh data
+                redisBookCacheService.invalidateAllBookCaches();
+            }
             
-            // Warm up book details cache for popular books
-            warmupBookDetails();
+            // Single pass over the catalog for book details and the available list
+            boolean warmed = warmupCatalog();
             
-            // Warm up borrowed books tracking
-            warmupBorrowedBooksTracking();
+            // Warm up borrowed books tracking; still attempted if the catalog pass failed
+            if (!isCancelled()) {
+                warmed &= warmupBorrowedBooksTracking();
+            }
             
-            logger.info("Cache warmup completed successfully");
+            if (isCancelled()) {
+                run.finish(WarmupState.CANCELLED);
+                logger.info("Cache warmup cancelled after {} books", run.booksProcessed);
+            } else if (!warmed) {
+                run.finish(WarmupState.FAILED);
+                logger.warn("Cache warmup finished with failed steps after {} books", run.booksProcessed);
+            } else {
+                run.finish(WarmupState.COMPLETED);
+                logger.info("Cache warmup completed successfully");
+            }
             
         } catch (Exception e) {
+            run.finish(WarmupState.FAILED);
             logger.error("Error during cache warmup: {}", e.getMessage(), e);
         }
+        recordRun(run);
+    }
+    
+    private void recordRun(WarmupRun run) {
+        String type = run.refresh ? "refresh" : "warmup";
+        String outcome = run.state.name().toLowerCase();
+        Timer.builder("booking.cache.warmup")
+                .description("Duration of cache warmup and refresh runs")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(run.finishedAt.getTime() - run.startedAt.getTime(), TimeUnit.MILLISECONDS);
+        DistributionSummary.builder("booking.cache.warmup.books")
+                .description("Books written to the cache per warmup run")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(run.booksProcessed);
     }
     
     /**
-     * Warm up available books cache
+     * Stop the current warmup before its next chunk; the available list is not written
+     * from a partial pass
+     *
+     * @return whether a queued or running warmup was cancelled
      */
-    private void warmupAvailableBooks() {
-        try {
-            List<Book> availableBooks = bookRepository.findByIsAvailableTrue();
-            List<BookResponse> bookResponses = availableBooks.stream()
-                    .map(BookResponse::new)
-                    .collect(Collectors.toList());
-            
-            redisBookCacheService.cacheAvailableBooks(bookResponses);
-            logger.info("Warmed up available books cache with {} books", bookResponses.size());
-            
-        } catch (Exception e) {
-            logger.error("Error warming up available books cache: {}", e.getMessage());
+    public boolean cancelWarmup() {
+        WarmupRun run = currentRun.get();
+        if (run == null || run.isDone()) {
+            return false;
         }
+        run.cancelled = true;
+        Future<?> future = run.future;
+        if (future != null) {
+            // A queued task never starts; a running one sees the interrupt or the flag between chunks
+            future.cancel(true);
+        }
+        if (run.state == WarmupState.QUEUED) {
+            // A cancelled queued task never runs, so it cannot record its own end
+            run.finish(WarmupState.CANCELLED);
+        }
+        logger.info("Cache warmup cancellation requested");
+        return true;
+    }
+    
+    /**
+     * Status of the latest warmup, null if none has been started
+     */
+    public WarmupStatus getWarmupStatus() {
+        WarmupRun run = currentRun.get();
+        return run != null ? run.status() : null;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // Let the executor's shutdown wait for short tasks, not for a full catalog pass
+        cancelWarmup();
+    }
+    
+    private boolean isCancelled() {
+        WarmupRun run = currentRun.get();
+        return Thread.currentThread().isInterrupted() || (run != null && run.cancelled);
     }
     
     /**
-     * Warm up book details cache for all books
+     * Stream the catalog once in id-ordered chunks, pipelining each chunk of
+     * book details to Redis and collecting available books along the way
+     *
+     * @return false if the pass failed
      */
-    private void warmupBookDetails() {
+    private boolean warmupCatalog() {
         try {
-            List<Book> allBooks = bookRepository.findAll();
+            long startedAt = System.currentTimeMillis();
+            long lastProgressAt = startedAt;
+            long processed = 0;
+            long lastId = 0L;
+            List<BookResponse> availableBooks = new ArrayList<>();
             
-            for (Book book : allBooks) {
-                BookResponse bookResponse = new BookResponse(book);
-                redisBookCacheService.cacheBookDetail(bookResponse);
-            }
+            List<Book> chunk;
+            do {
+                if (isCancelled()) {
+                    logger.info("Book details warmup cancelled after {} books", processed);
+                    return true;
+                }
+                chunk = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                
+                List<BookResponse> responses = new ArrayList<>(chunk.size());
+                for (Book book : chunk) {
+                    BookResponse response = new BookResponse(book);
+                    responses.add(response);
+                    if (book.isAvailable()) {
+                        availableBooks.add(response);
+                    }
+                }
+                redisBookCacheService.cacheBookDetails(responses);
+                
+                processed += chunk.size();
+                lastId = chunk.get(chunk.size() - 1).getId();
+                reportProgress(processed);
+                
+                long now = System.currentTimeMillis();
+                if (now - lastProgressAt >= progressIntervalMillis) {
+                    logger.info("Book details warmup progress: {} books ({} books/s)",
+                            processed, throughput(processed, now - startedAt));
+                    lastProgressAt = now;
+                }
+            } while (chunk.size() == chunkSize);
+            
+            redisBookCacheService.cacheAvailableBooks(availableBooks);
             
-            logger.info("Warmed up book details cache for {} books", allBooks.size());
+            long elapsed = System.currentTimeMillis() - startedAt;
+            logger.info("Warmed up book details cache for {} books and {} available books in {} ms ({} books/s)",
+                    processed, availableBooks.size(), elapsed, throughput(processed, elapsed));
+            return true;
             
         } catch (Exception e) {
             logger.error("Error warming up book details cache: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private void reportProgress(long processed) {
+        WarmupRun run = currentRun.get();
+        if (run != null) {
+            run.booksProcessed = processed;
         }
     }
     
+    private static long throughput(long processed, long elapsedMillis) {
+        return elapsedMillis > 0 ? processed * 1000 / elapsedMillis : processed;
+    }
+    
     /**
      * Warm up borrowed books tracking and user-specific caches
+     *
+     * @return false if the step failed
      */
-    private void warmupBorrowedBooksTracking() {
+    private boolean warmupBorrowedBooksTracking() {
         try {
             // Get all active borrowings
             List<BookBorrowing> activeBorrowings = bookBorrowingRepository.findByIsReturnedFalse();
@@ -126,28 +329,26 @@ public class CacheWarmupService {
                     .map(borrowing -> borrowing.getBook().getId())
                     .collect(Collectors.toSet());
             
-            // Get available books for warmup
-            List<Book> allBooks = bookRepository.findAll();
-            List<BookResponse> availableBooks = allBooks.stream()
-                    .map(BookResponse::new)
-                    .collect(Collectors.toList());
-            
-            redisBookCacheService.warmUpCache(availableBooks, borrowedBookIds);
+            redisBookCacheService.warmUpCache(borrowedBookIds);
             
             logger.info("Warmed up borrowed books cache for {} users with {} total borrowed books", 
                     borrowingsByUser.size(), activeBorrowings.size());
+            return true;
             
         } catch (Exception e) {
             logger.error("Error warming up borrowed books tracking: {}", e.getMessage());
+            return false;
         }
     }
     
     /**
      * Manual cache warmup method that can be called programmatically
+     *
+     * @return whether the warmup was accepted
      */
-    public void manualWarmup() {
+    public boolean manualWarmup() {
         logger.info("Manual cache warmup initiated");
-        warmupCache();
+        return startWarmup();
     }
     
     /**
@@ -165,4 +366,38 @@ public class CacheWarmupService {
             logger.error("Error refreshing cache for book ID {}: {}", bookId, e.getMessage());
         }
     }
-}
\ No newline at end of file
+    
+    private static final class WarmupRun {
+        
+        private final boolean refresh;
+        
+        private final Date startedAt = new Date();
+        
+        private volatile WarmupState state = WarmupState.QUEUED;
+        
+        private volatile long booksProcessed;
+        
+        private volatile Date finishedAt;
+        
+        private volatile boolean cancelled;
+        
+        private volatile Future<?> future;
+        
+        private WarmupRun(boolean refresh) {
+            this.refresh = refresh;
+        }
+        
+        private boolean isDone() {
+            return finishedAt != null;
+        }
+        
+        private void finish(WarmupState finalState) {
+            state = finalState;
+            finishedAt = new Date();
+        }
+        
+        private WarmupStatus status() {
+            return new WarmupStatus(state, refresh, booksProcessed, startedAt, finishedAt);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.swl.booking.system.service;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.swl.booking.system.response.book.BookResponse;
+
+import lombok.Data;
+
+/**
+ * A cached list of books together with its soft expiry. Past {@code refreshAt} the list is
+ * stale but still served while one caller rebuilds it; the Redis TTL is the hard expiry.
+ */
+@Data
+public class CachedBookList implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<BookResponse> books;
+
+    // Epoch millis after which the list should be rebuilt
+    private long refreshAt;
+
+    public CachedBookList() {
+    }
+
+    public CachedBookList(List<BookResponse> books, long refreshAt) {
+        this.books = books;
+        this.refreshAt = refreshAt;
+    }
+
+    /**
+     * Wrap a list that is never considered stale, e.g. an L1 hit
+     */
+    public static CachedBookList fresh(List<BookResponse> books) {
+        return new CachedBookList(books, Long.MAX_VALUE);
+    }
+
+    @JsonIgnore
+    public boolean isStale() {
+        return System.currentTimeMillis() >= refreshAt;
+    }
+}
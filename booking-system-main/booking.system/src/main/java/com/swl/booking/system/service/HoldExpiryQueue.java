@@ -0,0 +1,175 @@
+package com.swl.booking.system.service;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.swl.booking.system.repository.BookHoldRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Expires ready holds when their pickup window closes.
+ * <p>
+ * Each committed ready hold goes into a {@link DelayQueue}, a heap ordered by expiry, and one
+ * background thread sleeps until the earliest one is due. Nothing polls the table per hold.
+ * {@link #sweep()} picks up, from the (status, expires_date) index, holds that will expire
+ * soon but are not queued here: ones made ready on another node, left over from a restart,
+ * or whose expiry failed. Expiry is a conditional update, so a hold queued on several nodes
+ * is still expired once.
+ */
+@Service
+public class HoldExpiryQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryQueue.class);
+
+    /**
+     * Published once a returned copy has been set aside for a hold
+     */
+    public record HoldReady(Long holdId, Date expiresAt) {
+    }
+
+    private final BookHoldService bookHoldService;
+
+    private final BookHoldRepository bookHoldRepository;
+
+    private final long sweepMillis;
+
+    private final DelayQueue<Expiry> queue = new DelayQueue<>();
+
+    // Hold ids in the queue, so a sweep does not add them twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    private final Thread worker;
+
+    @Autowired
+    public HoldExpiryQueue(BookHoldService bookHoldService, BookHoldRepository bookHoldRepository,
+            @Value("${app.hold.sweep-ms:300000}") long sweepMillis) {
+        this.bookHoldService = bookHoldService;
+        this.bookHoldRepository = bookHoldRepository;
+        this.sweepMillis = sweepMillis;
+        this.worker = new Thread(this::run, "hold-expiry");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sweep();
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.interrupt();
+    }
+
+    /**
+     * Queue a hold once the transaction that made it ready commits
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHoldReady(HoldReady event) {
+        schedule(event.holdId(), event.expiresAt());
+    }
+
+    /**
+     * Queue ready holds that expire within the next two sweep intervals
+     */
+    @Scheduled(fixedDelayString = "${app.hold.sweep-ms:300000}", initialDelayString = "${app.hold.sweep-ms:300000}")
+    public void sweep() {
+        try {
+            Date before = new Date(System.currentTimeMillis() + 2 * sweepMillis);
+            int added = 0;
+            for (BookHoldRepository.ReadyHold hold : bookHoldRepository.findReadyExpiringBefore(before)) {
+                if (schedule(hold.getId(), hold.getExpiresAt())) {
+                    added++;
+                }
+            }
+            if (added > 0) {
+                logger.info("Queued {} ready holds for expiry", added);
+            }
+        } catch (Exception e) {
+            logger.error("Error loading ready holds: {}", e.getMessage());
+        }
+    }
+
+    private boolean schedule(Long holdId, Date expiresAt) {
+        if (!queued.add(holdId)) {
+            return false;
+        }
+        queue.add(new Expiry(holdId, expiresAt.getTime()));
+        return true;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                expire(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Expire every hold that is due now, without waiting for the rest
+     *
+     * @return number of holds handed to the hold service
+     */
+    int drainDue() {
+        int drained = 0;
+        Expiry expiry;
+        while ((expiry = queue.poll()) != null) {
+            expire(expiry);
+            drained++;
+        }
+        return drained;
+    }
+
+    private void expire(Expiry expiry) {
+        queued.remove(expiry.holdId);
+        try {
+            bookHoldService.expireHold(expiry.holdId);
+        } catch (Exception e) {
+            // Still ready in the table, so the next sweep queues it again
+            logger.error("Error expiring hold {}: {}", expiry.holdId, e.getMessage());
+        }
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private static final class Expiry implements Delayed {
+        private final Long holdId;
+        private final long expiresAtMillis;
+
+        Expiry(Long holdId, long expiresAtMillis) {
+            this.holdId = holdId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((Expiry) other).expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.swl.booking.system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swl.booking.system.response.book.BookResponse;
+
+/**
+ * In-process (L1) cache in front of {@link RedisBookCacheService}.
+ * Entries are bounded by weight (one unit per cached book) and by a short TTL.
+ * Invalidations are broadcast over Redis pub/sub so every node drops its copy.
+ */
+@Service
+public class LocalBookCacheService implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBookCacheService.class);
+
+    private static final String AVAILABLE_KEY = "available";
+    private static final String BORROWED_KEY_PREFIX = "borrowed:";
+    private static final String DETAIL_KEY_PREFIX = "detail:";
+    private static final String ALL_KEYS = "*";
+    private static final char SENDER_SEPARATOR = '|';
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Cache<String, Object> cache;
+
+    private final String invalidationChannel;
+
+    private final List<Runnable> flushListeners = new CopyOnWriteArrayList<>();
+
+    // Lets a node ignore its own broadcasts; it has already evicted locally
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public LocalBookCacheService(StringRedisTemplate stringRedisTemplate,
+            @Value("${app.cache.book.key-prefix:booking:book}") String keyPrefix,
+            @Value("${app.cache.local.max-weight:100000}") long maxWeight,
+            @Value("${app.cache.local.ttl:30}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.invalidationChannel = keyPrefix + ":invalidation";
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(LocalBookCacheService::weigh)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    private static int weigh(String key, Object value) {
+        return value instanceof List<?> list ? list.size() + 1 : 1;
+    }
+
+    /**
+     * Register a callback run when another node flushes every entry
+     */
+    public void addFlushListener(Runnable listener) {
+        flushListeners.add(listener);
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<BookResponse> getAvailableBooks() {
+        return (List<BookResponse>) cache.getIfPresent(AVAILABLE_KEY);
+    }
+
+    public void putAvailableBooks(List<BookResponse> books) {
+        cache.put(AVAILABLE_KEY, List.copyOf(books));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<BookResponse> getBorrowedBooks(Long userId) {
+        return (List<BookResponse>) cache.getIfPresent(BORROWED_KEY_PREFIX + userId);
+    }
+
+    public void putBorrowedBooks(Long userId, List<BookResponse> books) {
+        cache.put(BORROWED_KEY_PREFIX + userId, List.copyOf(books));
+    }
+
+    public BookResponse getBookDetail(Long bookId) {
+        return (BookResponse) cache.getIfPresent(DETAIL_KEY_PREFIX + bookId);
+    }
+
+    public void putBookDetail(BookResponse book) {
+        cache.put(DETAIL_KEY_PREFIX + book.getId(), book);
+    }
+
+    public void invalidateAvailableBooks() {
+        invalidate(AVAILABLE_KEY);
+    }
+
+    public void invalidateBorrowedBooks(Long userId) {
+        invalidate(BORROWED_KEY_PREFIX + userId);
+    }
+
+    public void invalidateBookDetail(Long bookId) {
+        invalidate(DETAIL_KEY_PREFIX + bookId);
+    }
+
+    public void invalidateAll() {
+        invalidate(ALL_KEYS);
+    }
+
+    /**
+     * Evict locally, then tell the other nodes to do the same
+     */
+    private void invalidate(String key) {
+        evict(key);
+        try {
+            stringRedisTemplate.convertAndSend(invalidationChannel, nodeId + SENDER_SEPARATOR + key);
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL
+            logger.error("Error publishing local cache invalidation for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void evict(String key) {
+        if (ALL_KEYS.equals(key)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SENDER_SEPARATOR);
+        if (separator < 0) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        String key = body.substring(separator + 1);
+        evict(key);
+        if (ALL_KEYS.equals(key)) {
+            flushListeners.forEach(Runnable::run);
+        }
+        logger.debug("Evicted local cache entry {} on remote invalidation", key);
+    }
+
+    public long estimatedSize() {
+        // Flush pending evictions so the count reflects the size bound
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
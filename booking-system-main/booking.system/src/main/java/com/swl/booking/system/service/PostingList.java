@@ -0,0 +1,102 @@
+package com.swl.booking.system.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable, ascending set of book ids stored as varint-encoded gaps. Ids are mostly dense,
+ * so a posting usually takes one or two bytes instead of the eight of a {@code long}.
+ */
+final class PostingList {
+
+    static final PostingList EMPTY = new PostingList(new byte[0], 0);
+
+    private final byte[] data;
+
+    private final int size;
+
+    private PostingList(byte[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * @param ids ascending, without duplicates
+     */
+    static PostingList of(long[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length + 8);
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            long gap = ids[i] - previous;
+            while ((gap & ~0x7FL) != 0) {
+                out.write((int) ((gap & 0x7F) | 0x80));
+                gap >>>= 7;
+            }
+            out.write((int) gap);
+            previous = ids[i];
+        }
+        return new PostingList(out.toByteArray(), length);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(LongConsumer consumer) {
+        long id = 0;
+        int position = 0;
+        while (position < data.length) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += gap;
+            consumer.accept(id);
+        }
+    }
+
+    long[] toArray() {
+        long[] ids = new long[size];
+        int[] index = {0};
+        forEach(id -> ids[index[0]++] = id);
+        return ids;
+    }
+
+    PostingList with(long id) {
+        long[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return this;
+        }
+        int insertAt = -position - 1;
+        long[] grown = new long[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, insertAt);
+        grown[insertAt] = id;
+        System.arraycopy(ids, insertAt, grown, insertAt + 1, ids.length - insertAt);
+        return of(grown, grown.length);
+    }
+
+    PostingList without(long id) {
+        long[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return this;
+        }
+        long[] shrunk = new long[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, position);
+        System.arraycopy(ids, position + 1, shrunk, position, ids.length - position - 1);
+        return of(shrunk, shrunk.length);
+    }
+
+    int sizeInBytes() {
+        return data.length;
+    }
+}
@@ -1,6 +1,12 @@
 package com.swl.booking.system.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -9,7 +15,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
 import com.swl.booking.system.entity.Book;
@@ -17,14 +31,45 @@ import com.swl.booking.system.response.book.BookResponse;
 
 /**
  * Redis cache service for managing book availability data
- * Provides caching layer for book operations to improve performance
+ * Provides caching layer for book operations to improve performance.
+ * Reads go through the in-process {@link LocalBookCacheService} first; invalidations
+ * delete from Redis before evicting L1 so a concurrent local read cannot re-cache a stale value.
+ * <p>
+ * Every Redis key carries the current cache generation ({@code <prefix>:v<gen>:...}).
+ * A global flush is a single INCR of {@code <prefix>:generation}; keys of older
+ * generations are no longer addressed and age out by TTL or via {@link #sweepStaleGenerations()}.
  */
 @Service
 public class RedisBookCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisBookCacheService.class);
+
+    // KEYS: loaded marker, id zset, payload hash, version; ARGV: book id, payload ('' removes the book).
+    // The version moves on every change; the set is only touched while loaded, so a delta never
+    // recreates a partial set without a TTL.
+    private static final RedisScript<Long> APPLY_AVAILABILITY_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[4]) "
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "if ARGV[2] == '' then "
+            + "redis.call('ZREM', KEYS[2], ARGV[1]) redis.call('HDEL', KEYS[3], ARGV[1]) "
+            + "else "
+            + "redis.call('ZADD', KEYS[2], ARGV[1], ARGV[1]) redis.call('HSET', KEYS[3], ARGV[1], ARGV[2]) "
+            + "end "
+            + "return 1", Long.class);
+
+    private static final RedisSerializer<Long> SCRIPT_RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+    
+    // Cache names used as metric tags
+    private static final String AVAILABLE_CACHE = "available";
+    private static final String AVAILABLE_PAGE_CACHE = "available_page";
+    private static final String BORROWED_CACHE = "borrowed";
+    private static final String DETAIL_CACHE = "detail";
     
     private final RedisTemplate<String, Object> redisTemplate;
+
+    private final LocalBookCacheService localCache;
+
+    private final CacheMetrics cacheMetrics;
     
     // Cache configuration from properties
     @Value("${app.cache.book.key-prefix:booking:book}")
@@ -39,77 +84,278 @@ public class RedisBookCacheService {
     @Value("${app.cache.book.book-detail.ttl:1800}")
     private long bookDetailTtl;
     
+    @Value("${app.cache.book.stale-grace:60}")
+    private long staleGraceSeconds;
+    
+    @Value("${app.cache.book.generation.refresh-ms:1000}")
+    private long generationRefreshMillis;
+    
+    @Value("${app.cache.book.sweep.batch-size:500}")
+    private int sweepBatchSize;
+    
+    // Last generation read from Redis; -1 until first read
+    private volatile long generation = -1;
+    
+    private volatile long generationReadAt;
+    
     // Cache key methods
-    private String getAvailableBooksKey() {
-        return keyPrefix + ":available";
+    private String getGenerationKey() {
+        return keyPrefix + ":generation";
+    }
+    
+    private String versionedKey(String suffix) {
+        return keyPrefix + ":v" + currentGeneration() + ":" + suffix;
+    }
+    
+    // One generation read for all three keys so they never straddle a flush
+    private List<String> getAvailableSetKeys() {
+        String base = versionedKey("available");
+        return List.of(base + ":loaded", base + ":ids", base + ":books");
+    }
+    
+    // Not part of the set: it must survive invalidation, or a version number could be handed out twice
+    private String getAvailableVersionKey(long gen) {
+        return keyPrefix + ":v" + gen + ":available:version";
     }
     
     private String getBorrowedBooksKey(Long userId) {
-        return keyPrefix + ":borrowed:" + userId;
+        return versionedKey("borrowed:" + userId);
     }
     
     private String getBookDetailKey(Long bookId) {
-        return keyPrefix + ":detail:" + bookId;
+        return versionedKey("detail:" + bookId);
+    }
+    
+    private String getBorrowedSetKey() {
+        return versionedKey("borrowed-set");
     }
     
     @Autowired
-    public RedisBookCacheService(RedisTemplate<String, Object> redisTemplate) {
+    public RedisBookCacheService(RedisTemplate<String, Object> redisTemplate, LocalBookCacheService localCache,
+            CacheMetrics cacheMetrics) {
         this.redisTemplate = redisTemplate;
+        this.localCache = localCache;
+        this.cacheMetrics = cacheMetrics;
+        // Another node bumped the generation; re-read it on next access
+        localCache.addFlushListener(() -> generationReadAt = 0);
     }
     
     /**
-     * Cache available books list
-     * @param books List of available books
+     * Current cache generation, re-read from Redis at most every {@code generationRefreshMillis}
+     * @return generation number, 0 if never flushed
+     */
+    long currentGeneration() {
+        long now = System.currentTimeMillis();
+        if (generation < 0 || now - generationReadAt >= generationRefreshMillis) {
+            try {
+                Object value = redisTemplate.opsForValue().get(getGenerationKey());
+                generation = value != null ? Long.parseLong(value.toString()) : 0L;
+                generationReadAt = now;
+            } catch (Exception e) {
+                cacheMetrics.recordError("currentGeneration");
+                logger.error("Error reading cache generation: {}", e.getMessage());
+                if (generation < 0) {
+                    generation = 0L;
+                }
+            }
+        }
+        return generation;
+    }
+    
+    /**
+     * Replace the available set with the given books
+     * @param books List of available books, ordered by id
      */
     public void cacheAvailableBooks(List<BookResponse> books) {
         try {
-            String key = getAvailableBooksKey();
-            redisTemplate.delete(key);
+            List<String> keys = getAvailableSetKeys();
+            long hardTtl = availableBooksTtl + staleGraceSeconds;
+            redisTemplate.delete(keys);
             if (!books.isEmpty()) {
-                redisTemplate.opsForList().rightPushAll(key, books.toArray());
-                redisTemplate.expire(key, availableBooksTtl, TimeUnit.SECONDS);
+                Set<TypedTuple<Object>> ids = new LinkedHashSet<>();
+                Map<String, Object> payloads = new HashMap<>();
+                for (BookResponse book : books) {
+                    ids.add(TypedTuple.of(book.getId(), book.getId().doubleValue()));
+                    payloads.put(book.getId().toString(), book);
+                }
+                redisTemplate.opsForZSet().add(keys.get(1), ids);
+                redisTemplate.opsForHash().putAll(keys.get(2), payloads);
+                redisTemplate.expire(keys.get(1), hardTtl, TimeUnit.SECONDS);
+                redisTemplate.expire(keys.get(2), hardTtl, TimeUnit.SECONDS);
             }
+            // Marker last: deltas only apply once the whole set is in place. It holds the soft expiry.
+            long refreshAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(availableBooksTtl);
+            redisTemplate.opsForValue().set(keys.get(0), refreshAt, hardTtl, TimeUnit.SECONDS);
+            redisTemplate.opsForValue().increment(getAvailableVersionKey(currentGeneration()));
+            localCache.putAvailableBooks(books);
             logger.debug("Cached {} available books with TTL {} seconds", books.size(), availableBooksTtl);
         } catch (Exception e) {
+            cacheMetrics.recordError("cacheAvailableBooks");
             logger.error("Error caching available books: {}", e.getMessage());
         }
     }
     
     /**
      * Get available books from cache
-     * @return List of cached available books, null if not cached
+     * @return cached available books ordered by id, null if not cached
      */
-    @SuppressWarnings("unchecked")
-    public List<BookResponse> getCachedAvailableBooks() {
+    public CachedBookList getCachedAvailableBooks() {
+        return getCachedAvailableBooks(false);
+    }
+    
+    /**
+     * Get available books from cache
+     * @param skipLocalCache read Redis even on an L1 hit, for callers that must not see a list
+     *                       older than {@link #getAvailableBooksVersion()}
+     * @return cached available books ordered by id, null if not cached
+     */
+    public CachedBookList getCachedAvailableBooks(boolean skipLocalCache) {
+        List<BookResponse> localBooks = skipLocalCache ? null : localCache.getAvailableBooks();
+        if (localBooks != null) {
+            cacheMetrics.recordRead(AVAILABLE_CACHE, CacheMetrics.LOCAL_HIT);
+            return CachedBookList.fresh(localBooks);
+        }
         try {
-            List<Object> cachedBooks = redisTemplate.opsForList().range(getAvailableBooksKey(), 0, -1);
-            if (cachedBooks != null && !cachedBooks.isEmpty()) {
-                logger.debug("Retrieved {} available books from cache", cachedBooks.size());
-                return cachedBooks.stream()
-                    .map(obj -> (BookResponse) obj)
-                    .collect(Collectors.toList());
+            List<String> keys = getAvailableSetKeys();
+            Long refreshAt = readRefreshAt(keys.get(0));
+            if (refreshAt == null) {
+                cacheMetrics.recordRead(AVAILABLE_CACHE, CacheMetrics.MISS);
+                return null;
+            }
+            List<BookResponse> books = readAvailablePayloads(keys.get(2), redisTemplate.opsForZSet().range(keys.get(1), 0, -1));
+            logger.debug("Retrieved {} available books from cache", books.size());
+            CachedBookList cached = new CachedBookList(books, refreshAt);
+            recordHit(AVAILABLE_CACHE, cached);
+            // Keep stale lists out of L1 so the refreshed set is picked up as soon as it lands
+            if (!cached.isStale()) {
+                localCache.putAvailableBooks(books);
             }
+            return cached;
         } catch (Exception e) {
+            cacheMetrics.recordError("getCachedAvailableBooks");
+            cacheMetrics.recordRead(AVAILABLE_CACHE, CacheMetrics.ERROR);
             logger.error("Error retrieving available books from cache: {}", e.getMessage());
         }
         return null;
     }
     
     /**
-     * Cache borrowed books for a user
+     * Get a page of available books from cache, ordered by id
+     * @param afterId only books with a greater id are returned
+     * @param limit maximum number of books to return
+     * @return cached books, null if the available set is not cached
+     */
+    public CachedBookList getCachedAvailableBooksAfter(long afterId, int limit) {
+        try {
+            List<String> keys = getAvailableSetKeys();
+            Long refreshAt = readRefreshAt(keys.get(0));
+            if (refreshAt == null) {
+                cacheMetrics.recordRead(AVAILABLE_PAGE_CACHE, CacheMetrics.MISS);
+                return null;
+            }
+            Set<Object> ids = redisTemplate.opsForZSet()
+                    .rangeByScore(keys.get(1), afterId + 1, Double.POSITIVE_INFINITY, 0, limit);
+            CachedBookList cached = new CachedBookList(readAvailablePayloads(keys.get(2), ids), refreshAt);
+            recordHit(AVAILABLE_PAGE_CACHE, cached);
+            return cached;
+        } catch (Exception e) {
+            cacheMetrics.recordError("getCachedAvailableBooksAfter");
+            cacheMetrics.recordRead(AVAILABLE_PAGE_CACHE, CacheMetrics.ERROR);
+            logger.error("Error retrieving available books after ID {} from cache: {}", afterId, e.getMessage());
+        }
+        return null;
+    }
+    
+    private void recordHit(String cache, CachedBookList cached) {
+        cacheMetrics.recordRead(cache, cached.isStale() ? CacheMetrics.STALE_HIT : CacheMetrics.HIT);
+    }
+    
+    /**
+     * Version of the available set, changed by every delta, rebuild and invalidation.
+     * Read it before the books: a list read afterwards is at least as new as the version.
+     * @return {@code <generation>-<counter>}, null if Redis cannot be reached
+     */
+    public String getAvailableBooksVersion() {
+        try {
+            long gen = currentGeneration();
+            Object counter = redisTemplate.opsForValue().get(getAvailableVersionKey(gen));
+            return gen + "-" + (counter != null ? ((Number) counter).longValue() : 0L);
+        } catch (Exception e) {
+            cacheMetrics.recordError("getAvailableBooksVersion");
+            logger.error("Error reading available books version: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    private Long readRefreshAt(String loadedKey) {
+        Object marker = redisTemplate.opsForValue().get(loadedKey);
+        return marker != null ? ((Number) marker).longValue() : null;
+    }
+    
+    private List<BookResponse> readAvailablePayloads(String booksKey, Set<Object> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Members deserialize as Integer or Long depending on magnitude
+        Collection<Object> fields = ids.stream()
+                .map(id -> (Object) String.valueOf(((Number) id).longValue()))
+                .collect(Collectors.toList());
+        List<Object> payloads = redisTemplate.opsForHash().multiGet(booksKey, fields);
+        List<BookResponse> books = new ArrayList<>(payloads.size());
+        for (Object payload : payloads) {
+            // A book removed between ZRANGE and HMGET is simply skipped
+            if (payload != null) {
+                books.add((BookResponse) payload);
+            }
+        }
+        return books;
+    }
+    
+    /**
+     * Apply one book's new availability to the cached available set: an available book is
+     * added or updated, an unavailable one removed. A no-op while the set is not loaded.
+     * @param book Book state after the change
+     */
+    @SuppressWarnings("unchecked")
+    public void applyAvailabilityChange(BookResponse book) {
+        try {
+            // Raw bytes: a binary payload would not survive a round trip through a String
+            byte[] payload = new byte[0];
+            if (book.isAvailable()) {
+                RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+                payload = valueSerializer.serialize(book);
+            }
+            List<String> keys = new ArrayList<>(getAvailableSetKeys());
+            keys.add(getAvailableVersionKey(currentGeneration()));
+            Long applied = redisTemplate.execute(APPLY_AVAILABILITY_SCRIPT, RedisSerializer.byteArray(),
+                    SCRIPT_RESULT_SERIALIZER, keys,
+                    book.getId().toString().getBytes(StandardCharsets.UTF_8), payload);
+            logger.debug("Availability of book ID {} applied to cache: {}", book.getId(), Long.valueOf(1).equals(applied));
+        } catch (Exception e) {
+            cacheMetrics.recordError("applyAvailabilityChange");
+            logger.error("Error applying availability of book ID {} to cache: {}", book.getId(), e.getMessage());
+            // Drop the set rather than keep serving one that missed this change
+            invalidateAvailableBooksCache();
+            return;
+        }
+        localCache.invalidateAvailableBooks();
+    }
+    
+    /**
+     * Cache borrowed books for a user; an empty list is cached too
      * @param userId User ID
      * @param books List of borrowed books
      */
     public void cacheBorrowedBooks(Long userId, List<BookResponse> books) {
         try {
             String key = getBorrowedBooksKey(userId);
-            redisTemplate.delete(key);
-            if (!books.isEmpty()) {
-                redisTemplate.opsForList().rightPushAll(key, books.toArray());
-                redisTemplate.expire(key, borrowedBooksTtl, TimeUnit.SECONDS);
-            }
+            long refreshAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(borrowedBooksTtl);
+            redisTemplate.opsForValue().set(key, new CachedBookList(books, refreshAt),
+                    borrowedBooksTtl + staleGraceSeconds, TimeUnit.SECONDS);
+            localCache.putBorrowedBooks(userId, books);
             logger.debug("Cached {} borrowed books for user {} with TTL {} seconds", books.size(), userId, borrowedBooksTtl);
         } catch (Exception e) {
+            cacheMetrics.recordError("cacheBorrowedBooks");
             logger.error("Error caching borrowed books for user {}: {}", userId, e.getMessage());
         }
     }
@@ -117,22 +363,32 @@ public class RedisBookCacheService {
     /**
      * Get borrowed books for a user from cache
      * @param userId User ID
-     * @return List of cached borrowed books, null if not cached
+     * @return cached borrowed books, null if not cached
      */
-    @SuppressWarnings("unchecked")
-    public List<BookResponse> getCachedBorrowedBooks(Long userId) {
+    public CachedBookList getCachedBorrowedBooks(Long userId) {
+        List<BookResponse> localBooks = localCache.getBorrowedBooks(userId);
+        if (localBooks != null) {
+            cacheMetrics.recordRead(BORROWED_CACHE, CacheMetrics.LOCAL_HIT);
+            return CachedBookList.fresh(localBooks);
+        }
         try {
             String key = getBorrowedBooksKey(userId);
-            List<Object> cachedBooks = redisTemplate.opsForList().range(key, 0, -1);
-            if (cachedBooks != null && !cachedBooks.isEmpty()) {
-                logger.debug("Retrieved {} borrowed books from cache for user {}", cachedBooks.size(), userId);
-                return cachedBooks.stream()
-                    .map(obj -> (BookResponse) obj)
-                    .collect(Collectors.toList());
+            Object cached = redisTemplate.opsForValue().get(key);
+            if (cached instanceof CachedBookList cachedBooks) {
+                logger.debug("Retrieved {} borrowed books from cache for user {}", cachedBooks.getBooks().size(), userId);
+                recordHit(BORROWED_CACHE, cachedBooks);
+                if (!cachedBooks.isStale()) {
+                    localCache.putBorrowedBooks(userId, cachedBooks.getBooks());
+                }
+                return cachedBooks;
             }
         } catch (Exception e) {
+            cacheMetrics.recordError("getCachedBorrowedBooks");
+            cacheMetrics.recordRead(BORROWED_CACHE, CacheMetrics.ERROR);
             logger.error("Error retrieving borrowed books from cache for user {}: {}", userId, e.getMessage());
+            return null;
         }
+        cacheMetrics.recordRead(BORROWED_CACHE, CacheMetrics.MISS);
         return null;
     }
     
@@ -144,28 +400,71 @@ public class RedisBookCacheService {
         try {
             String key = getBookDetailKey(book.getId());
             redisTemplate.opsForValue().set(key, book, bookDetailTtl, TimeUnit.SECONDS);
+            localCache.putBookDetail(book);
             logger.debug("Cached book detail for book ID: {} with TTL {} seconds", book.getId(), bookDetailTtl);
         } catch (Exception e) {
+            cacheMetrics.recordError("cacheBookDetail");
             logger.error("Error caching book detail for book ID {}: {}", book.getId(), e.getMessage());
         }
     }
     
+    /**
+     * Cache a batch of book details in one pipelined round trip.
+     * Bulk loads skip the L1 cache so warmup does not evict hot entries.
+     * @param books Books to cache
+     */
+    @SuppressWarnings("unchecked")
+    public void cacheBookDetails(List<BookResponse> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        try {
+            RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (BookResponse book : books) {
+                    connection.stringCommands().setEx(
+                            keySerializer.serialize(getBookDetailKey(book.getId())),
+                            bookDetailTtl,
+                            valueSerializer.serialize(book));
+                }
+                return null;
+            });
+            logger.debug("Cached {} book details with TTL {} seconds", books.size(), bookDetailTtl);
+        } catch (Exception e) {
+            cacheMetrics.recordError("cacheBookDetails");
+            logger.error("Error caching {} book details: {}", books.size(), e.getMessage());
+        }
+    }
+    
     /**
      * Get book details from cache
      * @param bookId Book ID
      * @return Cached book details, null if not cached
      */
     public BookResponse getCachedBookDetail(Long bookId) {
+        BookResponse localBook = localCache.getBookDetail(bookId);
+        if (localBook != null) {
+            cacheMetrics.recordRead(DETAIL_CACHE, CacheMetrics.LOCAL_HIT);
+            return localBook;
+        }
         try {
             String key = getBookDetailKey(bookId);
             Object cachedBook = redisTemplate.opsForValue().get(key);
             if (cachedBook != null) {
                 logger.debug("Retrieved book detail from cache for book ID: {}", bookId);
-                return (BookResponse) cachedBook;
+                cacheMetrics.recordRead(DETAIL_CACHE, CacheMetrics.HIT);
+                BookResponse book = (BookResponse) cachedBook;
+                localCache.putBookDetail(book);
+                return book;
             }
         } catch (Exception e) {
+            cacheMetrics.recordError("getCachedBookDetail");
+            cacheMetrics.recordRead(DETAIL_CACHE, CacheMetrics.ERROR);
             logger.error("Error retrieving book detail from cache for book ID {}: {}", bookId, e.getMessage());
+            return null;
         }
+        cacheMetrics.recordRead(DETAIL_CACHE, CacheMetrics.MISS);
         return null;
     }
     
@@ -175,11 +474,12 @@ public class RedisBookCacheService {
      */
     public void addToBorrowedBooks(Long bookId) {
         try {
-            String key = keyPrefix + ":borrowed-set";
+            String key = getBorrowedSetKey();
             redisTemplate.opsForSet().add(key, bookId);
             redisTemplate.expire(key, borrowedBooksTtl, TimeUnit.SECONDS);
             logger.debug("Added book ID {} to borrowed books set", bookId);
         } catch (Exception e) {
+            cacheMetrics.recordError("addToBorrowedBooks");
             logger.error("Error adding book ID {} to borrowed books set: {}", bookId, e.getMessage());
         }
     }
@@ -190,10 +490,11 @@ public class RedisBookCacheService {
      */
     public void removeFromBorrowedBooks(Long bookId) {
         try {
-            String key = keyPrefix + ":borrowed-set";
+            String key = getBorrowedSetKey();
             redisTemplate.opsForSet().remove(key, bookId);
             logger.debug("Removed book ID {} from borrowed books set", bookId);
         } catch (Exception e) {
+            cacheMetrics.recordError("removeFromBorrowedBooks");
             logger.error("Error removing book ID {} from borrowed books set: {}", bookId, e.getMessage());
         }
     }
@@ -205,33 +506,90 @@ public class RedisBookCacheService {
      */
     public boolean isBookBorrowed(Long bookId) {
         try {
-            String key = keyPrefix + ":borrowed-set";
+            String key = getBorrowedSetKey();
             Boolean isBorrowed = redisTemplate.opsForSet().isMember(key, bookId);
             logger.debug("Book ID {} borrowed status from cache: {}", bookId, isBorrowed);
             return Boolean.TRUE.equals(isBorrowed);
         } catch (Exception e) {
+            cacheMetrics.recordError("isBookBorrowed");
             logger.error("Error checking borrowed status for book ID {}: {}", bookId, e.getMessage());
             return false; // Default to false if cache fails
         }
     }
     
     /**
-     * Invalidate all book-related caches
+     * Invalidate all book-related caches by moving to a new key generation
      */
     public void invalidateAllBookCaches() {
         try {
-            // Get all keys matching book cache patterns
-            Set<String> allKeys = redisTemplate.keys(keyPrefix + ":*");
-            
-            // Delete all matching keys
-            if (allKeys != null && !allKeys.isEmpty()) {
-                redisTemplate.delete(allKeys);
+            Long newGeneration = redisTemplate.opsForValue().increment(getGenerationKey());
+            if (newGeneration != null) {
+                generation = newGeneration;
+                generationReadAt = System.currentTimeMillis();
             }
-            
-            logger.info("Invalidated all book caches");
+            logger.info("Invalidated all book caches, now at generation {}", newGeneration);
         } catch (Exception e) {
+            cacheMetrics.recordError("invalidateAllBookCaches");
             logger.error("Error invalidating book caches: {}", e.getMessage());
         }
+        localCache.invalidateAll();
+    }
+    
+    /**
+     * Remove keys left behind by older generations.
+     * Walks the keyspace with a SCAN cursor and UNLINKs in batches so Redis is never
+     * blocked the way KEYS/DEL would; keys of the current or a newer generation are kept.
+     * @return number of keys unlinked
+     */
+    public long sweepStaleGenerations() {
+        long current = currentGeneration();
+        String versionPrefix = keyPrefix + ":v";
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(versionPrefix + "*")
+                .count(sweepBatchSize)
+                .build();
+        long removed = 0;
+        List<String> batch = new ArrayList<>(sweepBatchSize);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                long keyGeneration = parseGeneration(key, versionPrefix.length());
+                if (keyGeneration < 0 || keyGeneration >= current) {
+                    continue;
+                }
+                batch.add(key);
+                if (batch.size() >= sweepBatchSize) {
+                    removed += unlink(batch);
+                }
+            }
+            removed += unlink(batch);
+            logger.info("Swept {} stale book cache keys older than generation {}", removed, current);
+        } catch (Exception e) {
+            cacheMetrics.recordError("sweepStaleGenerations");
+            logger.error("Error sweeping stale book cache keys: {}", e.getMessage());
+        }
+        return removed;
+    }
+    
+    private long unlink(List<String> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.unlink(batch);
+        batch.clear();
+        return count != null ? count : 0;
+    }
+    
+    private static long parseGeneration(String key, int start) {
+        int end = key.indexOf(':', start);
+        if (end <= start) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(key.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
     
     /**
@@ -244,8 +602,10 @@ public class RedisBookCacheService {
             redisTemplate.delete(key);
             logger.debug("Invalidated borrowed books cache for user {}", userId);
         } catch (Exception e) {
+            cacheMetrics.recordError("invalidateUserBorrowedBooksCache");
             logger.error("Error invalidating borrowed books cache for user {}: {}", userId, e.getMessage());
         }
+        localCache.invalidateBorrowedBooks(userId);
     }
     
     /**
@@ -253,11 +613,14 @@ public class RedisBookCacheService {
      */
     public void invalidateAvailableBooksCache() {
         try {
-            redisTemplate.delete(getAvailableBooksKey());
+            redisTemplate.delete(getAvailableSetKeys());
+            redisTemplate.opsForValue().increment(getAvailableVersionKey(currentGeneration()));
             logger.debug("Invalidated available books cache");
         } catch (Exception e) {
+            cacheMetrics.recordError("invalidateAvailableBooksCache");
             logger.error("Error invalidating available books cache: {}", e.getMessage());
         }
+        localCache.invalidateAvailableBooks();
     }
     
     /**
@@ -270,33 +633,30 @@ public class RedisBookCacheService {
             redisTemplate.delete(key);
             logger.debug("Invalidated book detail cache for book ID: {}", bookId);
         } catch (Exception e) {
+            cacheMetrics.recordError("invalidateBookDetailCache");
             logger.error("Error invalidating book detail cache for book ID {}: {}", bookId, e.getMessage());
         }
+        localCache.invalidateBookDetail(bookId);
     }
     
     /**
-     * Warm up cache with initial data
-     * @param availableBooks List of available books
+     * Warm up the borrowed books set; book details are written by {@link #cacheBookDetails(List)}
      * @param borrowedBookIds Set of borrowed book IDs
      */
-    public void warmUpCache(List<BookResponse> availableBooks, Set<Long> borrowedBookIds) {
+    public void warmUpCache(Set<Long> borrowedBookIds) {
         try {
             // Cache borrowed books set
             if (borrowedBookIds != null && !borrowedBookIds.isEmpty()) {
-                String borrowedSetKey = keyPrefix + ":borrowed-set";
+                String borrowedSetKey = getBorrowedSetKey();
                 redisTemplate.delete(borrowedSetKey);
                 redisTemplate.opsForSet().add(borrowedSetKey, borrowedBookIds.toArray());
                 redisTemplate.expire(borrowedSetKey, borrowedBooksTtl, TimeUnit.SECONDS);
             }
             
-            // Cache individual book details
-            for (BookResponse book : availableBooks) {
-                cacheBookDetail(book);
-            }
-            
-            logger.info("Cache warmed up with {} book details and {} borrowed books", 
-                       availableBooks.size(), borrowedBookIds != null ? borrowedBookIds.size() : 0);
+            logger.info("Cache warmed up with {} borrowed books", 
+                       borrowedBookIds != null ? borrowedBookIds.size() : 0);
         } catch (Exception e) {
+            cacheMetrics.recordError("warmUpCache");
             logger.error("Error warming up cache: {}", e.getMessage());
         }
     }
@@ -0,0 +1,268 @@
+package com.swl.booking.system.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Persistent radix trie from normalized keys to weighted values.
+ * <p>
+ * Nodes are immutable: {@link #put} copies only the nodes on the path to the key and returns a
+ * new trie, so readers holding the previous one are never disturbed. Every node keeps the highest
+ * weight below it, which lets {@link #topK} visit nodes best-first and stop after k values
+ * instead of walking the whole subtree.
+ *
+ * @param <V> value type; the same instance may be stored under several keys
+ */
+final class SuggestTrie<V extends SuggestTrie.Weighted> {
+
+    interface Weighted {
+        long weight();
+    }
+
+    private static final Node<?> EMPTY_ROOT = new Node<>("", newChildren(0), null);
+
+    private final Node<V> root;
+
+    private SuggestTrie(Node<V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V extends Weighted> SuggestTrie<V> empty() {
+        return new SuggestTrie<>((Node<V>) EMPTY_ROOT);
+    }
+
+    /**
+     * @param value value to store, or null to remove the key
+     * @return trie with the change applied; this one is unchanged
+     */
+    SuggestTrie<V> put(String key, V value) {
+        Node<V> updated = put(root, key, 0, value);
+        return updated == root ? this : new SuggestTrie<>(updated != null ? updated : emptyRoot());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<V> emptyRoot() {
+        return (Node<V>) EMPTY_ROOT;
+    }
+
+    /**
+     * Highest weighted distinct values whose key starts with the prefix, best first
+     */
+    List<V> topK(String prefix, int k) {
+        Node<V> start = find(prefix);
+        if (start == null || k <= 0) {
+            return List.of();
+        }
+        List<V> results = new ArrayList<>(k);
+        Set<V> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Nodes are queued by their subtree maximum and values by their own weight, so a value
+        // leaves the queue only when nothing still queued can beat it
+        PriorityQueue<Candidate<V>> queue = new PriorityQueue<>();
+        queue.add(new Candidate<>(start.maxWeight, start, null));
+        while (!queue.isEmpty() && results.size() < k) {
+            Candidate<V> candidate = queue.poll();
+            if (candidate.value != null) {
+                if (seen.add(candidate.value)) {
+                    results.add(candidate.value);
+                }
+                continue;
+            }
+            Node<V> node = candidate.node;
+            if (node.value != null) {
+                queue.add(new Candidate<>(node.value.weight(), null, node.value));
+            }
+            for (Node<V> child : node.children) {
+                queue.add(new Candidate<>(child.maxWeight, child, null));
+            }
+        }
+        return results;
+    }
+
+    private Node<V> find(String prefix) {
+        Node<V> node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node<V> child = node.child(prefix.charAt(position));
+            if (child == null) {
+                return null;
+            }
+            String label = child.label;
+            int remaining = prefix.length() - position;
+            if (remaining <= label.length()) {
+                // The prefix ends inside this edge; everything below it matches
+                return label.regionMatches(0, prefix, position, remaining) ? child : null;
+            }
+            if (!prefix.regionMatches(position, label, 0, label.length())) {
+                return null;
+            }
+            position += label.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private static <V extends Weighted> Node<V> put(Node<V> node, String key, int position, V value) {
+        if (position == key.length()) {
+            return node.withValue(value);
+        }
+        int index = node.childIndex(key.charAt(position));
+        if (index < 0) {
+            if (value == null) {
+                return node;
+            }
+            return node.withChild(-index - 1, new Node<>(key.substring(position), newChildren(0), value), true);
+        }
+
+        Node<V> child = node.children[index];
+        String label = child.label;
+        int common = commonPrefix(label, key, position);
+        if (common == label.length()) {
+            Node<V> updated = put(child, key, position + common, value);
+            return updated == child ? node : node.withChild(index, updated, false);
+        }
+        if (value == null) {
+            return node;
+        }
+
+        // The key leaves this edge part way along: split it at the shared prefix
+        Node<V> tail = child.withLabel(label.substring(common));
+        Node<V> split;
+        if (position + common == key.length()) {
+            Node<V>[] only = newChildren(1);
+            only[0] = tail;
+            split = new Node<>(label.substring(0, common), only, value);
+        } else {
+            Node<V> leaf = new Node<>(key.substring(position + common), newChildren(0), value);
+            boolean tailFirst = tail.label.charAt(0) < leaf.label.charAt(0);
+            Node<V>[] pair = newChildren(2);
+            pair[0] = tailFirst ? tail : leaf;
+            pair[1] = tailFirst ? leaf : tail;
+            split = new Node<>(label.substring(0, common), pair, null);
+        }
+        return node.withChild(index, split, false);
+    }
+
+    private static int commonPrefix(String label, String key, int position) {
+        int max = Math.min(label.length(), key.length() - position);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Children arrays are never exposed, so the unchecked generic array stays safe
+    @SuppressWarnings("unchecked")
+    private static <V extends Weighted> Node<V>[] newChildren(int length) {
+        return (Node<V>[]) new Node<?>[length];
+    }
+
+    private static final class Node<V extends Weighted> {
+        private final String label;
+        // Sorted by the first character of their labels, which are distinct
+        private final Node<V>[] children;
+        private final V value;
+        private final long maxWeight;
+
+        Node(String label, Node<V>[] children, V value) {
+            this.label = label;
+            this.children = children;
+            this.value = value;
+            long max = value != null ? value.weight() : Long.MIN_VALUE;
+            for (Node<V> child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            this.maxWeight = max;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Node<V> child(char first) {
+            int index = childIndex(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node<V> withLabel(String newLabel) {
+            return new Node<>(newLabel, children, value);
+        }
+
+        /**
+         * @return updated node, or null when it would carry neither a value nor children
+         */
+        Node<V> withValue(V newValue) {
+            if (newValue == value) {
+                return this;
+            }
+            return compact(label, children, newValue);
+        }
+
+        /**
+         * Replace or insert a child; a null replacement removes it
+         */
+        Node<V> withChild(int index, Node<V> child, boolean insert) {
+            Node<V>[] updated;
+            if (insert) {
+                updated = Arrays.copyOf(children, children.length + 1);
+                System.arraycopy(children, index, updated, index + 1, children.length - index);
+                updated[index] = child;
+            } else if (child == null) {
+                updated = Arrays.copyOf(children, children.length - 1);
+                System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+            } else {
+                updated = children.clone();
+                updated[index] = child;
+            }
+            return compact(label, updated, value);
+        }
+
+        // Drop empty nodes and merge a valueless node into its only child to keep edges compressed
+        private static <V extends Weighted> Node<V> compact(String label, Node<V>[] children, V value) {
+            if (label.isEmpty()) {
+                // The root always stays, even when empty
+                return new Node<>(label, children, value);
+            }
+            if (value == null && children.length == 0) {
+                return null;
+            }
+            if (value == null && children.length == 1) {
+                Node<V> only = children[0];
+                return new Node<>(label + only.label, only.children, only.value);
+            }
+            return new Node<>(label, children, value);
+        }
+    }
+
+    private record Candidate<V extends Weighted>(long weight, Node<V> node, V value) implements Comparable<Candidate<V>> {
+
+        @Override
+        public int compareTo(Candidate<V> other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // On a tie a value goes before a node, so it is returned without expanding more nodes
+            return Boolean.compare(value == null, other.value == null);
+        }
+    }
+}
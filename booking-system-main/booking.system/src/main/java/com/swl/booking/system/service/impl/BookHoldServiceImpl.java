@@ -0,0 +1,171 @@
+package com.swl.booking.system.service.impl;
+
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.entity.BookHold;
+import com.swl.booking.system.entity.CacheOutboxEvent;
+import com.swl.booking.system.exception.AlreadyExitException;
+import com.swl.booking.system.exception.ResponseInfoException;
+import com.swl.booking.system.repository.BookBorrowingRepository;
+import com.swl.booking.system.repository.BookHoldRepository;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.repository.UserRepository;
+import com.swl.booking.system.request.book.HoldBookRequest;
+import com.swl.booking.system.response.book.BookHoldResponse;
+import com.swl.booking.system.service.BookCacheSyncService;
+import com.swl.booking.system.service.BookHoldService;
+import com.swl.booking.system.service.HoldExpiryQueue;
+
+@Service
+@Transactional
+public class BookHoldServiceImpl implements BookHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookHoldServiceImpl.class);
+
+    private static final List<BookHold.Status> OPEN = List.of(BookHold.Status.WAITING, BookHold.Status.READY);
+
+    @Autowired
+    private BookHoldRepository bookHoldRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookBorrowingRepository bookBorrowingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookCacheSyncService bookCacheSyncService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.hold.pickup-window-ms:172800000}")
+    private long pickupWindowMillis;
+
+    @Override
+    public String placeHold(HoldBookRequest request, Long userId) {
+        Long bookId = request.getBookId();
+
+        // Locking the book serialises this with returns, so a copy cannot go back on the shelf
+        // while a hold for it is being placed
+        List<Book> books = bookRepository.findAllByIdForUpdate(List.of(bookId));
+        if (books.isEmpty()) {
+            throw new ResponseInfoException("Book not found");
+        }
+        if (books.get(0).getAvailableQuantity() > 0) {
+            throw new ResponseInfoException("Book is available for borrowing");
+        }
+        if (bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, bookId)) {
+            throw new AlreadyExitException("You have already borrowed this book");
+        }
+        if (bookHoldRepository.existsByUserIdAndBookIdAndStatusIn(userId, bookId, OPEN)) {
+            throw new AlreadyExitException("You already have a hold on this book");
+        }
+
+        BookHold hold = new BookHold();
+        hold.setUser(userRepository.getReferenceById(userId));
+        hold.setBook(bookRepository.getReferenceById(bookId));
+        hold.setStatus(BookHold.Status.WAITING);
+        hold.setCreatedTime(new Date());
+        hold.setUpdatedTime(new Date());
+        hold = bookHoldRepository.save(hold);
+
+        long position = bookHoldRepository.countByBookIdAndStatusAndIdLessThanEqual(bookId, BookHold.Status.WAITING,
+                hold.getId());
+        logger.info("User {} placed a hold on book {} at position {}", userId, bookId, position);
+        return "Hold placed, you are number " + position + " in the queue";
+    }
+
+    @Override
+    public String cancelHold(HoldBookRequest request, Long userId) {
+        Long bookId = request.getBookId();
+
+        bookRepository.findAllByIdForUpdate(List.of(bookId));
+        BookHold hold = bookHoldRepository.findOpenForUpdate(userId, bookId)
+                .orElseThrow(() -> new ResponseInfoException("No active hold found for this book"));
+        boolean ready = hold.getStatus() == BookHold.Status.READY;
+        hold.setStatus(BookHold.Status.CANCELLED);
+        hold.setUpdatedTime(new Date());
+        bookHoldRepository.save(hold);
+        logger.info("User {} cancelled their hold on book {}", userId, bookId);
+
+        if (ready) {
+            releaseCopy(bookId);
+        }
+        return "Hold cancelled successfully";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookHoldResponse> getHolds(Long userId) {
+        return bookHoldRepository.findOpenHolds(userId);
+    }
+
+    @Override
+    public boolean claimHold(Long bookId, Long userId) {
+        return bookHoldRepository.claimReady(userId, bookId, new Date()) > 0;
+    }
+
+    @Override
+    public boolean allocateReturnedCopy(Long bookId) {
+        bookRepository.findAllByIdForUpdate(List.of(bookId));
+        List<BookHold> next = bookHoldRepository.findWaitingForUpdate(bookId, PageRequest.of(0, 1));
+        if (next.isEmpty()) {
+            return false;
+        }
+
+        Date now = new Date();
+        BookHold hold = next.get(0);
+        hold.setStatus(BookHold.Status.READY);
+        hold.setExpiresAt(new Date(now.getTime() + pickupWindowMillis));
+        hold.setUpdatedTime(now);
+        bookHoldRepository.save(hold);
+        logger.info("Copy of book {} set aside for hold {} until {}", bookId, hold.getId(), hold.getExpiresAt());
+
+        eventPublisher.publishEvent(new HoldExpiryQueue.HoldReady(hold.getId(), hold.getExpiresAt()));
+        return true;
+    }
+
+    @Override
+    public void expireHold(Long holdId) {
+        BookHold hold = bookHoldRepository.findById(holdId).orElse(null);
+        if (hold == null || hold.getStatus() != BookHold.Status.READY) {
+            return;
+        }
+        Long bookId = hold.getBook().getId();
+
+        // Book first, in the same order as returns and cancellations
+        bookRepository.findAllByIdForUpdate(List.of(bookId));
+        if (bookHoldRepository.expireIfDue(holdId, new Date()) == 0) {
+            return;
+        }
+        logger.info("Hold {} on book {} expired before pickup", holdId, bookId);
+        releaseCopy(bookId);
+    }
+
+    /**
+     * Pass a copy that was set aside to the next holder, or put it back on the shelf
+     */
+    private void releaseCopy(Long bookId) {
+        if (allocateReturnedCopy(bookId)) {
+            return;
+        }
+        if (bookRepository.incrementAvailableQuantity(bookId) > 0) {
+            bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, bookId);
+        }
+    }
+}
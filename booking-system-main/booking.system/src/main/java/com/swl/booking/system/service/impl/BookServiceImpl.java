@@ -1,17 +1,29 @@
 package com.swl.booking.system.service.impl;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.swl.booking.system.entity.Book;
 import com.swl.booking.system.entity.BookBorrowing;
-import com.swl.booking.system.entity.User;
+import com.swl.booking.system.entity.CacheOutboxEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.swl.booking.system.exception.AlreadyExitException;
@@ -19,20 +31,40 @@ import com.swl.booking.system.exception.ResponseInfoException;
 import com.swl.booking.system.repository.BookBorrowingRepository;
 import com.swl.booking.system.repository.BookRepository;
 import com.swl.booking.system.repository.UserRepository;
+import com.swl.booking.system.request.book.BookBatchRequest;
 import com.swl.booking.system.request.book.BookRegisterRequest;
 import com.swl.booking.system.request.book.BorrowBookRequest;
 import com.swl.booking.system.request.book.ReturnBookRequest;
+import com.swl.booking.system.response.book.BookBatchResponse;
 import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookPageResponse;
 import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.service.BookCacheSyncService;
+import com.swl.booking.system.service.BookHoldService;
+import com.swl.booking.system.service.BookSearchIndex;
 import com.swl.booking.system.service.BookService;
+import com.swl.booking.system.service.CacheLoadCoordinator;
+import com.swl.booking.system.service.CachedBookList;
 import com.swl.booking.system.service.RedisBookCacheService;
+import com.swl.booking.system.util.CommonUtil;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 @Transactional
+@Timed(value = "booking.book.service", description = "Book service calls, tagged by method")
 public class BookServiceImpl implements BookService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookServiceImpl.class);
 
+    private static final String AVAILABLE_BOOKS_ENTRY = "available";
+
+    private static final String INSERT_BORROWING = "INSERT INTO book_borrowing "
+            + "(borrower_id, book_id, borrow_date, is_returned, created_date, updated_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private BookRepository bookRepository;
 
@@ -45,6 +77,24 @@ public class BookServiceImpl implements BookService {
     @Autowired
     private RedisBookCacheService redisBookCacheService;
 
+    @Autowired
+    private CacheLoadCoordinator cacheLoadCoordinator;
+
+    @Autowired
+    private BookCacheSyncService bookCacheSyncService;
+
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Autowired
+    private BookHoldService bookHoldService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Override
     public BookResponse registerBook(BookRegisterRequest request) {
         if (bookRepository.countByIsbn(request.getIsbn()) > 0) {
@@ -55,159 +105,361 @@ public class BookServiceImpl implements BookService {
         book.setIsbn(request.getIsbn());
         book.setTitle(request.getTitle());
         book.setAuthor(request.getAuthor());
+        int quantity = request.getQuantity() != null ? request.getQuantity() : 1;
+        book.setQuantity(quantity);
+        book.setAvailableQuantity(quantity);
         book.setAvailable(true);
         book.setCreatedTime(new Date());
         book.setUpdatedTime(new Date());
 
         Book savedBook = bookRepository.save(book);
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, savedBook.getId());
         return new BookResponse(savedBook);
     }
     
+    // Cached reads run outside the class-level transaction: a node waiting on another node's
+    // cache rebuild must not hold a pooled connection while it polls Redis. The loader's query
+    // takes a connection only while it runs.
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookListResponse getAvailableBooksResponse() {
-        List<BookResponse> cachedBooks = redisBookCacheService.getCachedAvailableBooks();
+        return getAvailableBooksResponse(false);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookListResponse getAvailableBooksResponse(boolean skipLocalCache) {
+        CachedBookList cachedBooks = redisBookCacheService.getCachedAvailableBooks(skipLocalCache);
         if (cachedBooks != null) {
-            logger.debug("Retrieved {} available books from Redis cache", cachedBooks.size());
-            return new BookListResponse(cachedBooks);
+            logger.debug("Retrieved {} available books from Redis cache", cachedBooks.getBooks().size());
+            refreshIfStale(cachedBooks, AVAILABLE_BOOKS_ENTRY, this::loadAvailableBooks);
+            return new BookListResponse(cachedBooks.getBooks());
+        }
+        return new BookListResponse(loadAvailableBooksOnce());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookPageResponse getAvailableBooks(String cursor, Integer size) {
+        long afterId = CommonUtil.decodeCursor(cursor);
+        int pageSize = CommonUtil.resolvePageSize(size);
+
+        List<BookResponse> books;
+        CachedBookList cachedPage = redisBookCacheService.getCachedAvailableBooksAfter(afterId, pageSize + 1);
+        if (cachedPage != null) {
+            refreshIfStale(cachedPage, AVAILABLE_BOOKS_ENTRY, this::loadAvailableBooks);
+            books = cachedPage.getBooks();
+        } else {
+            // Cold cache: rebuild the whole set once so the following pages are served from Redis
+            books = loadAvailableBooksOnce().stream()
+                    .filter(book -> book.getId() > afterId)
+                    .limit(pageSize + 1L)
+                    .collect(Collectors.toList());
+        }
+
+        boolean hasMore = books.size() > pageSize;
+        if (hasMore) {
+            books = books.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? CommonUtil.encodeCursor(books.get(books.size() - 1).getId()) : null;
+        return new BookPageResponse(books, nextCursor, hasMore);
+    }
+
+    private void refreshIfStale(CachedBookList cachedBooks, String entry, Runnable loader) {
+        if (cachedBooks.isStale()) {
+            cacheLoadCoordinator.refreshInBackground(entry, loader);
         }
+    }
 
+    // Concurrent misses share one database load instead of each running the query
+    private List<BookResponse> loadAvailableBooksOnce() {
+        return cacheLoadCoordinator.load(AVAILABLE_BOOKS_ENTRY, () -> {
+            CachedBookList cached = redisBookCacheService.getCachedAvailableBooks(true);
+            return cached != null ? cached.getBooks() : null;
+        }, this::loadAvailableBooks);
+    }
+
+    private List<BookResponse> loadAvailableBooks() {
         logger.debug("Cache miss - fetching available books from database");
-        List<Book> availableBooks = bookRepository.findByIsAvailableTrue();
-        List<BookResponse> bookResponses = availableBooks.stream()
+        List<BookResponse> bookResponses = bookRepository.findByIsAvailableTrueOrderByIdAsc().stream()
                 .map(BookResponse::new)
                 .collect(Collectors.toList());
 
         redisBookCacheService.cacheAvailableBooks(bookResponses);
         logger.debug("Cached {} available books in Redis", bookResponses.size());
-        
-        return new BookListResponse(bookResponses);
+        return bookResponses;
     }
 
     @Override
-    public BookListResponse getAllBooks() {
-        List<Book> allBooks = bookRepository.findAll();
-        List<BookResponse> bookResponses = allBooks.stream()
+    @Transactional(readOnly = true)
+    public BookPageResponse getAllBooks(String cursor, Integer size) {
+        long afterId = CommonUtil.decodeCursor(cursor);
+        int pageSize = CommonUtil.resolvePageSize(size);
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasMore = books.size() > pageSize;
+        if (hasMore) {
+            books = books.subList(0, pageSize);
+        }
+
+        List<BookResponse> bookResponses = books.stream()
                 .map(BookResponse::new)
                 .collect(Collectors.toList());
-        return new BookListResponse(bookResponses);
+        String nextCursor = hasMore ? CommonUtil.encodeCursor(books.get(books.size() - 1).getId()) : null;
+        return new BookPageResponse(bookResponses, nextCursor, hasMore);
     }
 
     @Override
-    public String borrowBook(BorrowBookRequest request, Long userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (!userOpt.isPresent()) {
-            throw new ResponseInfoException("User not found");
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookResponse> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllOrderById()) {
+            books.forEach(book -> {
+                consumer.accept(new BookResponse(book));
+                // Keep the persistence context from growing with the catalog
+                entityManager.detach(book);
+            });
         }
+    }
 
-        Optional<Book> bookOpt = bookRepository.findById(request.getBookId());
-        if (!bookOpt.isPresent()) {
-            throw new ResponseInfoException("Book not found");
+    // The index path never touches the database, and the LIKE fallback runs in the repository's own
+    // read-only transaction, so a search does not hold a pooled connection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookPageResponse searchBooks(String query, boolean availableOnly, String cursor, Integer size) {
+        if (!CommonUtil.validString(query)) {
+            throw new ResponseInfoException("Search query is required");
+        }
+        // Ranked results have no stable id order, so the cursor carries the offset of the next page
+        long offset = CommonUtil.decodeCursor(cursor);
+        int pageSize = CommonUtil.resolvePageSize(size);
+        int limit = (int) Math.min(offset + pageSize + 1, Integer.MAX_VALUE);
+
+        List<BookResponse> matches;
+        if (bookSearchIndex.isReady()) {
+            matches = bookSearchIndex.search(query, availableOnly, limit);
+        } else {
+            logger.debug("Search index not loaded yet - searching the database");
+            matches = searchDatabase(query.trim(), availableOnly);
         }
 
-        Book book = bookOpt.get();
-        User user = userOpt.get();
+        int from = (int) Math.min(offset, matches.size());
+        int to = Math.min(from + pageSize, matches.size());
+        boolean hasMore = matches.size() > to;
+        String nextCursor = hasMore ? CommonUtil.encodeCursor((long) to) : null;
+        return new BookPageResponse(new ArrayList<>(matches.subList(from, to)), nextCursor, hasMore);
+    }
 
-        if (!book.isAvailable()) {
-            throw new ResponseInfoException("Book is not available for borrowing");
-        }
+    // Unranked LIKE scans, only used until the index has been loaded
+    private List<BookResponse> searchDatabase(String query, boolean availableOnly) {
+        Map<Long, Book> found = new TreeMap<>();
+        bookRepository.findByTitleContainingIgnoreCase(query).forEach(book -> found.put(book.getId(), book));
+        bookRepository.findByAuthorContainingIgnoreCase(query).forEach(book -> found.put(book.getId(), book));
+        return found.values().stream()
+                .filter(book -> !availableOnly || book.isAvailable())
+                .map(BookResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String borrowBook(BorrowBookRequest request, Long userId) {
+        Long bookId = request.getBookId();
 
-        Optional<BookBorrowing> existingBorrowing = bookBorrowingRepository
-                .findByBorrowerAndBookAndIsReturnedFalse(user, book);
-        if (existingBorrowing.isPresent()) {
+        if (bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, bookId)) {
             throw new AlreadyExitException("You have already borrowed this book");
         }
 
+        // A copy set aside for the user's hold is already out of inventory
+        if (bookHoldService.claimHold(bookId, userId)) {
+            logger.info("User {} picked up the copy of book {} held for them", userId, bookId);
+        } else if (bookRepository.decrementAvailableQuantity(bookId) == 0) {
+            // Guarded decrement: succeeds only while a copy is left, so concurrent borrowers cannot oversubscribe
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResponseInfoException("Book not found");
+            }
+            throw new ResponseInfoException("Book is not available for borrowing");
+        } else {
+            logger.info("One copy of book {} taken from inventory", bookId);
+        }
+
+        // The user id comes from the authenticated principal; references avoid re-selecting user and book
         BookBorrowing borrowing = new BookBorrowing();
-        borrowing.setBorrower(user);
-        borrowing.setBook(book);
+        borrowing.setBorrower(userRepository.getReferenceById(userId));
+        borrowing.setBook(bookRepository.getReferenceById(bookId));
         borrowing.setBorrowDate(new Date());
         borrowing.setReturned(false);
         borrowing.setCreatedTime(new Date());
         borrowing.setUpdatedTime(new Date());
 
         bookBorrowingRepository.save(borrowing);
-        logger.info("Borrowing record created for user {} and book {}", userId, book.getId());
-
-        book.setAvailable(false);
-        book.setUpdatedTime(new Date());
-        bookRepository.save(book);
-        logger.info("Book {} marked as unavailable in database", book.getId());
-
-        redisBookCacheService.invalidateAvailableBooksCache();
-        redisBookCacheService.invalidateUserBorrowedBooksCache(userId);
-        redisBookCacheService.invalidateBookDetailCache(book.getId());
+        logger.info("Borrowing record created for user {} and book {}", userId, bookId);
 
-        BookResponse updatedBookResponse = new BookResponse(book);
-        redisBookCacheService.cacheBookDetail(updatedBookResponse);
-        logger.info("Redis cache synchronized after borrowing book {}", book.getId());
+        // Applied to Redis after commit, so a rollback never reaches the cache
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, bookId);
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
 
         return "Book borrowed successfully";
     }
 
     @Override
     public String returnBook(ReturnBookRequest request, Long userId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (!userOpt.isPresent()) {
-            throw new ResponseInfoException("User not found");
-        }
+        Long bookId = request.getBookId();
 
-        Optional<Book> bookOpt = bookRepository.findById(request.getBookId());
-        if (!bookOpt.isPresent()) {
-            throw new ResponseInfoException("Book not found");
+        if (bookBorrowingRepository.markReturned(userId, bookId, new Date()) == 0) {
+            throw new ResponseInfoException("No active borrowing record found for this book");
+        }
+        logger.info("Borrowing record marked as returned for user {} and book {}", userId, bookId);
+
+        // The oldest hold gets the copy before the shelf does
+        if (bookHoldService.allocateReturnedCopy(bookId)) {
+            logger.info("Returned copy of book {} set aside for the next hold", bookId);
+        } else if (bookRepository.incrementAvailableQuantity(bookId) == 0) {
+            logger.warn("Book {} was already fully stocked when a copy was returned", bookId);
+        } else {
+            logger.info("One copy of book {} returned to inventory", bookId);
+            bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, bookId);
         }
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
 
-        Book book = bookOpt.get();
-        User user = userOpt.get();
+        return "Book returned successfully";
+    }
 
-        Optional<BookBorrowing> borrowingOpt = bookBorrowingRepository
-                .findByBorrowerAndBookAndIsReturnedFalse(user, book);
-        if (!borrowingOpt.isPresent()) {
-            throw new ResponseInfoException("No active borrowing record found for this book");
+    @Override
+    public BookBatchResponse borrowBooks(BookBatchRequest request, Long userId) {
+        List<Long> bookIds = new ArrayList<>(new LinkedHashSet<>(request.getBookIds()));
+
+        // One locking read for the whole cart instead of a guarded update per book
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllByIdForUpdate(bookIds).forEach(book -> books.put(book.getId(), book));
+        Set<Long> alreadyBorrowed = new HashSet<>(bookBorrowingRepository.findActiveBookIds(userId, bookIds));
+
+        BookBatchResponse response = new BookBatchResponse();
+        Set<Long> seen = new HashSet<>();
+        List<Long> borrowed = new ArrayList<>();
+        // Books taken off the shelf; a copy picked up for a hold is already out of inventory
+        List<Long> fromShelf = new ArrayList<>();
+        for (Long bookId : request.getBookIds()) {
+            Book book = books.get(bookId);
+            if (!seen.add(bookId)) {
+                response.fail(bookId, "Book is listed more than once");
+            } else if (book == null) {
+                response.fail(bookId, "Book not found");
+            } else if (alreadyBorrowed.contains(bookId)) {
+                response.fail(bookId, "You have already borrowed this book");
+            } else if (bookHoldService.claimHold(bookId, userId)) {
+                logger.info("User {} picked up the copy of book {} held for them", userId, bookId);
+                borrowed.add(bookId);
+                response.succeed(bookId, "Book borrowed successfully");
+            } else if (book.getAvailableQuantity() <= 0) {
+                response.fail(bookId, "Book is not available for borrowing");
+            } else {
+                borrowed.add(bookId);
+                fromShelf.add(bookId);
+                response.succeed(bookId, "Book borrowed successfully");
+            }
+        }
+        if (borrowed.isEmpty()) {
+            return response;
         }
 
-        BookBorrowing borrowing = borrowingOpt.get();
-        borrowing.setReturnDate(new Date());
-        borrowing.setReturned(true);
-        borrowing.setUpdatedTime(new Date());
+        // The rows are locked, so each guarded decrement applies unless the row lock was not honoured
+        if (!fromShelf.isEmpty() && bookRepository.decrementAvailableQuantities(fromShelf) != fromShelf.size()) {
+            throw new ResponseInfoException("Book availability changed during checkout, please try again");
+        }
 
-        bookBorrowingRepository.save(borrowing);
-        logger.info("Borrowing record marked as returned for user {} and book {}", userId, book.getId());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_BORROWING, borrowed, borrowed.size(), (ps, bookId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, bookId);
+            ps.setTimestamp(3, now);
+            ps.setBoolean(4, false);
+            ps.setTimestamp(5, now);
+            ps.setTimestamp(6, now);
+        });
+        logger.info("User {} borrowed {} books in one checkout: {}", userId, borrowed.size(), borrowed);
+
+        // Committed together, so the cache sync applies them as one batch
+        borrowed.forEach(bookId -> bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, bookId));
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        return response;
+    }
 
-        book.setAvailable(true);
-        book.setUpdatedTime(new Date());
-        bookRepository.save(book);
-        logger.info("Book {} marked as available in database", book.getId());
+    @Override
+    public BookBatchResponse returnBooks(BookBatchRequest request, Long userId) {
+        List<Long> bookIds = new ArrayList<>(new LinkedHashSet<>(request.getBookIds()));
 
-        redisBookCacheService.invalidateAvailableBooksCache();
-        redisBookCacheService.invalidateUserBorrowedBooksCache(userId);
-        redisBookCacheService.invalidateBookDetailCache(book.getId());
+        Map<Long, List<Long>> borrowingIdsByBook = new HashMap<>();
+        for (BookBorrowing borrowing : bookBorrowingRepository.findActiveForUpdate(userId, bookIds)) {
+            borrowingIdsByBook.computeIfAbsent(borrowing.getBook().getId(), id -> new ArrayList<>()).add(borrowing.getId());
+        }
 
-        BookResponse updatedBookResponse = new BookResponse(book);
-        redisBookCacheService.cacheBookDetail(updatedBookResponse);
-        logger.info("Redis cache synchronized after returning book {}", book.getId());
+        BookBatchResponse response = new BookBatchResponse();
+        Set<Long> seen = new HashSet<>();
+        List<Long> returned = new ArrayList<>();
+        List<Long> borrowingIds = new ArrayList<>();
+        for (Long bookId : request.getBookIds()) {
+            if (!seen.add(bookId)) {
+                response.fail(bookId, "Book is listed more than once");
+            } else if (!borrowingIdsByBook.containsKey(bookId)) {
+                response.fail(bookId, "No active borrowing record found for this book");
+            } else {
+                returned.add(bookId);
+                borrowingIds.addAll(borrowingIdsByBook.get(bookId));
+                response.succeed(bookId, "Book returned successfully");
+            }
+        }
+        if (returned.isEmpty()) {
+            return response;
+        }
 
-        return "Book returned successfully";
+        bookBorrowingRepository.markReturnedByIds(borrowingIds, new Date());
+        // Lock every returned book at once, in id order like borrowBooks; locking each book as it is
+        // handed over would follow request order and could deadlock against an overlapping batch
+        List<Long> lockOrder = returned.stream().sorted().toList();
+        bookRepository.findAllByIdForUpdate(lockOrder);
+        // Books with a queue are handed over one by one; the rest are restocked in one statement
+        List<Long> restock = new ArrayList<>(returned.size());
+        for (Long bookId : lockOrder) {
+            if (!bookHoldService.allocateReturnedCopy(bookId)) {
+                restock.add(bookId);
+            }
+        }
+        int restocked = restock.isEmpty() ? 0 : bookRepository.incrementAvailableQuantities(restock);
+        if (restocked != restock.size()) {
+            logger.warn("{} of {} returned books were already fully stocked", restock.size() - restocked, restock.size());
+        }
+        logger.info("User {} returned {} books in one batch: {}", userId, returned.size(), returned);
+
+        restock.forEach(bookId -> bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, bookId));
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        return response;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookListResponse getBorrowedBooks(Long userId) {
-        List<BookResponse> cachedBooks = redisBookCacheService.getCachedBorrowedBooks(userId);
+        String entry = "borrowed:" + userId;
+        CachedBookList cachedBooks = redisBookCacheService.getCachedBorrowedBooks(userId);
         if (cachedBooks != null) {
-            logger.debug("Retrieved {} borrowed books from Redis cache for user {}", cachedBooks.size(), userId);
-            return new BookListResponse(cachedBooks);
+            logger.debug("Retrieved {} borrowed books from Redis cache for user {}", cachedBooks.getBooks().size(), userId);
+            refreshIfStale(cachedBooks, entry, () -> loadBorrowedBooks(userId));
+            return new BookListResponse(cachedBooks.getBooks());
         }
 
+        List<BookResponse> bookResponses = cacheLoadCoordinator.load(entry, () -> {
+            CachedBookList cached = redisBookCacheService.getCachedBorrowedBooks(userId);
+            return cached != null ? cached.getBooks() : null;
+        }, () -> loadBorrowedBooks(userId));
+        return new BookListResponse(bookResponses);
+    }
+
+    private List<BookResponse> loadBorrowedBooks(Long userId) {
         logger.debug("Cache miss - fetching borrowed books from database for user {}", userId);
-        List<BookBorrowing> borrowings = bookBorrowingRepository.findByBorrowerId(userId);
-        List<BookResponse> bookResponses = borrowings.stream()
-                .filter(borrowing -> !borrowing.isReturned())
-                .map(borrowing -> new BookResponse(borrowing.getBook()))
-                .collect(Collectors.toList());
+        List<BookResponse> bookResponses = bookBorrowingRepository.findActiveBorrowedBooks(userId);
 
         redisBookCacheService.cacheBorrowedBooks(userId, bookResponses);
         logger.debug("Cached {} borrowed books in Redis for user {}", bookResponses.size(), userId);
-        
-        return new BookListResponse(bookResponses);
+        return bookResponses;
     }
 
 }
\ No newline at end of file
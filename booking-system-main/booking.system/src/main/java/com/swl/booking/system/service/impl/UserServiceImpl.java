@@ -15,6 +15,7 @@ import com.swl.booking.system.request.user.UserUpdateRequest;
 import com.swl.booking.system.response.user.UserLoginResponse;
 import com.swl.booking.system.response.user.UserProfileResponse;
 import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.security.UserPrincipalCache;
 import com.swl.booking.system.util.CommonConstant;
 import com.swl.booking.system.util.CommonUtil;
 
@@ -23,10 +24,13 @@ public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final UserPrincipalCache userPrincipalCache;
 
-	public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+	public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+			UserPrincipalCache userPrincipalCache) {
 		this.userRepository = userRepository;
 		this.passwordEncoder = passwordEncoder;
+		this.userPrincipalCache = userPrincipalCache;
 	}
 
 	@Override
@@ -97,6 +101,7 @@ public class UserServiceImpl implements UserService {
 		User user = userRepository.findById(userData.getId()).get();
 		user.setPassword(passwordEncoder.encode(req.getPassword()));
 		userRepository.save(user);
+		userPrincipalCache.evict(user.getEmail());
 	}
 
 	@Override
@@ -7,4 +7,9 @@ public class CommonConstant {
 
 	public static final String STD_DATE_FORMAT = "dd/MM/yyyy";
 	public static final String STD_DATE_TIME_FORMAT = "dd/MM/yyyy hh:mm a";
+
+	public static final int DEFAULT_PAGE_SIZE = 50;
+	public static final int MAX_PAGE_SIZE = 500;
+
+	public static final String CURSOR_VERSION_PREFIX = "v1:";
 }
@@ -1,11 +1,14 @@
 package com.swl.booking.system.util;
 
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.Base64;
 import java.util.Date;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.swl.booking.system.exception.ResponseInfoException;
 import com.swl.booking.system.security.UserPrincipal;
 
 public class CommonUtil {
@@ -35,4 +38,48 @@ public class CommonUtil {
 		}
 		return userPrincipal;
 	}
+
+	/**
+	 * Encode the last seen id of a keyset page as an opaque continuation token.
+	 */
+	public static String encodeCursor(Long lastId) {
+		if (lastId == null) {
+			return null;
+		}
+		String raw = CommonConstant.CURSOR_VERSION_PREFIX + lastId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode a continuation token produced by {@link #encodeCursor(Long)}.
+	 * A blank cursor means "start from the beginning" and decodes to 0.
+	 */
+	public static long decodeCursor(String cursor) {
+		if (!validString(cursor)) {
+			return 0L;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!raw.startsWith(CommonConstant.CURSOR_VERSION_PREFIX)) {
+				throw new ResponseInfoException("Invalid cursor");
+			}
+			long lastId = Long.parseLong(raw.substring(CommonConstant.CURSOR_VERSION_PREFIX.length()));
+			if (lastId < 0) {
+				throw new ResponseInfoException("Invalid cursor");
+			}
+			return lastId;
+		} catch (IllegalArgumentException e) {
+			throw new ResponseInfoException("Invalid cursor");
+		}
+	}
+
+	/**
+	 * Clamp a requested page size into [1, MAX_PAGE_SIZE], falling back to the default.
+	 */
+	public static int resolvePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return CommonConstant.DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(size, CommonConstant.MAX_PAGE_SIZE);
+	}
 }
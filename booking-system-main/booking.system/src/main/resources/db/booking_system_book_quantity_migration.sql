@@ -0,0 +1,18 @@
+use `booking_system`;
+
+-- Upgrades a database created before books had copies. The column defaults only fit new rows:
+-- every existing book starts with one copy, and the copy is on the shelf unless an active
+-- borrowing holds it.
+ALTER TABLE book
+    ADD COLUMN quantity INT NOT NULL DEFAULT 1 AFTER is_available,
+    ADD COLUMN available_quantity INT NOT NULL DEFAULT 1 AFTER quantity;
+
+UPDATE book b
+SET b.available_quantity = GREATEST(b.quantity - (
+        SELECT COUNT(*) FROM book_borrowing bb
+        WHERE bb.book_id = b.id AND bb.is_returned = FALSE), 0);
+
+UPDATE book SET is_available = (available_quantity > 0);
+
+ALTER TABLE book
+    ADD CONSTRAINT chk_available_quantity CHECK (available_quantity >= 0 AND available_quantity <= quantity);
@@ -20,12 +20,15 @@ CREATE TABLE book (
     title VARCHAR(255) NOT NULL,
     author VARCHAR(255) NOT NULL,
     is_available BOOLEAN NOT NULL DEFAULT TRUE,
+    quantity INT NOT NULL DEFAULT 1,
+    available_quantity INT NOT NULL DEFAULT 1,
     created_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_isbn (isbn),
     INDEX idx_title (title),
     INDEX idx_author (author),
-    INDEX idx_is_available (is_available)
+    INDEX idx_is_available (is_available),
+    CONSTRAINT chk_available_quantity CHECK (available_quantity >= 0 AND available_quantity <= quantity)
 );
 
 CREATE TABLE book_borrowing (
@@ -39,9 +42,33 @@ CREATE TABLE book_borrowing (
     updated_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (borrower_id) REFERENCES user(id) ON DELETE CASCADE,
     FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE,
-    INDEX idx_borrower_id (borrower_id),
+    INDEX idx_borrower_returned (borrower_id, is_returned),
     INDEX idx_book_id (book_id),
     INDEX idx_is_returned (is_returned),
     INDEX idx_borrow_date (borrow_date),
     UNIQUE KEY unique_active_borrowing (borrower_id, book_id, is_returned)
-);
\ No newline at end of file
+);
+
+CREATE TABLE book_hold (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    expires_date TIMESTAMP NULL,
+    created_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES user(id) ON DELETE CASCADE,
+    FOREIGN KEY (book_id) REFERENCES book(id) ON DELETE CASCADE,
+    INDEX idx_book_hold_queue (book_id, status, id),
+    INDEX idx_book_hold_user (user_id, status),
+    INDEX idx_book_hold_expires (status, expires_date)
+);
+
+CREATE TABLE cache_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(32) NOT NULL,
+    target_id BIGINT NOT NULL,
+    created_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_date  TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_cache_outbox_created (created_date)
+);
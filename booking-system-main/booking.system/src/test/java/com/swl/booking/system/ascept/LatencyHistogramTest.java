@@ -0,0 +1,86 @@
+package com.swl.booking.system.ascept;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for LatencyHistogram
+ * Tests bucket bounds, quantiles and concurrent recording
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketIndex_CoversWholeRangeWithBoundedError() {
+        // When & Then - each value lands in a bucket whose upper bound is within 25% of it
+        long[] values = {0, 1, 3, 4, 7, 8, 9, 1_000, 999_999, 1_000_000_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, "upper bound " + upper + " below " + value);
+            assertTrue(upper - value <= value / 4, "upper bound " + upper + " too far from " + value);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void bucketIndex_IsMonotonic() {
+        // When & Then
+        int previous = 0;
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index == previous || index == previous + 1, "gap at " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void valueAtQuantile_ReportsPercentiles() {
+        // Given - 99 fast calls and one slow one
+        LatencyHistogram histogram = new LatencyHistogram("BookService.getAvailableBooks");
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(50_000_000);
+
+        // When & Then
+        assertEquals(100, histogram.getCount());
+        assertEquals(50_000_000, histogram.getMaxNanos());
+        assertEquals(50_000_000 / 100 + 990, histogram.getMeanNanos());
+        assertTrue(histogram.valueAtQuantile(0.5) >= 1_000 && histogram.valueAtQuantile(0.5) < 1_250);
+        assertTrue(histogram.valueAtQuantile(0.99) < 1_250);
+        assertEquals(50_000_000, histogram.valueAtQuantile(1.0));
+    }
+
+    @Test
+    void valueAtQuantile_EmptyIsZero() {
+        // When & Then
+        assertEquals(0, new LatencyHistogram("empty").valueAtQuantile(0.99));
+    }
+
+    @Test
+    void record_CountsEveryConcurrentCall() throws Exception {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram("concurrent");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxNanos());
+    }
+}
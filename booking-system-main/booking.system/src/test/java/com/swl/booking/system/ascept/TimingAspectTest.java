@@ -0,0 +1,166 @@
+package com.swl.booking.system.ascept;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test class for TimingAspect
+ * Tests latency recording, slow-call logging and sampling
+ */
+@ExtendWith(MockitoExtension.class)
+class TimingAspectTest {
+
+    @Mock
+    private Logger mockLogger;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private Method method;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        method = String.class.getMethod("length");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getMethod()).thenReturn(method);
+    }
+
+    private TimingAspect aspect(long slowThresholdMillis, double sampleRate) {
+        TimingAspect aspect = new TimingAspect(slowThresholdMillis, sampleRate, meterRegistry);
+        ReflectionTestUtils.setField(aspect, "logger", mockLogger);
+        return aspect;
+    }
+
+    @Test
+    void time_RecordsLatencyAndReturnsResult() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(500, 0.0);
+        when(joinPoint.proceed()).thenReturn("ok");
+
+        // When
+        Object first = timingAspect.time(joinPoint);
+        timingAspect.time(joinPoint);
+
+        // Then - one histogram per method, nothing logged for fast calls
+        assertEquals("ok", first);
+        LatencyHistogram histogram = timingAspect.getHistograms().get(method);
+        assertEquals("String.length()", histogram.getName());
+        assertEquals(2, histogram.getCount());
+        verifyNoInteractions(mockLogger);
+    }
+
+    @Test
+    void time_PublishesQuantilesOfEachMethod() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(500, 0.0);
+        when(joinPoint.proceed()).thenReturn("ok");
+
+        // When
+        timingAspect.time(joinPoint);
+        timingAspect.time(joinPoint);
+
+        // Then - gauges are registered once and read the histogram when scraped
+        assertEquals(4, meterRegistry.find("booking.timing.latency").tag("method", "String.length()").gauges().size());
+        double max = meterRegistry.get("booking.timing.latency").tag("method", "String.length()")
+                .tag("quantile", "1.0").gauge().value();
+        assertEquals(timingAspect.getHistograms().get(method).getMaxNanos() / 1e9, max, 1e-12);
+        assertTrue(max > 0);
+    }
+
+    @Test
+    void time_PublishesOverloadsSeparately() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(500, 0.0);
+        Method byChar = String.class.getMethod("indexOf", int.class);
+        Method byString = String.class.getMethod("indexOf", String.class);
+        when(joinPoint.proceed()).thenReturn(0);
+
+        // When
+        when(signature.getMethod()).thenReturn(byChar);
+        timingAspect.time(joinPoint);
+        when(signature.getMethod()).thenReturn(byString);
+        timingAspect.time(joinPoint);
+
+        // Then - each overload has its own histogram and its own gauges
+        assertEquals("String.indexOf(int)", timingAspect.getHistograms().get(byChar).getName());
+        assertEquals("String.indexOf(String)", timingAspect.getHistograms().get(byString).getName());
+        assertEquals(4, meterRegistry.find("booking.timing.latency").tag("method", "String.indexOf(int)").gauges().size());
+        assertEquals(4, meterRegistry.find("booking.timing.latency").tag("method", "String.indexOf(String)").gauges().size());
+    }
+
+    @Test
+    void time_RecordsAndRethrows_WhenCallFails() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(500, 0.0);
+        IllegalStateException failure = new IllegalStateException("boom");
+        when(joinPoint.proceed()).thenThrow(failure);
+
+        // When
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> timingAspect.time(joinPoint));
+
+        // Then
+        assertSame(failure, thrown);
+        assertEquals(1, timingAspect.getHistograms().get(method).getCount());
+    }
+
+    @Test
+    void time_LogsSlowCall() throws Throwable {
+        // Given - every call is at or above a zero threshold
+        TimingAspect timingAspect = aspect(0, 0.0);
+        when(joinPoint.proceed()).thenReturn(null);
+
+        // When
+        timingAspect.time(joinPoint);
+
+        // Then
+        verify(mockLogger).warn(eq("Slow call {} took {} ms"), eq("String.length()"), anyLong());
+    }
+
+    @Test
+    void time_LogsSampledCall_WhenDebugEnabled() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(-1, 1.0);
+        when(joinPoint.proceed()).thenReturn(null);
+        when(mockLogger.isDebugEnabled()).thenReturn(true);
+
+        // When
+        timingAspect.time(joinPoint);
+
+        // Then
+        verify(mockLogger).debug(eq("Call {} took {} us"), eq("String.length()"), anyLong());
+        verify(mockLogger, never()).warn(anyString(), any(), any());
+    }
+
+    @Test
+    void time_SkipsSampling_WhenRateIsZero() throws Throwable {
+        // Given
+        TimingAspect timingAspect = aspect(-1, 0.0);
+        when(joinPoint.proceed()).thenReturn(null);
+
+        // When
+        timingAspect.time(joinPoint);
+
+        // Then - the logger is not even asked for its level
+        verifyNoInteractions(mockLogger);
+    }
+}
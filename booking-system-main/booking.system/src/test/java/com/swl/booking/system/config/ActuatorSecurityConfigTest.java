@@ -0,0 +1,117 @@
+package com.swl.booking.system.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Test class for ActuatorSecurityConfig
+ * Runs requests through the actuator filter chain in front of stand-in actuator endpoints
+ */
+@SpringJUnitWebConfig(ActuatorSecurityConfigTest.TestConfig.class)
+@TestPropertySource(properties = {
+        "app.actuator.scrape-username=scraper",
+        "app.actuator.scrape-password=scrape-secret"
+})
+class ActuatorSecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void prometheus_AuthorisedScrape_Returns200() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "scrape-secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheus_AnonymousScrape_Returns401() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheus_WrongPassword_Returns401() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metrics_AnonymousRequest_Returns401() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void health_AnonymousRequest_Returns200() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import(ActuatorSecurityConfig.class)
+    static class TestConfig {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder();
+        }
+
+        @Bean
+        ActuatorStub actuatorStub() {
+            return new ActuatorStub();
+        }
+    }
+
+    @RestController
+    static class ActuatorStub {
+
+        @GetMapping("/actuator/prometheus")
+        String prometheus() {
+            return "booking_cache_requests_total 1.0";
+        }
+
+        @GetMapping("/actuator/metrics")
+        String metrics() {
+            return "{}";
+        }
+
+        @GetMapping("/actuator/health")
+        String health() {
+            return "{\"status\":\"UP\"}";
+        }
+    }
+}
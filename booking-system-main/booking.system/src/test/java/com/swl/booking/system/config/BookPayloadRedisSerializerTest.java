@@ -0,0 +1,136 @@
+package com.swl.booking.system.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.service.CachedBookList;
+
+/**
+ * Test class for BookPayloadRedisSerializer
+ * Tests binary round trips, deflated lists and coexistence with JSON entries
+ */
+class BookPayloadRedisSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer json;
+
+    private BookPayloadRedisSerializer binary;
+
+    private BookResponse book;
+
+    @BeforeEach
+    void setUp() {
+        json = new GenericJackson2JsonRedisSerializer();
+        binary = new BookPayloadRedisSerializer(json, true, 1024);
+        Date now = new Date();
+        book = new BookResponse(42L, "9781234567890", "Título de prueba", "Test Author", true, 3, 2, now, now);
+    }
+
+    @Test
+    void book_RoundTripsAndIsSmallerThanJson() {
+        // When
+        byte[] bytes = binary.serialize(book);
+
+        // Then
+        assertEquals(BookPayloadRedisSerializer.FORMAT_V1, bytes[0]);
+        assertEquals(book, binary.deserialize(bytes));
+        assertTrue(bytes.length * 3 < json.serialize(book).length,
+                "binary " + bytes.length + " bytes vs json " + json.serialize(book).length);
+    }
+
+    @Test
+    void book_RoundTripsNullFields() {
+        // Given
+        BookResponse sparse = new BookResponse();
+        sparse.setId(7L);
+
+        // When
+        Object result = binary.deserialize(binary.serialize(sparse));
+
+        // Then
+        assertEquals(sparse, result);
+    }
+
+    @Test
+    void list_IsDeflatedAboveThreshold() {
+        // Given
+        List<BookResponse> books = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            books.add(new BookResponse(id, "978000000" + id, "Title " + id, "Author", true, 1, 1, new Date(), new Date()));
+        }
+        CachedBookList list = new CachedBookList(books, 123456789L);
+
+        // When
+        byte[] bytes = binary.serialize(list);
+        CachedBookList result = (CachedBookList) binary.deserialize(bytes);
+
+        // Then
+        assertNotEquals(0, bytes[1] & 0x80);
+        assertEquals(123456789L, result.getRefreshAt());
+        assertEquals(books, result.getBooks());
+    }
+
+    @Test
+    void list_SmallIsNotDeflated() {
+        // Given
+        CachedBookList list = new CachedBookList(Arrays.asList(book), Long.MAX_VALUE);
+
+        // When
+        byte[] bytes = binary.serialize(list);
+
+        // Then
+        assertEquals(0, bytes[1] & 0x80);
+        assertEquals(list, binary.deserialize(bytes));
+    }
+
+    @Test
+    void readsJsonEntries_WrittenBeforeRollout() {
+        // Given - an entry written by a node still on the JSON codec
+        byte[] legacy = json.serialize(book);
+
+        // When & Then
+        assertEquals(book, binary.deserialize(legacy));
+    }
+
+    @Test
+    void jsonMode_StillReadsBinaryEntries() {
+        // Given
+        BookPayloadRedisSerializer jsonWriter = new BookPayloadRedisSerializer(json, false, 1024);
+
+        // When
+        byte[] written = jsonWriter.serialize(book);
+
+        // Then
+        assertEquals('{', written[0]);
+        assertEquals(book, jsonWriter.deserialize(binary.serialize(book)));
+    }
+
+    @Test
+    void otherValues_GoThroughJson() {
+        // When
+        byte[] bytes = binary.serialize(5L);
+
+        // Then - plain numbers stay byte-compatible with the ids written by the availability script
+        assertArrayEquals("5".getBytes(), bytes);
+        assertEquals(5, binary.deserialize(bytes));
+    }
+
+    @Test
+    void truncatedPayload_Throws() {
+        // Given
+        byte[] bytes = binary.serialize(book);
+
+        // When & Then
+        assertThrows(SerializationException.class,
+                () -> binary.deserialize(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+}
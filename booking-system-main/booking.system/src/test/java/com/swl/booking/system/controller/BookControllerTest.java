@@ -1,32 +1,53 @@
 package com.swl.booking.system.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swl.booking.system.entity.BookHold;
+import com.swl.booking.system.request.book.BookBatchRequest;
 import com.swl.booking.system.request.book.BookRegisterRequest;
 import com.swl.booking.system.request.book.BorrowBookRequest;
+import com.swl.booking.system.request.book.HoldBookRequest;
 import com.swl.booking.system.request.book.ReturnBookRequest;
 import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.response.book.BookSuggestionResponse;
 import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookBatchResponse;
+import com.swl.booking.system.response.book.BookHoldResponse;
+import com.swl.booking.system.response.book.BookPageResponse;
+import com.swl.booking.system.response.book.BulkRegisterResponse;
 import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.service.AvailableBooksResponseCache;
+import com.swl.booking.system.service.BookAvailabilityStream;
+import com.swl.booking.system.service.BookBulkRegistrationService;
+import com.swl.booking.system.service.BookFeedReader;
+import com.swl.booking.system.service.BookHoldService;
 import com.swl.booking.system.service.BookService;
+import com.swl.booking.system.service.BookSuggestIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +62,24 @@ class BookControllerTest {
     @Mock
     private UserPrincipal userPrincipal;
 
+    @Mock
+    private AvailableBooksResponseCache availableBooksResponseCache;
+
+    @Mock
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Mock
+    private BookBulkRegistrationService bookBulkRegistrationService;
+
+    @Mock
+    private BookHoldService bookHoldService;
+
+    @Mock
+    private BookAvailabilityStream bookAvailabilityStream;
+
+    @Spy
+    private ObjectMapper mapper = new ObjectMapper();
+
     @InjectMocks
     private BookController bookController;
 
@@ -118,6 +157,53 @@ class BookControllerTest {
         verify(userPrincipal).isSuperAdmin();
     }
 
+    @Test
+    void registerBooks_ReadsNdjsonFeed_WhenUserIsAdmin() throws Exception {
+        // Given
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userPrincipal.isSuperAdmin()).thenReturn(true);
+        List<BookFeedReader.Row> rows = new ArrayList<>();
+        when(bookBulkRegistrationService.registerBooks(any(BookFeedReader.class))).thenAnswer(invocation -> {
+            BookFeedReader feed = invocation.getArgument(0);
+            BookFeedReader.Row row;
+            while ((row = feed.read()) != null) {
+                rows.add(row);
+            }
+            BulkRegisterResponse response = new BulkRegisterResponse();
+            response.setReceived(rows.size());
+            response.setInserted(rows.size());
+            return response;
+        });
+        String body = objectMapper.writeValueAsString(bookRegisterRequest) + "\n"
+                + "{\"isbn\":\"9780000000002\",\"title\":\"Second\",\"author\":\"Someone\",\"quantity\":2}\n";
+
+        // When
+        mockMvc.perform(post("/api/auth/book/register-books")
+                        .contentType("application/x-ndjson")
+                        .content(body)
+                        .principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.inserted").value(2));
+
+        // Then
+        assertEquals("1234567890123", rows.get(0).request().getIsbn());
+        assertEquals(2, rows.get(1).request().getQuantity());
+    }
+
+    @Test
+    void registerBooks_ThrowsAccessDeniedException_WhenUserIsNotAdmin() throws Exception {
+        // Given
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userPrincipal.isSuperAdmin()).thenReturn(false);
+
+        // When & Then
+        assertThrows(AccessDeniedException.class, () -> bookController.registerBooks("text/csv",
+                new ByteArrayInputStream("isbn,title,author\n".getBytes()), authentication));
+
+        verify(bookBulkRegistrationService, never()).registerBooks(any());
+    }
+
     @Test
     void getAvailableBooks_Success() throws Exception {
         // Given
@@ -132,21 +218,197 @@ class BookControllerTest {
 
         // Then
         verify(bookService).getAvailableBooksResponse();
+        verify(bookService, never()).getAvailableBooks(any(), any());
+    }
+
+    @Test
+    void getAvailableBooks_ServesCachedBytesWithEtag() throws Exception {
+        // Given
+        byte[] json = objectMapper.writeValueAsBytes(bookListResponse);
+        when(availableBooksResponseCache.currentVersion()).thenReturn("0-7");
+        when(availableBooksResponseCache.getSnapshot("0-7"))
+                .thenReturn(new AvailableBooksResponseCache.Snapshot("0-7", json, new byte[] { 1 }));
+
+        // When
+        mockMvc.perform(get("/api/auth/book/available-book"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0-7\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.books[0].id").value(1L));
+
+        // Then
+        verify(bookService, never()).getAvailableBooksResponse();
+    }
+
+    @Test
+    void getAvailableBooks_ServesGzipVariant_WhenAccepted() throws Exception {
+        // Given
+        byte[] gzip = { 31, -117, 8 };
+        when(availableBooksResponseCache.currentVersion()).thenReturn("0-7");
+        when(availableBooksResponseCache.getSnapshot("0-7"))
+                .thenReturn(new AvailableBooksResponseCache.Snapshot("0-7", new byte[0], gzip));
+
+        // When & Then
+        byte[] body = mockMvc.perform(get("/api/auth/book/available-book").header("Accept-Encoding", "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0-7-gzip\""))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(gzip, body);
+    }
+
+    @Test
+    void getAvailableBooks_SkipsGzip_WhenRefused() throws Exception {
+        // Given
+        when(availableBooksResponseCache.currentVersion()).thenReturn("0-7");
+        when(availableBooksResponseCache.getSnapshot("0-7"))
+                .thenReturn(new AvailableBooksResponseCache.Snapshot("0-7", "{}".getBytes(), new byte[] { 1 }));
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/book/available-book").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void getAvailableBooks_NotModified_WhenEtagMatches() throws Exception {
+        // Given
+        when(availableBooksResponseCache.currentVersion()).thenReturn("0-7");
+
+        // When
+        mockMvc.perform(get("/api/auth/book/available-book").header("If-None-Match", "\"0-7-gzip\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"0-7\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        // Then - no body was built or serialized
+        verify(availableBooksResponseCache, never()).getSnapshot(any());
+        verify(bookService, never()).getAvailableBooksResponse();
+    }
+
+    @Test
+    void getAvailableBooks_PagesWhenSizeGiven() throws Exception {
+        // Given
+        when(bookService.getAvailableBooks(null, 10))
+                .thenReturn(new BookPageResponse(Arrays.asList(bookResponse), "next", true));
+
+        // When
+        mockMvc.perform(get("/api/auth/book/available-book").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        // Then
+        verify(bookService, never()).getAvailableBooksResponse();
     }
 
     @Test
     void getAllBooks_Success() throws Exception {
         // Given
-        when(bookService.getAllBooks()).thenReturn(bookListResponse);
+        BookPageResponse pageResponse = new BookPageResponse(Arrays.asList(bookResponse), "next", true);
+        when(bookService.getAllBooks(null, null)).thenReturn(pageResponse);
 
         // When
         mockMvc.perform(get("/api/auth/book/all-book"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.books[0].id").value(1L))
-                .andExpect(jsonPath("$.books[0].title").value("Test Book"));
+                .andExpect(jsonPath("$.books[0].title").value("Test Book"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        // Then
+        verify(bookService).getAllBooks(null, null);
+    }
+
+    @Test
+    void getAllBooks_PassesCursorAndSize() throws Exception {
+        // Given
+        when(bookService.getAllBooks("abc", 20)).thenReturn(new BookPageResponse(Collections.emptyList(), null, false));
+
+        // When
+        mockMvc.perform(get("/api/auth/book/all-book").param("cursor", "abc").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books").isEmpty())
+                .andExpect(jsonPath("$.hasMore").value(false));
 
         // Then
-        verify(bookService).getAllBooks();
+        verify(bookService).getAllBooks("abc", 20);
+    }
+
+    @Test
+    void suggest_ReturnsCompletions() throws Exception {
+        // Given
+        when(bookSuggestIndex.suggest("tes", 5)).thenReturn(Arrays.asList(
+                new BookSuggestionResponse("Test Book", BookSuggestionResponse.TITLE),
+                new BookSuggestionResponse("Test Author", BookSuggestionResponse.AUTHOR)));
+
+        // When
+        mockMvc.perform(get("/api/auth/book/suggest").param("q", "tes").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value("Test Book"))
+                .andExpect(jsonPath("$[1].type").value("AUTHOR"));
+
+        // Then - answered from memory, not through the transactional service
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void suggest_UsesDefaultLimit() throws Exception {
+        // Given
+        when(bookSuggestIndex.suggest("x", BookSuggestIndex.DEFAULT_LIMIT)).thenReturn(Collections.emptyList());
+
+        // When
+        mockMvc.perform(get("/api/auth/book/suggest").param("q", "x"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        // Then
+        verify(bookSuggestIndex).suggest("x", BookSuggestIndex.DEFAULT_LIMIT);
+    }
+
+    @Test
+    void searchBooks_PassesQueryFilterAndPaging() throws Exception {
+        // Given
+        BookPageResponse pageResponse = new BookPageResponse(Arrays.asList(bookResponse), "next", true);
+        when(bookService.searchBooks("test book", true, "abc", 5)).thenReturn(pageResponse);
+
+        // When
+        mockMvc.perform(get("/api/auth/book/search").param("q", "test book").param("available", "true")
+                        .param("cursor", "abc").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        // Then
+        verify(bookService).searchBooks("test book", true, "abc", 5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllBooks_WritesNdjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<BookResponse> consumer = invocation.getArgument(0);
+            consumer.accept(bookResponse);
+            consumer.accept(bookResponse);
+            return null;
+        }).when(bookService).streamAllBooks(any(Consumer.class));
+
+        // When
+        var result = mockMvc.perform(get("/api/auth/book/all-book/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, mapper.readTree(lines[0]).get("id").asLong());
     }
 
     @Test
@@ -170,6 +432,102 @@ class BookControllerTest {
         verify(userPrincipal).getId();
     }
 
+    @Test
+    void borrowBooks_ReturnsOutcomePerBook() throws Exception {
+        // Given
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userPrincipal.getId()).thenReturn(1L);
+        BookBatchResponse batchResponse = new BookBatchResponse();
+        batchResponse.succeed(1L, "Book borrowed successfully");
+        batchResponse.fail(2L, "Book is not available for borrowing");
+        when(bookService.borrowBooks(any(BookBatchRequest.class), eq(1L))).thenReturn(batchResponse);
+
+        // When
+        mockMvc.perform(post("/api/auth/book/borrow-books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[1,2]}")
+                        .principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].bookId").value(2))
+                .andExpect(jsonPath("$.items[1].success").value(false));
+
+        // Then
+        verify(bookService).borrowBooks(argThat(request -> request.getBookIds().equals(List.of(1L, 2L))), eq(1L));
+    }
+
+    @Test
+    void returnBooks_RejectsEmptyCart() throws Exception {
+        // When
+        mockMvc.perform(post("/api/auth/book/return-books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[]}")
+                        .principal(authentication))
+                .andExpect(status().isBadRequest());
+
+        // Then
+        verify(bookService, never()).returnBooks(any(), any());
+    }
+
+    @Test
+    void streamAvailability_OpensEventStream() throws Exception {
+        // Given
+        when(bookAvailabilityStream.subscribe()).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/book/availability-stream"))
+                .andExpect(request().asyncStarted());
+        verify(bookAvailabilityStream).subscribe();
+    }
+
+    @Test
+    void streamAvailability_Returns503_WhenNodeIsFull() throws Exception {
+        // Given
+        when(bookAvailabilityStream.subscribe()).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/book/availability-stream"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void placeHold_ReturnsQueuePosition() throws Exception {
+        // Given
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userPrincipal.getId()).thenReturn(1L);
+        when(bookHoldService.placeHold(any(HoldBookRequest.class), eq(1L)))
+                .thenReturn("Hold placed, you are number 3 in the queue");
+
+        // When
+        mockMvc.perform(post("/api/auth/book/hold-book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookId\":1}")
+                        .principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hold placed, you are number 3 in the queue"));
+
+        // Then
+        verify(bookHoldService).placeHold(argThat(request -> request.getBookId().equals(1L)), eq(1L));
+    }
+
+    @Test
+    void getMyHolds_ReturnsPositions() throws Exception {
+        // Given
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        when(userPrincipal.getId()).thenReturn(1L);
+        BookHoldResponse hold = new BookHoldResponse(7L, 1L, "Test Book",
+                BookHold.Status.WAITING, 2, null, null);
+        when(bookHoldService.getHolds(1L)).thenReturn(List.of(hold));
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/book/my-holds").principal(authentication))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookId").value(1))
+                .andExpect(jsonPath("$[0].status").value("WAITING"))
+                .andExpect(jsonPath("$[0].position").value(2));
+    }
+
     @Test
     void borrowBook_ThrowsException_WhenBookNotAvailable() {
         // Given
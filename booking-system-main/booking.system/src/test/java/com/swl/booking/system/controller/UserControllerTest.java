@@ -4,12 +4,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.Date;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,7 +33,9 @@ import com.swl.booking.system.request.user.UserUpdateRequest;
 import com.swl.booking.system.response.user.UserLoginResponse;
 import com.swl.booking.system.response.user.UserProfileResponse;
 import com.swl.booking.system.security.JwtTokenProvider;
+import com.swl.booking.system.security.TokenRevocationStore;
 import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.security.VerifiedJwt;
 import com.swl.booking.system.service.UserService;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +47,9 @@ class UserControllerTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private TokenRevocationStore tokenRevocationStore;
+
     @Mock
     private Authentication authentication;
 
@@ -213,4 +221,34 @@ class UserControllerTest {
 
         verify(userService).authenticateAndGenerateToken(any(UserLoginRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void logout_RevokesTokenUntilExpiry() throws Exception {
+        // Given
+        Date expiration = new Date(System.currentTimeMillis() + 3600000);
+        when(jwtTokenProvider.verify("jwt-token")).thenReturn(new VerifiedJwt("test@example.com", expiration));
+
+        // When
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer jwt-token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("Success"))
+                .andExpect(jsonPath("$.message").value("Logout successful."));
+
+        // Then
+        verify(tokenRevocationStore).revoke("jwt-token", expiration);
+    }
+
+    @Test
+    void logout_ReturnsBadRequest_WhenTokenInvalid() throws Exception {
+        // Given
+        when(jwtTokenProvider.verify("bad-token")).thenReturn(null);
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer bad-token"))
+                .andExpect(status().isBadRequest());
+
+        verify(tokenRevocationStore, never()).revoke(any(), any());
+    }
+}
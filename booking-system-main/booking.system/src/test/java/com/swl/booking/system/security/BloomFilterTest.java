@@ -0,0 +1,54 @@
+package com.swl.booking.system.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for BloomFilter
+ * Tests membership and false positive rate
+ */
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ReturnsTrueForInsertedValues() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        Random random = new Random(42);
+        long[][] values = new long[1000][2];
+        for (long[] value : values) {
+            value[0] = random.nextLong();
+            value[1] = random.nextLong();
+            filter.put(value[0], value[1]);
+        }
+
+        // Then - no false negatives
+        for (long[] value : values) {
+            assertTrue(filter.mightContain(value[0], value[1]));
+        }
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateStaysNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(random.nextLong(), random.nextLong());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(random.nextLong(), random.nextLong())) {
+                falsePositives++;
+            }
+        }
+
+        // Then - allow headroom over the 1% target
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertEquals(7, filter.getHashCount());
+    }
+}
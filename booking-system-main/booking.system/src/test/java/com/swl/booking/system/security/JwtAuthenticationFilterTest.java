@@ -7,13 +7,13 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Date;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,6 +22,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -56,7 +57,7 @@ class JwtAuthenticationFilterTest {
     private UserDetails userDetails;
 
     @Mock
-    private JWTSingleton jwtSingleton;
+    private TokenRevocationStore tokenRevocationStore;
 
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -66,6 +67,9 @@ class JwtAuthenticationFilterTest {
     private static final String BEARER_TOKEN = "Bearer " + TEST_TOKEN;
     private static final String AUTH_URI = "/auth/profile";
     private static final String NON_AUTH_URI = "/api/books";
+    private static final Date FUTURE = new Date(System.currentTimeMillis() + 3600000);
+
+    private SimpleMeterRegistry meterRegistry;
 
     private StringWriter stringWriter;
     private PrintWriter printWriter;
@@ -75,6 +79,10 @@ class JwtAuthenticationFilterTest {
         // Inject mocked dependencies using reflection
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "tokenProvider", tokenProvider);
         ReflectionTestUtils.setField(jwtAuthenticationFilter, "customUserDetailsService", customUserDetailsService);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "userPrincipalCache", new UserPrincipalCache(100, 60));
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "tokenRevocationStore", tokenRevocationStore);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "meterRegistry", meterRegistry);
         
         // Setup response writer
         stringWriter = new StringWriter();
@@ -135,8 +143,7 @@ class JwtAuthenticationFilterTest {
         // Arrange
         when(request.getRequestURI()).thenReturn(AUTH_URI);
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(tokenProvider.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USERNAME);
-        when(tokenProvider.validateToken(TEST_TOKEN)).thenReturn(false);
+        when(tokenProvider.verify(TEST_TOKEN)).thenReturn(null);
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -145,6 +152,7 @@ class JwtAuthenticationFilterTest {
         verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
         verify(filterChain, never()).doFilter(request, response);
         assertTrue(stringWriter.toString().contains("Invalid JWT."));
+        assertEquals(1, meterRegistry.get("booking.jwt.verify").tag("result", "invalid").timer().count());
     }
 
     @Test
@@ -152,8 +160,7 @@ class JwtAuthenticationFilterTest {
         // Arrange
         when(request.getRequestURI()).thenReturn(AUTH_URI);
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(tokenProvider.getUsernameFromToken(TEST_TOKEN)).thenReturn(null);
-        when(tokenProvider.validateToken(TEST_TOKEN)).thenReturn(true);
+        when(tokenProvider.verify(TEST_TOKEN)).thenReturn(new VerifiedJwt(null, FUTURE));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -165,25 +172,21 @@ class JwtAuthenticationFilterTest {
     }
 
     @Test
-    void doFilterInternal_ShouldReturnBadRequest_WhenTokenIsExpiredInSingleton() throws ServletException, IOException {
+    void doFilterInternal_ShouldReturnBadRequest_WhenTokenIsRevoked() throws ServletException, IOException {
         // Arrange
         when(request.getRequestURI()).thenReturn(AUTH_URI);
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(tokenProvider.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USERNAME);
-        when(tokenProvider.validateToken(TEST_TOKEN)).thenReturn(true);
-        
-        try (MockedStatic<JWTSingleton> mockedSingleton = mockStatic(JWTSingleton.class)) {
-            mockedSingleton.when(JWTSingleton::getInstance).thenReturn(jwtSingleton);
-            when(jwtSingleton.checkJWTexist(TEST_USERNAME, TEST_TOKEN)).thenReturn(true);
+        when(tokenProvider.verify(TEST_TOKEN)).thenReturn(new VerifiedJwt(TEST_USERNAME, FUTURE));
+        when(tokenRevocationStore.isRevoked(TEST_TOKEN)).thenReturn(true);
 
-            // Act
-            jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-            // Assert
-            verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
-            verify(filterChain, never()).doFilter(request, response);
-            assertTrue(stringWriter.toString().contains("Invalid JWT."));
-        }
+        // Assert
+        verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
+        verify(filterChain, never()).doFilter(request, response);
+        assertTrue(stringWriter.toString().contains("Invalid JWT."));
+        assertEquals(1, meterRegistry.get("booking.jwt.verify").tag("result", "revoked").timer().count());
     }
 
     @Test
@@ -191,7 +194,7 @@ class JwtAuthenticationFilterTest {
         // Arrange
         when(request.getRequestURI()).thenReturn(AUTH_URI);
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(tokenProvider.getUsernameFromToken(TEST_TOKEN)).thenThrow(new RuntimeException("Token parsing error"));
+        when(tokenProvider.verify(TEST_TOKEN)).thenThrow(new RuntimeException("Token parsing error"));
 
         // Act
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -207,23 +210,20 @@ class JwtAuthenticationFilterTest {
         // Arrange
         when(request.getRequestURI()).thenReturn(AUTH_URI);
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(tokenProvider.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USERNAME);
-        when(tokenProvider.validateToken(TEST_TOKEN)).thenReturn(true);
+        when(tokenProvider.verify(TEST_TOKEN)).thenReturn(new VerifiedJwt(TEST_USERNAME, FUTURE));
         when(customUserDetailsService.loadUserByUsername(TEST_USERNAME))
             .thenThrow(new RuntimeException("User service error"));
-        
-        try (MockedStatic<JWTSingleton> mockedSingleton = mockStatic(JWTSingleton.class)) {
-            mockedSingleton.when(JWTSingleton::getInstance).thenReturn(jwtSingleton);
-            when(jwtSingleton.checkJWTexist(TEST_USERNAME, TEST_TOKEN)).thenReturn(false);
+        when(tokenRevocationStore.isRevoked(TEST_TOKEN)).thenReturn(false);
 
-            // Act
-            jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        // Act
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-            // Assert
-            verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
-            verify(filterChain, never()).doFilter(request, response);
-            assertTrue(stringWriter.toString().contains("Invalid JWT."));
-        }
+        // Assert
+        verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
+        verify(filterChain, never()).doFilter(request, response);
+        assertTrue(stringWriter.toString().contains("Invalid JWT."));
+        // The token itself verified before the user lookup failed
+        assertEquals(1, meterRegistry.get("booking.jwt.verify").tag("result", "valid").timer().count());
     }
 
     @Test
@@ -239,7 +239,7 @@ class JwtAuthenticationFilterTest {
         verify(response).setStatus(HttpStatus.BAD_REQUEST.value());
         verify(filterChain, never()).doFilter(request, response);
         assertTrue(stringWriter.toString().contains("JWT token missing."));
-        verify(tokenProvider, never()).validateToken(any());
+        verify(tokenProvider, never()).verify(any());
     }
 
     @Test
@@ -252,4 +252,69 @@ class JwtTokenProviderTest {
         assertTrue(isValid);
         assertEquals(TEST_USERNAME, extractedUsername);
     }
-}
\ No newline at end of file
+
+    @Test
+    void verify_ShouldReturnClaims_WhenTokenIsValid() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(TEST_USERNAME);
+
+        // Act
+        VerifiedJwt verified = jwtTokenProvider.verify(token);
+
+        // Assert
+        assertNotNull(verified);
+        assertEquals(TEST_USERNAME, verified.getSubject());
+        assertTrue(verified.getExpiration().after(new Date()));
+    }
+
+    @Test
+    void verify_ShouldReturnNull_WhenTokenIsNullEmptyOrMalformed() {
+        assertNull(jwtTokenProvider.verify(null));
+        assertNull(jwtTokenProvider.verify(""));
+        assertNull(jwtTokenProvider.verify("invalid.token.format"));
+    }
+
+    @Test
+    void verify_ShouldServeRepeatTokenFromCache() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(TEST_USERNAME);
+        VerifiedJwt first = jwtTokenProvider.verify(token);
+
+        // Act - a different secret would fail a real re-verification
+        ReflectionTestUtils.setField(jwtTokenProvider, "signingKey", null);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "anotherSecret");
+        VerifiedJwt second = jwtTokenProvider.verify(token);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_ShouldNotCacheRejectedTokens() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(TEST_USERNAME);
+        ReflectionTestUtils.setField(jwtTokenProvider, "signingKey", null);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "anotherSecret");
+        assertNull(jwtTokenProvider.verify(token));
+
+        // Act - restore the issuing secret
+        ReflectionTestUtils.setField(jwtTokenProvider, "signingKey", null);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", TEST_SECRET);
+
+        // Assert
+        assertNotNull(jwtTokenProvider.verify(token));
+    }
+
+    @Test
+    void verify_ShouldAcceptTokensSignedWithBase64EncodedSecret() {
+        // Arrange - tokens issued before the signing key was precomputed
+        String legacyToken = Jwts.builder()
+                .setSubject(TEST_USERNAME)
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(SignatureAlgorithm.HS512, Base64.getEncoder().encodeToString(TEST_SECRET.getBytes()))
+                .compact();
+
+        // Act & Assert
+        assertEquals(TEST_USERNAME, jwtTokenProvider.verify(legacyToken).getSubject());
+    }
+}
@@ -0,0 +1,246 @@
+package com.swl.booking.system.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+/**
+ * Test class for TokenRevocationStore
+ * Tests local expiry-aligned revocation and the Redis mode with Bloom pre-check
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationStoreTest {
+
+    private static final String PREFIX = "booking:jwt";
+    private static final String TOKEN = "header.payload.signature";
+    private static final String OTHER_TOKEN = "header.payload.other";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private Date future;
+
+    @BeforeEach
+    void setUp() {
+        future = new Date(System.currentTimeMillis() + 3600000);
+    }
+
+    private TokenRevocationStore localStore() {
+        return new TokenRevocationStore(stringRedisTemplate, false, PREFIX, 1000, 0.01);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cursor<String> scanCursor(String... revokedTokens) {
+        Iterator<String> keys = Arrays.stream(revokedTokens)
+                .map(token -> PREFIX + ":revoked:" + JwtTokenProvider.digest(token))
+                .iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(inv -> keys.hasNext());
+        lenient().when(cursor.next()).thenAnswer(inv -> keys.next());
+        return cursor;
+    }
+
+    private TokenRevocationStore redisStore(String... revokedTokens) {
+        Cursor<String> cursor = scanCursor(revokedTokens);
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        TokenRevocationStore store = new TokenRevocationStore(stringRedisTemplate, true, PREFIX, 1000, 0.01);
+        store.loadBloomFilter();
+        return store;
+    }
+
+    private static DefaultMessage revocationMessage(String digest) {
+        return new DefaultMessage((PREFIX + ":revocations").getBytes(StandardCharsets.UTF_8),
+                digest.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void localMode_RevokedTokenIsRejectedUntilExpiry() {
+        // Given
+        TokenRevocationStore store = localStore();
+
+        // When
+        store.revoke(TOKEN, future);
+
+        // Then
+        assertTrue(store.isRevoked(TOKEN));
+        assertFalse(store.isRevoked(OTHER_TOKEN));
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void localMode_IgnoresAlreadyExpiredTokens() {
+        // Given
+        TokenRevocationStore store = localStore();
+
+        // When
+        store.revoke(TOKEN, new Date(System.currentTimeMillis() - 1000));
+
+        // Then
+        assertFalse(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void localMode_PurgeDropsExpiredEntries() throws InterruptedException {
+        // Given
+        TokenRevocationStore store = localStore();
+        store.revoke(TOKEN, new Date(System.currentTimeMillis() + 50));
+        store.revoke(OTHER_TOKEN, future);
+
+        // When
+        Thread.sleep(100);
+        int removed = store.purgeExpired();
+
+        // Then
+        assertEquals(1, removed);
+        assertFalse(store.isRevoked(TOKEN));
+        assertTrue(store.isRevoked(OTHER_TOKEN));
+    }
+
+    @Test
+    void redisMode_RevokeWritesExpiringKeyAndPublishes() {
+        // Given
+        TokenRevocationStore store = redisStore();
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        String key = PREFIX + ":revoked:" + JwtTokenProvider.digest(TOKEN);
+
+        // When
+        store.revoke(TOKEN, future);
+
+        // Then
+        verify(valueOperations).set(eq(key), eq("1"), longThat(ttl -> ttl > 0 && ttl <= 3600000), eq(TimeUnit.MILLISECONDS));
+        verify(stringRedisTemplate).convertAndSend(PREFIX + ":revocations", JwtTokenProvider.digest(TOKEN));
+    }
+
+    @Test
+    void redisMode_BloomMissSkipsRedisLookup() {
+        // Given
+        TokenRevocationStore store = redisStore();
+
+        // When & Then
+        assertFalse(store.isRevoked(TOKEN));
+        verify(stringRedisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    void redisMode_SeededFromScanAndConfirmedInRedis() {
+        // Given
+        TokenRevocationStore store = redisStore(TOKEN);
+        when(stringRedisTemplate.hasKey(PREFIX + ":revoked:" + JwtTokenProvider.digest(TOKEN))).thenReturn(true);
+
+        // When & Then
+        assertTrue(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void redisMode_BroadcastRevocationReachesBloomFilter() {
+        // Given
+        TokenRevocationStore store = redisStore();
+        String digest = JwtTokenProvider.digest(TOKEN);
+        when(stringRedisTemplate.hasKey(PREFIX + ":revoked:" + digest)).thenReturn(true);
+
+        // When
+        store.onMessage(revocationMessage(digest), null);
+
+        // Then
+        assertTrue(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void redisMode_FailsClosedOnBloomHitWhenRedisDown() {
+        // Given
+        TokenRevocationStore store = redisStore(TOKEN);
+        when(stringRedisTemplate.hasKey(anyString())).thenThrow(new RuntimeException("Redis down"));
+
+        // When & Then
+        assertTrue(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void redisMode_IgnoresMalformedMessage() {
+        // Given
+        TokenRevocationStore store = redisStore();
+
+        // When & Then
+        assertDoesNotThrow(() -> store.onMessage(new DefaultMessage(new byte[0],
+                "not base64 !".getBytes(StandardCharsets.UTF_8)), null));
+    }
+
+    @Test
+    void redisMode_RebuildFailureKeepsExistingFilter() {
+        // Given
+        TokenRevocationStore store = redisStore(TOKEN);
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenThrow(new RuntimeException("Redis down"));
+        when(stringRedisTemplate.hasKey(anyString())).thenReturn(true);
+
+        // When
+        store.maintain();
+
+        // Then
+        assertTrue(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void redisMode_ConstructionDoesNotTouchRedis() {
+        // When
+        new TokenRevocationStore(stringRedisTemplate, true, PREFIX, 1000, 0.01);
+
+        // Then
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void redisMode_StartupLoadFailure_ChecksRedisUntilRebuilt() {
+        // Given
+        TokenRevocationStore store = new TokenRevocationStore(stringRedisTemplate, true, PREFIX, 1000, 0.01);
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenThrow(new RuntimeException("Redis down"));
+        when(stringRedisTemplate.hasKey(PREFIX + ":revoked:" + JwtTokenProvider.digest(TOKEN))).thenReturn(true);
+
+        // When
+        assertDoesNotThrow(store::loadBloomFilter);
+
+        // Then - the empty filter is not trusted, so a revocation made elsewhere still counts
+        assertTrue(store.isRevoked(TOKEN));
+    }
+
+    @Test
+    void redisMode_RevocationDuringRebuild_SurvivesSwap() {
+        // Given
+        TokenRevocationStore store = redisStore();
+        String digest = JwtTokenProvider.digest(TOKEN);
+        @SuppressWarnings("unchecked")
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(inv -> {
+            // Broadcast lands while the SCAN is running, after it would have seen the key
+            store.onMessage(revocationMessage(digest), null);
+            return false;
+        });
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(stringRedisTemplate.hasKey(PREFIX + ":revoked:" + digest)).thenReturn(true);
+
+        // When
+        store.maintain();
+
+        // Then
+        assertTrue(store.isRevoked(TOKEN));
+    }
+}
@@ -0,0 +1,107 @@
+package com.swl.booking.system.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Test class for UserPrincipalCache
+ * Tests load-on-miss, hits and eviction hooks
+ */
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    private static final String EMAIL = "test@example.com";
+
+    @Mock
+    private Function<String, UserDetails> loader;
+
+    private UserPrincipalCache userPrincipalCache;
+
+    private UserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        userPrincipalCache = new UserPrincipalCache(100, 60);
+        principal = new UserPrincipal(1L, EMAIL, "password", "org", false, Collections.emptyList());
+    }
+
+    @Test
+    void get_LoadsOnceAndServesFromCache() {
+        // Given
+        when(loader.apply(EMAIL)).thenReturn(principal);
+
+        // When
+        UserDetails first = userPrincipalCache.get(EMAIL, loader);
+        UserDetails second = userPrincipalCache.get(EMAIL, loader);
+
+        // Then
+        assertSame(principal, first);
+        assertSame(principal, second);
+        verify(loader, times(1)).apply(EMAIL);
+    }
+
+    @Test
+    void get_DoesNotCacheFailures() {
+        // Given
+        when(loader.apply(EMAIL)).thenThrow(new UsernameNotFoundException("User Not Found")).thenReturn(principal);
+
+        // When & Then
+        assertThrows(UsernameNotFoundException.class, () -> userPrincipalCache.get(EMAIL, loader));
+        assertSame(principal, userPrincipalCache.get(EMAIL, loader));
+    }
+
+    @Test
+    void evict_ForcesReload() {
+        // Given
+        when(loader.apply(EMAIL)).thenReturn(principal);
+        userPrincipalCache.get(EMAIL, loader);
+
+        // When
+        userPrincipalCache.evict(EMAIL);
+        userPrincipalCache.get(EMAIL, loader);
+
+        // Then
+        verify(loader, times(2)).apply(EMAIL);
+    }
+
+    @Test
+    void evictById_ForcesReload() {
+        // Given
+        when(loader.apply(EMAIL)).thenReturn(principal);
+        userPrincipalCache.get(EMAIL, loader);
+
+        // When
+        userPrincipalCache.evictById(2L);
+        userPrincipalCache.get(EMAIL, loader);
+        userPrincipalCache.evictById(1L);
+        userPrincipalCache.get(EMAIL, loader);
+
+        // Then - only the matching id is evicted
+        verify(loader, times(2)).apply(EMAIL);
+    }
+
+    @Test
+    void evictAll_ForcesReload() {
+        // Given
+        when(loader.apply(EMAIL)).thenReturn(principal);
+        userPrincipalCache.get(EMAIL, loader);
+
+        // When
+        userPrincipalCache.evictAll();
+        userPrincipalCache.get(EMAIL, loader);
+
+        // Then
+        verify(loader, times(2)).apply(EMAIL);
+    }
+}
@@ -0,0 +1,104 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookResponse;
+
+/**
+ * Test class for AvailableBooksResponseCache
+ * Tests per-version snapshot reuse, the gzip body and ETag matching
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailableBooksResponseCacheTest {
+
+    @Mock
+    private RedisBookCacheService redisBookCacheService;
+
+    @Mock
+    private BookService bookService;
+
+    private ObjectMapper objectMapper;
+
+    private AvailableBooksResponseCache responseCache;
+
+    private BookListResponse response;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        responseCache = new AvailableBooksResponseCache(redisBookCacheService, bookService, objectMapper);
+        Date now = new Date();
+        response = new BookListResponse(Arrays.asList(
+                new BookResponse(1L, "9781234567890", "Test Book", "Test Author", true, 2, 1, now, now)));
+    }
+
+    @Test
+    void getSnapshot_SerializesOncePerVersion() throws Exception {
+        // Given
+        when(bookService.getAvailableBooksResponse(true)).thenReturn(response);
+
+        // When
+        AvailableBooksResponseCache.Snapshot first = responseCache.getSnapshot("0-3");
+        AvailableBooksResponseCache.Snapshot second = responseCache.getSnapshot("0-3");
+
+        // Then - built from Redis, bypassing the node-local cache
+        assertSame(first, second);
+        verify(bookService, times(1)).getAvailableBooksResponse(true);
+        assertArrayEquals(objectMapper.writeValueAsBytes(response), first.json());
+    }
+
+    @Test
+    void getSnapshot_RebuildsWhenVersionMoves() {
+        // Given
+        when(bookService.getAvailableBooksResponse(true)).thenReturn(response);
+
+        // When
+        responseCache.getSnapshot("0-3");
+        AvailableBooksResponseCache.Snapshot next = responseCache.getSnapshot("0-4");
+
+        // Then
+        assertEquals("0-4", next.version());
+        verify(bookService, times(2)).getAvailableBooksResponse(true);
+    }
+
+    @Test
+    void getSnapshot_GzipBodyInflatesToJson() throws Exception {
+        // Given
+        when(bookService.getAvailableBooksResponse(true)).thenReturn(response);
+
+        // When
+        AvailableBooksResponseCache.Snapshot snapshot = responseCache.getSnapshot("0-3");
+
+        // Then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip()))) {
+            assertArrayEquals(snapshot.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void matches_AcceptsEitherRepresentationAndWeakTags() {
+        // When & Then
+        assertEquals("\"0-3\"", AvailableBooksResponseCache.etag("0-3", false));
+        assertEquals("\"0-3-gzip\"", AvailableBooksResponseCache.etag("0-3", true));
+        assertTrue(AvailableBooksResponseCache.matches("\"0-3\"", "0-3"));
+        assertTrue(AvailableBooksResponseCache.matches("\"0-2\", W/\"0-3-gzip\"", "0-3"));
+        assertTrue(AvailableBooksResponseCache.matches("*", "0-3"));
+        assertFalse(AvailableBooksResponseCache.matches("\"0-2\"", "0-3"));
+        assertFalse(AvailableBooksResponseCache.matches("\"1-3\"", "0-3"));
+        assertFalse(AvailableBooksResponseCache.matches(null, "0-3"));
+    }
+}
@@ -0,0 +1,232 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test class for BookAvailabilityStream
+ * Tests Redis fan-out, coalescing of changes per flush, per-client ordering and removal of dead
+ * or lagging subscribers
+ */
+@ExtendWith(MockitoExtension.class)
+class BookAvailabilityStreamTest {
+
+    private static final String CHANNEL = "booking:book:availability";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    private BookAvailabilityStream bookAvailabilityStream;
+
+    // Drain tasks wait here until the test runs them
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+    @BeforeEach
+    void setUp() {
+        bookAvailabilityStream = new BookAvailabilityStream(stringRedisTemplate, new ObjectMapper(), bookSearchIndex, tasks::add,
+                "booking:book", 60_000, 3, 2);
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * Emitter that records what it is sent, or fails like a client that went away
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> sent = new ArrayList<>();
+        private final boolean broken;
+        private boolean completed;
+
+        RecordingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder.build().stream().map(data -> String.valueOf(data.getData())).collect(Collectors.joining()));
+        }
+    }
+
+    private void receive(String body) {
+        bookAvailabilityStream.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    @Test
+    void publish_SendsCompactMessageThroughRedis() {
+        // When
+        bookAvailabilityStream.publish(42L, 3, new Date(1_700_000_000_000L));
+        bookAvailabilityStream.publish(43L, 0, null);
+
+        // Then
+        verify(stringRedisTemplate).convertAndSend(CHANNEL, "42:3:1700000000000");
+        verify(stringRedisTemplate).convertAndSend(CHANNEL, "43:0");
+    }
+
+    @Test
+    void onMessage_AppliesCountToSearchIndex() {
+        // When - a current message and one from a node that does not send the updated time
+        receive("42:3:1700000000000");
+        receive("43:0");
+        receive("garbage");
+
+        // Then
+        verify(bookSearchIndex).updateAvailability(42L, 3, new Date(1_700_000_000_000L));
+        verify(bookSearchIndex).updateAvailability(43L, 0, null);
+        verifyNoMoreInteractions(bookSearchIndex);
+    }
+
+    @Test
+    void flush_SendsLatestCountPerBookAsOneEvent() {
+        // Given
+        RecordingEmitter first = new RecordingEmitter(false);
+        RecordingEmitter second = new RecordingEmitter(false);
+        bookAvailabilityStream.register(first);
+        bookAvailabilityStream.register(second);
+        receive("1:2");
+        receive("5:0");
+        receive("1:1");
+        receive("garbage");
+
+        // When
+        bookAvailabilityStream.flush();
+        bookAvailabilityStream.flush();
+        runTasks();
+
+        // Then - one event each, nothing left for the second flush
+        assertEquals(1, first.sent.size());
+        String event = first.sent.get(0);
+        assertTrue(event.contains("event:availability"));
+        assertTrue(event.contains("{\"bookId\":1,\"available\":1}"));
+        assertTrue(event.contains("{\"bookId\":5,\"available\":0}"));
+        assertFalse(event.contains("\"available\":2"));
+        assertEquals(first.sent, second.sent);
+    }
+
+    @Test
+    void flush_KeepsEachClientsEventsInOrder() {
+        // Given - the first event is still waiting to be sent when the second is flushed
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        bookAvailabilityStream.register(emitter);
+        receive("1:0");
+        bookAvailabilityStream.flush();
+        receive("1:1");
+        bookAvailabilityStream.flush();
+
+        // When
+        assertEquals(1, tasks.size());
+        runTasks();
+
+        // Then - one drain task per client sends the older count first
+        assertEquals(2, emitter.sent.size());
+        assertTrue(emitter.sent.get(0).contains("\"available\":0"));
+        assertTrue(emitter.sent.get(1).contains("\"available\":1"));
+    }
+
+    @Test
+    void flush_DropsClientThatFellBehind_WithoutWaitingForIt() {
+        // Given - nothing is drained, so the client never reads
+        RecordingEmitter stuck = new RecordingEmitter(false);
+        bookAvailabilityStream.register(stuck);
+
+        // When - a third event does not fit in the queue of two
+        for (int i = 0; i < 3; i++) {
+            receive("1:" + i);
+            bookAvailabilityStream.flush();
+        }
+
+        // Then
+        assertEquals(0, bookAvailabilityStream.subscriberCount());
+        runTasks();
+        assertTrue(stuck.completed);
+        assertTrue(stuck.sent.isEmpty());
+    }
+
+    @Test
+    void flush_DropsSubscribersThatCannotBeReached() {
+        // Given
+        RecordingEmitter alive = new RecordingEmitter(false);
+        bookAvailabilityStream.register(alive);
+        bookAvailabilityStream.register(new RecordingEmitter(true));
+        bookAvailabilityStream.register(new RecordingEmitter(false));
+        receive("1:0");
+
+        // When
+        bookAvailabilityStream.flush();
+        runTasks();
+
+        // Then
+        assertEquals(1, alive.sent.size());
+        assertEquals(2, bookAvailabilityStream.subscriberCount());
+    }
+
+    @Test
+    void publish_DeliversLocally_WhenRedisIsDown() {
+        // Given
+        doThrow(new RuntimeException("Redis down")).when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        bookAvailabilityStream.register(emitter);
+
+        // When
+        bookAvailabilityStream.publish(7L, 1, new Date());
+        bookAvailabilityStream.flush();
+        runTasks();
+
+        // Then
+        assertTrue(emitter.sent.get(0).contains("{\"bookId\":7,\"available\":1}"));
+    }
+
+    @Test
+    void subscribe_RefusesStreams_WhenNodeIsFull() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(bookAvailabilityStream.subscribe());
+        }
+
+        // When & Then
+        assertNull(bookAvailabilityStream.subscribe());
+        assertEquals(3, bookAvailabilityStream.subscriberCount());
+    }
+}
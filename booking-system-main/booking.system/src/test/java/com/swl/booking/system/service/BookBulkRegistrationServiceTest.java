@@ -0,0 +1,206 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swl.booking.system.exception.ResponseInfoException;
+import com.swl.booking.system.response.book.BulkRegisterResponse;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Test class for BookBulkRegistrationService and BookFeedReader
+ * Tests feed parsing, per-chunk deduplication, batched inserts and rejection reporting
+ */
+@ExtendWith(MockitoExtension.class)
+class BookBulkRegistrationServiceTest {
+
+    private static ValidatorFactory validatorFactory;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private RedisBookCacheService redisBookCacheService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Mock
+    private AsyncTaskExecutor cacheTaskExecutor;
+
+    private BookBulkRegistrationService bookBulkRegistrationService;
+
+    // ISBNs of each batch handed to JDBC
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        bookBulkRegistrationService = new BookBulkRegistrationService(jdbcTemplate, namedParameterJdbcTemplate,
+                TransactionOperations.withoutTransaction(), validatorFactory.getValidator(), redisBookCacheService,
+                bookSearchIndex, bookSuggestIndex, cacheTaskExecutor, 2, 1);
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    Collection<BookFeedReader.Row> rows = invocation.getArgument(1);
+                    batches.add(rows.stream().map(row -> row.request().getIsbn()).collect(Collectors.toList()));
+                    return new int[][] { new int[rows.size()] };
+                });
+    }
+
+    private static BookFeedReader csv(String text) throws IOException {
+        return BookFeedReader.csv(new StringReader(text));
+    }
+
+    @Test
+    void registerBooks_InsertsEachChunkAsOneBatch() throws IOException {
+        // Given
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of());
+        BookFeedReader feed = csv("isbn,title,author,quantity\n"
+                + "9780000000001,First,Author A,3\n"
+                + "9780000000002,\"Second, Revised\",Author B,\n"
+                + "9780000000003,Third,Author C,1\n");
+
+        // When
+        BulkRegisterResponse response = bookBulkRegistrationService.registerBooks(feed);
+
+        // Then
+        assertEquals(3, response.getReceived());
+        assertEquals(3, response.getInserted());
+        assertEquals(0, response.getRejected());
+        assertEquals(List.of(List.of("9780000000001", "9780000000002"), List.of("9780000000003")), batches);
+        assertEquals(2, response.getChunks().size());
+        assertEquals(2, response.getChunks().get(0).getInserted());
+        assertTrue(response.getChunks().get(1).getRowsPerSecond() > 0);
+        verify(namedParameterJdbcTemplate, times(2)).queryForList(anyString(), anyMap(), eq(String.class));
+        verify(redisBookCacheService).invalidateAvailableBooksCache();
+        verify(cacheTaskExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerBooks_RejectsInvalidDuplicateAndExistingRows() throws IOException {
+        // Given - the table already has 978000000000X, in a different case
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    List<String> isbns = (List<String>) invocation.<Map<String, Object>>getArgument(1).get("isbns");
+                    return isbns.contains("978000000000x") ? List.of("978000000000X") : List.of();
+                });
+        BookFeedReader feed = csv("isbn,title,author,quantity\n"
+                + "9780000000001,First,Author A,1\n"
+                + "9780000000001,Again,Author A,1\n"
+                + "978000000000x,Existing,Author B,1\n"
+                + "123,Short,Author C,0\n"
+                + "9780000000005,Bad quantity,Author D,many\n");
+
+        // When
+        BulkRegisterResponse response = bookBulkRegistrationService.registerBooks(feed);
+
+        // Then - only the first row goes in; the report keeps one rejection but counts all four
+        assertEquals(5, response.getReceived());
+        assertEquals(1, response.getInserted());
+        assertEquals(4, response.getRejected());
+        assertEquals(List.of(List.of("9780000000001")), batches);
+        assertEquals(1, response.getRejectedRows().size());
+        assertEquals(2, response.getRejectedRows().get(0).getRow());
+        assertEquals("Duplicate ISBN earlier in the feed", response.getRejectedRows().get(0).getReason());
+        assertEquals(List.of(1, 2, 1), response.getChunks().stream()
+                .map(BulkRegisterResponse.ChunkResult::getRejected).collect(Collectors.toList()));
+    }
+
+    @Test
+    void registerBooks_FallsBackToSingleRows_WhenBatchHitsDuplicateKey() throws IOException {
+        // Given - another writer registers ...002 between the check and the insert
+        when(namedParameterJdbcTemplate.queryForList(anyString(), anyMap(), eq(String.class))).thenReturn(List.of());
+        doAnswer(invocation -> {
+            Collection<BookFeedReader.Row> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row.request().getIsbn().equals("9780000000002"))) {
+                throw new DuplicateKeyException("Duplicate entry");
+            }
+            batches.add(rows.stream().map(row -> row.request().getIsbn()).collect(Collectors.toList()));
+            return new int[][] { new int[rows.size()] };
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        BookFeedReader feed = csv("isbn,title,author\n9780000000001,First,Author A\n9780000000002,Second,Author B\n");
+
+        // When
+        BulkRegisterResponse response = bookBulkRegistrationService.registerBooks(feed);
+
+        // Then
+        assertEquals(1, response.getInserted());
+        assertEquals(1, response.getRejected());
+        assertEquals(List.of(List.of("9780000000001")), batches);
+        assertEquals("Book with ISBN 9780000000002 already exists", response.getRejectedRows().get(0).getReason());
+    }
+
+    @Test
+    void registerBooks_SkipsCacheRefresh_WhenNothingInserted() throws IOException {
+        // Given
+        BookFeedReader feed = BookFeedReader.ndjson(new StringReader("{not json}\n\n{\"isbn\":\"9780000000001\"}\n"),
+                new ObjectMapper());
+
+        // When
+        BulkRegisterResponse response = bookBulkRegistrationService.registerBooks(feed);
+
+        // Then - the blank line is skipped but still counted for row numbers
+        assertEquals(2, response.getRejected());
+        assertTrue(response.getRejectedRows().get(0).getReason().startsWith("Malformed JSON"));
+        verifyNoInteractions(jdbcTemplate, namedParameterJdbcTemplate, redisBookCacheService, cacheTaskExecutor);
+    }
+
+    @Test
+    void csv_ParsesQuotedFieldsAndRequiresHeader() throws IOException {
+        // Given
+        BookFeedReader feed = csv("Author,ISBN,Title\r\n\"Doe, \"\"JD\"\" Jane\",9780000000001,\"Two\nLines\"\r\n");
+
+        // When
+        BookFeedReader.Row row = feed.read();
+
+        // Then
+        assertEquals(1, row.number());
+        assertEquals("Doe, \"JD\" Jane", row.request().getAuthor());
+        assertEquals("Two\nLines", row.request().getTitle());
+        assertNull(row.request().getQuantity());
+        assertNull(feed.read());
+        assertThrows(ResponseInfoException.class, () -> csv("isbn,name\n"));
+        assertThrows(ResponseInfoException.class, () -> csv(""));
+    }
+}
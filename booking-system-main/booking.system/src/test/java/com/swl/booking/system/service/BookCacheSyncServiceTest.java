@@ -0,0 +1,196 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.entity.CacheOutboxEvent;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.repository.CacheOutboxRepository;
+
+/**
+ * Test class for BookCacheSyncService
+ * Tests outbox recording, batched after-commit application and replay of pending rows
+ */
+@ExtendWith(MockitoExtension.class)
+class BookCacheSyncServiceTest {
+
+    @Mock
+    private CacheOutboxRepository cacheOutboxRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private RedisBookCacheService redisBookCacheService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookSuggestIndex bookSuggestIndex;
+
+    @Mock
+    private BookAvailabilityStream bookAvailabilityStream;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BookCacheSyncService bookCacheSyncService;
+
+    private Book testBook;
+
+    @BeforeEach
+    void setUp() {
+        bookCacheSyncService = new BookCacheSyncService(cacheOutboxRepository, bookRepository, redisBookCacheService,
+                bookSearchIndex, bookSuggestIndex, bookAvailabilityStream, eventPublisher, 10000, 2);
+        testBook = new Book();
+        testBook.setId(1L);
+        testBook.setIsbn("9781234567890");
+        testBook.setTitle("Test Book");
+        testBook.setAuthor("Test Author");
+        testBook.setAvailable(true);
+        testBook.setAvailableQuantity(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookCacheSyncService.shutdown();
+    }
+
+    @Test
+    void record_SavesRowAndPublishesIt() {
+        // Given
+        CacheOutboxEvent saved = event(5L, CacheOutboxEvent.Type.BOOK, 1L);
+        when(cacheOutboxRepository.save(any(CacheOutboxEvent.class))).thenReturn(saved);
+
+        // When
+        bookCacheSyncService.record(CacheOutboxEvent.Type.BOOK, 1L);
+
+        // Then
+        verify(cacheOutboxRepository).save(argThat(row ->
+                row.getType() == CacheOutboxEvent.Type.BOOK && row.getTargetId().equals(1L) && row.getCreatedTime() != null));
+        verify(eventPublisher).publishEvent(saved);
+        verifyNoInteractions(redisBookCacheService);
+    }
+
+    @Test
+    void apply_CoalescesDuplicatesAndDeletesAllRows() {
+        // Given - two commits touched the same book
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        List<CacheOutboxEvent> events = List.of(
+                event(1L, CacheOutboxEvent.Type.BOOK, 1L),
+                event(2L, CacheOutboxEvent.Type.BORROWED_BOOKS, 7L),
+                event(3L, CacheOutboxEvent.Type.BOOK, 1L));
+
+        // When
+        int deleted = bookCacheSyncService.apply(events);
+
+        // Then
+        assertEquals(3, deleted);
+        verify(bookRepository, times(1)).findById(1L);
+        verify(redisBookCacheService, times(1)).applyAvailabilityChange(argThat(book -> book.getId().equals(1L)));
+        verify(bookSearchIndex, times(1)).put(argThat(book -> book.getId().equals(1L)));
+        verify(bookSuggestIndex, times(1)).put(argThat(book -> book.getId().equals(1L)));
+        verify(bookAvailabilityStream, times(1)).publish(1L, 3, testBook.getUpdatedTime());
+        verify(redisBookCacheService).invalidateBookDetailCache(1L);
+        verify(redisBookCacheService).invalidateUserBorrowedBooksCache(7L);
+        verify(cacheOutboxRepository).deleteAllByIdInBatch(List.of(1L, 3L, 2L));
+    }
+
+    @Test
+    void apply_DropsAvailableSet_WhenBookVanished() {
+        // Given
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        bookCacheSyncService.apply(List.of(event(1L, CacheOutboxEvent.Type.BOOK, 1L)));
+
+        // Then
+        verify(redisBookCacheService).invalidateAvailableBooksCache();
+        verify(redisBookCacheService, never()).applyAvailabilityChange(any());
+        verify(bookSearchIndex).remove(1L);
+    }
+
+    @Test
+    void apply_KeepsRow_WhenChangeFails() {
+        // Given
+        when(bookRepository.findById(1L)).thenThrow(new RuntimeException("Database down"));
+
+        // When
+        int deleted = bookCacheSyncService.apply(List.of(
+                event(1L, CacheOutboxEvent.Type.BOOK, 1L),
+                event(2L, CacheOutboxEvent.Type.BORROWED_BOOKS, 7L)));
+
+        // Then - only the applied row is deleted; the other waits for the relay
+        assertEquals(1, deleted);
+        verify(cacheOutboxRepository).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void onCommitted_AppliesInBackground() {
+        // When
+        bookCacheSyncService.onCommitted(event(1L, CacheOutboxEvent.Type.BORROWED_BOOKS, 7L));
+
+        // Then
+        verify(redisBookCacheService, timeout(5000)).invalidateUserBorrowedBooksCache(7L);
+        verify(cacheOutboxRepository, timeout(5000)).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relayPending_ReplaysUntilOutboxIsDrained() {
+        // Given - a full page, then a partial one
+        List<CacheOutboxEvent> firstPage = borrowedEvents(1, 2);
+        List<CacheOutboxEvent> secondPage = borrowedEvents(3, 3);
+        when(cacheOutboxRepository.findByCreatedTimeBeforeOrderByIdAsc(any(Date.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(firstPage, secondPage);
+
+        // When
+        bookCacheSyncService.relayPending();
+
+        // Then
+        verify(cacheOutboxRepository, times(2)).findByCreatedTimeBeforeOrderByIdAsc(any(Date.class), any());
+        verify(cacheOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(cacheOutboxRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void relayPending_SwallowsDatabaseFailure() {
+        // Given
+        when(cacheOutboxRepository.findByCreatedTimeBeforeOrderByIdAsc(any(Date.class), any()))
+                .thenThrow(new RuntimeException("Database down"));
+
+        // When & Then
+        assertDoesNotThrow(() -> bookCacheSyncService.relayPending());
+        verifyNoInteractions(redisBookCacheService);
+    }
+
+    private static List<CacheOutboxEvent> borrowedEvents(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> event(id, CacheOutboxEvent.Type.BORROWED_BOOKS, id))
+                .collect(Collectors.toList());
+    }
+
+    private static CacheOutboxEvent event(Long id, CacheOutboxEvent.Type type, Long targetId) {
+        CacheOutboxEvent event = new CacheOutboxEvent(type, targetId);
+        event.setId(id);
+        event.setCreatedTime(new Date());
+        return event;
+    }
+}
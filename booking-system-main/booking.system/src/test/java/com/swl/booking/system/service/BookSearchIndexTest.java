@@ -0,0 +1,313 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.response.book.BookResponse;
+
+/**
+ * Test class for BookSearchIndex
+ * Tests loading, ranking, filters and incremental updates
+ */
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AsyncTaskExecutor cacheTaskExecutor;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex = new BookSearchIndex(bookRepository, 2, cacheTaskExecutor);
+    }
+
+    private static Book book(long id, String isbn, String title, String author, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn(isbn);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setAvailable(available);
+        book.setUpdatedTime(new Date(1000));
+        return book;
+    }
+
+    private void loadCatalog(Book... books) {
+        List<Book> catalog = Arrays.asList(books);
+        lenient().when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<PageRequest>getArgument(1).getPageSize();
+            return catalog.stream().filter(book -> book.getId() > afterId).limit(size).collect(Collectors.toList());
+        });
+        bookSearchIndex.rebuild();
+    }
+
+    private static List<Long> ids(List<BookResponse> books) {
+        return books.stream().map(BookResponse::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void rebuild_LoadsCatalogInKeysetPages() {
+        // Given
+        assertFalse(bookSearchIndex.isReady());
+
+        // When
+        loadCatalog(
+                book(1, "9780000000001", "Clean Code", "Robert Martin", true),
+                book(2, "9780000000002", "Refactoring", "Martin Fowler", true),
+                book(3, "9780000000003", "Domain-Driven Design", "Eric Evans", true));
+
+        // Then
+        assertTrue(bookSearchIndex.isReady());
+        assertEquals(3, bookSearchIndex.size());
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void search_RanksBooksMatchingMoreTermsFirst() {
+        // Given
+        loadCatalog(
+                book(1, "9780000000001", "Clean Code", "Robert Martin", true),
+                book(2, "9780000000002", "Refactoring", "Martin Fowler", true),
+                book(3, "9780000000003", "Clean Architecture", "Robert Martin", true),
+                book(4, "9780000000004", "The Pragmatic Programmer", "Andrew Hunt", true));
+
+        // When
+        List<BookResponse> results = bookSearchIndex.search("clean martin code", false, 10);
+
+        // Then - book 1 matches all three terms, book 3 two, book 2 one
+        assertEquals(List.of(1L, 3L, 2L), ids(results));
+    }
+
+    @Test
+    void search_PrefersTitleOverAuthorMatches() {
+        // Given
+        loadCatalog(
+                book(1, null, "Fowler on Patterns", "Someone Else", true),
+                book(2, null, "Refactoring", "Martin Fowler", true));
+
+        // When & Then
+        assertEquals(List.of(1L, 2L), ids(bookSearchIndex.search("fowler", false, 10)));
+    }
+
+    @Test
+    void search_FoldsCaseAndAccents() {
+        // Given
+        loadCatalog(book(1, null, "Cien años de soledad", "Gabriel García Márquez", true));
+
+        // When & Then
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("GARCIA anos", false, 10)));
+    }
+
+    @Test
+    void search_MatchesIsbnWithOrWithoutHyphens() {
+        // Given
+        loadCatalog(
+                book(1, "9781234567890", "Test Book", "Test Author", true),
+                book(2, "9780000000002", "Test Book Two", "Test Author", true));
+
+        // When & Then
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("978-1-234-56789-0", false, 10)));
+        assertEquals(1L, bookSearchIndex.search("test 9781234567890", false, 10).get(0).getId());
+    }
+
+    @Test
+    void search_FiltersUnavailableAndLimitsResults() {
+        // Given
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            books.add(book(id, null, "Java Volume " + id, "Author", id % 2 == 0));
+        }
+        loadCatalog(books.toArray(new Book[0]));
+
+        // When
+        List<BookResponse> available = bookSearchIndex.search("java", true, 3);
+
+        // Then - equal scores fall back to id order
+        assertEquals(List.of(2L, 4L, 6L), ids(available));
+        assertEquals(Collections.emptyList(), bookSearchIndex.search("python", false, 3));
+    }
+
+    @Test
+    void put_IndexesNewBookAndUpdatesAvailability() {
+        // Given
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", true));
+        BookResponse registered = new BookResponse(2L, null, "Clean Architecture", "Robert Martin", true, 1, 1,
+                new Date(2000), new Date(2000));
+
+        // When
+        bookSearchIndex.put(registered);
+        BookResponse borrowed = new BookResponse(2L, null, "Clean Architecture", "Robert Martin", false, 1, 0,
+                new Date(2000), new Date(3000));
+        bookSearchIndex.put(borrowed);
+
+        // Then
+        assertEquals(List.of(2L), ids(bookSearchIndex.search("architecture", false, 10)));
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("clean", true, 10)));
+    }
+
+    @Test
+    void put_IgnoresOlderCopy() {
+        // Given
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", false));
+        BookResponse older = new BookResponse(1L, null, "Clean Code", "Robert Martin", true, 1, 1,
+                new Date(0), new Date(500));
+
+        // When
+        bookSearchIndex.put(older);
+
+        // Then
+        assertFalse(bookSearchIndex.search("clean", false, 10).get(0).isAvailable());
+    }
+
+    @Test
+    void remove_DropsBookFromPostings() {
+        // Given
+        loadCatalog(
+                book(1, null, "Clean Code", "Robert Martin", true),
+                book(2, null, "Clean Architecture", "Robert Martin", true));
+
+        // When
+        bookSearchIndex.remove(1L);
+
+        // Then
+        assertEquals(List.of(2L), ids(bookSearchIndex.search("clean code", false, 10)));
+        assertEquals(1, bookSearchIndex.size());
+    }
+
+    @Test
+    void rebuild_KeepsOldIndex_WhenLoadFails() {
+        // Given
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", true));
+        doThrow(new RuntimeException("DB down")).when(bookRepository).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+
+        // When
+        bookSearchIndex.rebuild();
+
+        // Then
+        assertTrue(bookSearchIndex.isReady());
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("clean", false, 10)));
+    }
+
+    @Test
+    void updateAvailability_ChangesAvailableFilter() {
+        // Given - another node lends out book 1 and returns book 2
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", true),
+                book(2, null, "Clean Architecture", "Robert Martin", false));
+
+        // When
+        bookSearchIndex.updateAvailability(1L, 0, new Date(2000));
+        bookSearchIndex.updateAvailability(2L, 1, new Date(2000));
+
+        // Then
+        assertEquals(List.of(2L), ids(bookSearchIndex.search("clean", true, 10)));
+        BookResponse lent = bookSearchIndex.search("clean code", false, 1).get(0);
+        assertEquals(0, lent.getAvailableQuantity());
+        assertEquals("Clean Code", lent.getTitle());
+    }
+
+    @Test
+    void updateAvailability_IgnoresOlderChangeAndUnknownBook() {
+        // Given
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", true));
+
+        // When - updated before the indexed copy, and a book the index has not loaded
+        bookSearchIndex.updateAvailability(1L, 0, new Date(500));
+        bookSearchIndex.updateAvailability(9L, 1, new Date(2000));
+
+        // Then
+        assertEquals(List.of(1L), ids(bookSearchIndex.search("clean", true, 10)));
+        assertEquals(1, bookSearchIndex.size());
+    }
+
+    @Test
+    void updateAvailability_DuringRebuild_IsReplayedOntoNewIndex() {
+        // Given - the change lands while the rebuild reads the catalog
+        loadCatalog(book(1, null, "Clean Code", "Robert Martin", true));
+        doAnswer(invocation -> {
+            if (invocation.<Long>getArgument(0) > 0) {
+                return List.of();
+            }
+            bookSearchIndex.updateAvailability(1L, 0, new Date(2000));
+            return List.of(book(1, null, "Clean Code", "Robert Martin", true));
+        }).when(bookRepository).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+
+        // When
+        bookSearchIndex.rebuild();
+
+        // Then
+        assertTrue(bookSearchIndex.search("clean", true, 10).isEmpty());
+    }
+
+    @Test
+    void scheduleRebuild_QueuesRebuildOnCacheExecutor() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(cacheTaskExecutor).execute(any(Runnable.class));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of(book(1, null, "Clean Code", "Robert Martin", true)));
+
+        // When - the scheduler thread only queues the pass
+        bookSearchIndex.scheduleRebuild();
+
+        // Then
+        assertEquals(1, queued.size());
+        assertFalse(bookSearchIndex.isReady());
+        verifyNoInteractions(bookRepository);
+
+        queued.get(0).run();
+        assertTrue(bookSearchIndex.isReady());
+    }
+
+    @Test
+    void scheduleRebuild_SkipsPass_WhenExecutorRejects() {
+        // Given
+        doThrow(new TaskRejectedException("full")).when(cacheTaskExecutor).execute(any(Runnable.class));
+
+        // When & Then
+        assertDoesNotThrow(bookSearchIndex::scheduleRebuild);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void postingList_RoundTripsAndStaysCompact() {
+        // Given
+        long[] ids = new long[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 100_000 + i * 3L;
+        }
+
+        // When
+        PostingList postings = PostingList.of(ids, ids.length);
+
+        // Then - small gaps take one byte each
+        assertArrayEquals(ids, postings.toArray());
+        assertTrue(postings.sizeInBytes() < ids.length + 8);
+        assertArrayEquals(new long[] { 1, 5, 9 }, PostingList.of(new long[] { 1, 9 }, 2).with(5).toArray());
+        assertArrayEquals(new long[] { 1, 9 }, PostingList.of(new long[] { 1, 5, 9 }, 3).without(5).toArray());
+    }
+}
@@ -0,0 +1,254 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.repository.BookBorrowingRepository;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.response.book.BookSuggestionResponse;
+
+/**
+ * Test class for BookSuggestIndex and its SuggestTrie
+ * Tests prefix completion, popularity ranking and incremental updates
+ */
+@ExtendWith(MockitoExtension.class)
+class BookSuggestIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookBorrowingRepository bookBorrowingRepository;
+
+    @Mock
+    private AsyncTaskExecutor cacheTaskExecutor;
+
+    private BookSuggestIndex bookSuggestIndex;
+
+    private final List<BookBorrowingRepository.BorrowingCount> borrowingCounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        bookSuggestIndex = new BookSuggestIndex(bookRepository, bookBorrowingRepository, 2, cacheTaskExecutor);
+        lenient().when(bookBorrowingRepository.countBorrowingsByBook()).thenReturn(borrowingCounts);
+    }
+
+    private static Book book(long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+
+    private void borrowed(long bookId, long times) {
+        borrowingCounts.add(new BookBorrowingRepository.BorrowingCount() {
+            @Override
+            public Long getBookId() {
+                return bookId;
+            }
+
+            @Override
+            public long getBorrowings() {
+                return times;
+            }
+        });
+    }
+
+    private void loadCatalog(Book... books) {
+        List<Book> catalog = Arrays.asList(books);
+        lenient().when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<PageRequest>getArgument(1).getPageSize();
+            return catalog.stream().filter(book -> book.getId() > afterId).limit(size).collect(Collectors.toList());
+        });
+        bookSuggestIndex.rebuild();
+    }
+
+    private List<String> texts(String prefix, int limit) {
+        return bookSuggestIndex.suggest(prefix, limit).stream()
+                .map(BookSuggestionResponse::getText)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void suggest_CompletesTitlesAndAuthorsByPopularity() {
+        // Given
+        borrowed(2, 5);
+        borrowed(3, 9);
+        loadCatalog(
+                book(1, "Harry Potter and the Philosopher's Stone", "J. K. Rowling"),
+                book(2, "Harry Potter and the Chamber of Secrets", "J. K. Rowling"),
+                book(3, "Hamlet", "William Shakespeare"));
+
+        // When
+        List<BookSuggestionResponse> suggestions = bookSuggestIndex.suggest("Ha", 10);
+
+        // Then - Hamlet (10), Chamber of Secrets (6), Philosopher's Stone (1)
+        assertEquals(List.of("Hamlet", "Harry Potter and the Chamber of Secrets",
+                "Harry Potter and the Philosopher's Stone"),
+                suggestions.stream().map(BookSuggestionResponse::getText).collect(Collectors.toList()));
+        assertEquals(BookSuggestionResponse.TITLE, suggestions.get(0).getType());
+        assertEquals(3, bookSuggestIndex.size());
+    }
+
+    @Test
+    void suggest_GroupsBooksByAuthor() {
+        // Given
+        loadCatalog(
+                book(1, "Emma", "Jane Austen"),
+                book(2, "Persuasion", "Jane Austen"),
+                book(3, "Jane Eyre", "Charlotte Bronte"));
+
+        // When
+        List<BookSuggestionResponse> suggestions = bookSuggestIndex.suggest("jane", 10);
+
+        // Then - the author stands for two books, the title for one
+        assertEquals(2, suggestions.size());
+        assertEquals(BookSuggestionResponse.AUTHOR, suggestions.get(0).getType());
+        assertEquals("Jane Austen", suggestions.get(0).getText());
+        assertEquals("Jane Eyre", suggestions.get(1).getText());
+    }
+
+    @Test
+    void suggest_MatchesLaterWordsAndFoldsAccents() {
+        // Given
+        loadCatalog(book(1, "Cien años de soledad", "Gabriel García Márquez"));
+
+        // When & Then
+        assertEquals(List.of("Cien años de soledad"), texts("SOLE", 10));
+        assertEquals(List.of("Gabriel García Márquez"), texts("garcia m", 10));
+        assertEquals(List.of(), texts("soledad x", 10));
+    }
+
+    @Test
+    void suggest_ReturnsEachSuggestionOnce() {
+        // Given - "the" starts two keys of the same title
+        loadCatalog(book(1, "The Theory of Everything", "Stephen Hawking"));
+
+        // When & Then
+        assertEquals(List.of("The Theory of Everything"), texts("the", 10));
+    }
+
+    @Test
+    void suggest_LimitsResults() {
+        // Given
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            books.add(book(id, "Volume " + id, "Author " + id));
+            borrowed(id, id);
+        }
+        loadCatalog(books.toArray(new Book[0]));
+
+        // When & Then
+        assertEquals(List.of("Volume 30", "Volume 29", "Volume 28"), texts("vol", 3));
+        assertEquals(BookSuggestIndex.MAX_LIMIT, texts("vol", 100).size());
+        assertEquals(List.of(), texts("  ", 10));
+    }
+
+    @Test
+    void put_AddsRegisteredBookAndKeepsBorrowCount() {
+        // Given
+        borrowed(1, 4);
+        loadCatalog(book(1, "Clean Code", "Robert Martin"));
+
+        // When
+        bookSuggestIndex.put(new BookResponse(2L, null, "Clean Architecture", "Robert Martin", true, 1, 1, null, null));
+        bookSuggestIndex.put(new BookResponse(1L, null, "Clean Code", "Robert Martin", false, 1, 0, null, null));
+
+        // Then - the borrowed book still ranks first
+        assertEquals(List.of("Clean Code", "Clean Architecture"), texts("clean", 10));
+        assertEquals(List.of("Robert Martin"), texts("rob", 10));
+    }
+
+    @Test
+    void put_MovesRenamedBook() {
+        // Given
+        loadCatalog(book(1, "Clean Cod", "Robert Martin"));
+
+        // When
+        bookSuggestIndex.put(new BookResponse(1L, null, "Clean Code", "Robert Martin", true, 1, 1, null, null));
+
+        // Then
+        assertEquals(List.of("Clean Code"), texts("clean", 10));
+    }
+
+    @Test
+    void rebuild_KeepsServing_WhenLoadFails() {
+        // Given
+        loadCatalog(book(1, "Clean Code", "Robert Martin"));
+        doThrow(new RuntimeException("DB down")).when(bookRepository).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+
+        // When
+        bookSuggestIndex.rebuild();
+
+        // Then
+        assertEquals(List.of("Clean Code"), texts("cle", 10));
+    }
+
+    @Test
+    void scheduleRebuild_QueuesRebuildOnCacheExecutor() {
+        // Given
+        List<Runnable> queued = new ArrayList<>();
+        doAnswer(invocation -> queued.add(invocation.getArgument(0))).when(cacheTaskExecutor).execute(any(Runnable.class));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of(book(1, "Clean Code", "Robert Martin")));
+
+        // When - the scheduler thread only queues the pass
+        bookSuggestIndex.scheduleRebuild();
+
+        // Then
+        assertEquals(1, queued.size());
+        verifyNoInteractions(bookRepository);
+
+        queued.get(0).run();
+        assertEquals(List.of("Clean Code"), texts("cle", 10));
+    }
+
+    @Test
+    void scheduleRebuild_SkipsPass_WhenExecutorRejects() {
+        // Given
+        doThrow(new TaskRejectedException("full")).when(cacheTaskExecutor).execute(any(Runnable.class));
+
+        // When & Then
+        assertDoesNotThrow(bookSuggestIndex::scheduleRebuild);
+        verifyNoInteractions(bookRepository, bookBorrowingRepository);
+    }
+
+    @Test
+    void trie_SplitsAndMergesEdges() {
+        // Given
+        SuggestTrie<BookSuggestIndex.Suggestion> trie = SuggestTrie.empty();
+        BookSuggestIndex.Suggestion team = new BookSuggestIndex.Suggestion("TITLE", "team", 1);
+        BookSuggestIndex.Suggestion tea = new BookSuggestIndex.Suggestion("TITLE", "tea", 2);
+        BookSuggestIndex.Suggestion toast = new BookSuggestIndex.Suggestion("TITLE", "toast", 3);
+
+        // When
+        SuggestTrie<BookSuggestIndex.Suggestion> full = trie.put("team", team).put("tea", tea).put("toast", toast);
+        SuggestTrie<BookSuggestIndex.Suggestion> pruned = full.put("tea", null);
+
+        // Then - earlier versions are untouched
+        assertEquals(List.of(toast, tea, team), full.topK("t", 10));
+        assertEquals(List.of(tea, team), full.topK("te", 10));
+        assertEquals(List.of(team), pruned.topK("tea", 10));
+        assertEquals(List.of(), trie.topK("t", 10));
+        assertEquals(List.of(), full.topK("tx", 10));
+    }
+}
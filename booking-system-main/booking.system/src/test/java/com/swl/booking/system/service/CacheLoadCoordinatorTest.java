@@ -0,0 +1,234 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Test class for CacheLoadCoordinator
+ * Tests single-flight loads, the Redis lease and deduplicated background refresh
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheLoadCoordinatorTest {
+
+    private static final String LEASE_KEY = "booking:book:lease:available";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ThreadPoolTaskExecutor cacheTaskExecutor;
+
+    private CacheLoadCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        cacheTaskExecutor = new ThreadPoolTaskExecutor();
+        cacheTaskExecutor.setCorePoolSize(1);
+        cacheTaskExecutor.setMaxPoolSize(1);
+        cacheTaskExecutor.setQueueCapacity(16);
+        cacheTaskExecutor.initialize();
+        coordinator = new CacheLoadCoordinator(stringRedisTemplate, "booking:book", 5000, 200, 10, cacheTaskExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheTaskExecutor.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void load_HoldsLeaseWhileLoading() {
+        // Given
+        when(valueOperations.setIfAbsent(eq(LEASE_KEY), anyString(), eq(5000L), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(true);
+
+        // When
+        String result = coordinator.load("available", () -> null, () -> "loaded");
+
+        // Then
+        assertEquals("loaded", result);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of(LEASE_KEY)), anyString());
+    }
+
+    @Test
+    void load_CoalescesConcurrentMisses() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenReturn(true);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        try {
+            // When - the first caller blocks inside the loader while three more miss
+            Future<String> first = callers.submit(() -> coordinator.load("available", () -> null, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                awaitQuietly(release);
+                return "loaded";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<String>> followers = List.of(
+                    callers.submit(() -> coordinator.load("available", () -> null, () -> "duplicate")),
+                    callers.submit(() -> coordinator.load("available", () -> null, () -> "duplicate")),
+                    callers.submit(() -> coordinator.load("available", () -> null, () -> "duplicate")));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("loaded", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void load_WaitsForLeaseHolderToFillCache() {
+        // Given - another node holds the lease and fills the cache on the second poll
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenReturn(false);
+        AtomicInteger polls = new AtomicInteger();
+
+        // When
+        String result = coordinator.load("available",
+                () -> polls.incrementAndGet() < 2 ? null : "from-other-node",
+                () -> fail("should not load while another node holds the lease"));
+
+        // Then
+        assertEquals("from-other-node", result);
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    void load_FallsBackToLoading_WhenLeaseHolderIsTooSlow() {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenReturn(false);
+
+        // When
+        String result = coordinator.load("available", () -> null, () -> "loaded");
+
+        // Then
+        assertEquals("loaded", result);
+    }
+
+    @Test
+    void load_LoadsWithoutLease_WhenRedisIsDown() {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any()))
+                .thenThrow(new RuntimeException("Redis down"));
+
+        // When
+        String result = coordinator.load("available", () -> null, () -> "loaded");
+
+        // Then
+        assertEquals("loaded", result);
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    void load_PropagatesLoaderFailure() {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenReturn(true);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> coordinator.load("available", () -> null, () -> {
+                    throw new IllegalStateException("Database down");
+                }));
+        assertEquals("Database down", exception.getMessage());
+    }
+
+    @Test
+    void refreshInBackground_RunsOncePerName() throws Exception {
+        // Given
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenReturn(true);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger refreshes = new AtomicInteger();
+
+        // When - a second refresh requested while the first is running is dropped
+        coordinator.refreshInBackground("available", () -> {
+            refreshes.incrementAndGet();
+            awaitQuietly(release);
+            done.countDown();
+        });
+        coordinator.refreshInBackground("available", refreshes::incrementAndGet);
+        release.countDown();
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    void refreshInBackground_SkipsWhenAnotherNodeHoldsLease() throws Exception {
+        // Given
+        CountDownLatch attempted = new CountDownLatch(1);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), anyLong(), any())).thenAnswer(invocation -> {
+            attempted.countDown();
+            return false;
+        });
+        AtomicInteger refreshes = new AtomicInteger();
+
+        // When
+        coordinator.refreshInBackground("available", refreshes::incrementAndGet);
+
+        // Then
+        assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    void refreshInBackground_AllowsRetry_WhenExecutorRejects() {
+        // Given
+        AsyncTaskExecutor fullExecutor = mock(AsyncTaskExecutor.class);
+        doThrow(new TaskRejectedException("full")).doNothing().when(fullExecutor).execute(any(Runnable.class));
+        CacheLoadCoordinator busy = new CacheLoadCoordinator(stringRedisTemplate, "booking:book", 5000, 200, 10,
+                fullExecutor);
+
+        // When - the first refresh is rejected, so the next stale read may queue one
+        busy.refreshInBackground("available", () -> { });
+        busy.refreshInBackground("available", () -> { });
+
+        // Then
+        verify(fullExecutor, times(2)).execute(any(Runnable.class));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -14,9 +14,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.InOrder;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import com.swl.booking.system.entity.Book;
 import com.swl.booking.system.entity.BookBorrowing;
 import com.swl.booking.system.entity.User;
@@ -45,14 +51,13 @@ class CacheWarmupServiceTest {
     private Book testBook1;
     private Book testBook2;
     private Book testBook3;
-    private List<Book> testBooks;
-    private List<Book> availableBooks;
     
     private User testUser1;
     private User testUser2;
     private BookBorrowing testBorrowing1;
     private BookBorrowing testBorrowing2;
     private List<BookBorrowing> activeBorrowings;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -84,9 +89,6 @@ class CacheWarmupServiceTest {
         testBook3.setCreatedTime(new Date());
         testBook3.setUpdatedTime(new Date());
 
-        testBooks = Arrays.asList(testBook1, testBook2, testBook3);
-        availableBooks = Arrays.asList(testBook1, testBook2);
-
         // Set up test users
         testUser1 = new User();
         testUser1.setId(1L);
@@ -114,89 +116,105 @@ class CacheWarmupServiceTest {
         testBorrowing2.setBorrowDate(new Date());
 
         activeBorrowings = Arrays.asList(testBorrowing1, testBorrowing2);
+
+        // Two books per chunk so the three test books span two chunks
+        ReflectionTestUtils.setField(cacheWarmupService, "chunkSize", 2);
+        ReflectionTestUtils.setField(cacheWarmupService, "progressIntervalMillis", 0L);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(cacheWarmupService, "meterRegistry", meterRegistry);
+        // Run submitted warmups on the calling thread
+        ReflectionTestUtils.setField(cacheWarmupService, "cacheTaskExecutor", new TaskExecutorAdapter(Runnable::run));
+    }
+
+    private List<Runnable> queueSubmittedTasks() {
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(cacheWarmupService, "cacheTaskExecutor", new TaskExecutorAdapter(queued::add));
+        return queued;
+    }
+
+    private void stubCatalogChunks() {
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testBook1, testBook2));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testBook3));
     }
 
     @Test
     void warmupCache_Success() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
-        when(bookRepository.findAll()).thenReturn(testBooks);
+        stubCatalogChunks();
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
 
         // When
         cacheWarmupService.warmupCache();
 
         // Then
-        // Verify available books caching
-        verify(bookRepository).findByIsAvailableTrue();
+        // Catalog is read once, chunk by chunk, never with findAll
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        verify(bookRepository, never()).findAll();
+        verify(bookRepository, never()).findByIsAvailableTrueOrderByIdAsc();
+        verify(redisBookCacheService, times(2)).cacheBookDetails(any(List.class));
+        verify(redisBookCacheService, never()).cacheBookDetail(any(BookResponse.class));
         verify(redisBookCacheService).cacheAvailableBooks(any(List.class));
 
-        // Verify book details caching
-        verify(bookRepository, times(2)).findAll(); // Called in warmupBookDetails and warmupBorrowedBooksTracking
-        verify(redisBookCacheService, times(3)).cacheBookDetail(any(BookResponse.class));
-
         // Verify borrowed books tracking
         verify(bookBorrowingRepository).findByIsReturnedFalse();
         verify(redisBookCacheService).cacheBorrowedBooks(eq(1L), any(List.class));
         verify(redisBookCacheService).cacheBorrowedBooks(eq(2L), any(List.class));
-        verify(redisBookCacheService).warmUpCache(any(List.class), any(Set.class));
+        verify(redisBookCacheService).warmUpCache(any(Set.class));
     }
 
     @Test
-    void warmupCache_ExceptionInAvailableBooks() {
+    void warmupCache_ExceptionInCatalog() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenThrow(new RuntimeException("Database error"));
-        when(bookRepository.findAll()).thenReturn(testBooks);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("Database error"));
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
 
         // When & Then - should not throw exception
         assertDoesNotThrow(() -> cacheWarmupService.warmupCache());
 
         // Verify other operations still proceed
-        verify(bookRepository, times(2)).findAll(); // Called in warmupBookDetails and warmupBorrowedBooksTracking
         verify(bookBorrowingRepository).findByIsReturnedFalse();
-    }
-
-    @Test
-    void warmupCache_ExceptionInBookDetails() {
-        // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
-        when(bookRepository.findAll()).thenThrow(new RuntimeException("Database error"));
-        when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
-
-        // When & Then - should not throw exception
-        assertDoesNotThrow(() -> cacheWarmupService.warmupCache());
+        verify(redisBookCacheService).warmUpCache(any(Set.class));
 
-        // Verify other operations still proceed
-        verify(bookRepository).findByIsAvailableTrue();
-        verify(bookBorrowingRepository).findByIsReturnedFalse();
+        // But the run is reported as failed
+        assertEquals(CacheWarmupService.WarmupState.FAILED, cacheWarmupService.getWarmupStatus().state());
+        assertEquals(1, meterRegistry.get("booking.cache.warmup").tag("outcome", "failed").timer().count());
     }
 
     @Test
     void warmupCache_ExceptionInBorrowedBooks() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
-        when(bookRepository.findAll()).thenReturn(testBooks);
+        stubCatalogChunks();
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenThrow(new RuntimeException("Database error"));
 
         // When & Then - should not throw exception
         assertDoesNotThrow(() -> cacheWarmupService.warmupCache());
 
         // Verify other operations still proceed
-        verify(bookRepository).findByIsAvailableTrue();
-        verify(bookRepository, times(1)).findAll(); // Only called in warmupBookDetails (warmupBorrowedBooksTracking fails early)
+        verify(redisBookCacheService, times(2)).cacheBookDetails(any(List.class));
+        verify(redisBookCacheService).cacheAvailableBooks(any(List.class));
+        assertEquals(CacheWarmupService.WarmupState.FAILED, cacheWarmupService.getWarmupStatus().state());
      }
 
     @Test
-    void warmupAvailableBooks_Success() {
+    void warmupCatalog_Success() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
+        stubCatalogChunks();
 
         // When
-        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupAvailableBooks");
+        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupCatalog");
 
-        // Then
-        verify(bookRepository).findByIsAvailableTrue();
+        // Then - one pipelined write per chunk
+        verify(redisBookCacheService).cacheBookDetails(argThat(books ->
+            books.size() == 2 && books.get(0).getId().equals(1L) && books.get(1).getId().equals(2L)
+        ));
+        verify(redisBookCacheService).cacheBookDetails(argThat(books ->
+            books.size() == 1 && books.get(0).getId().equals(3L)
+        ));
+
+        // Available books are collected from the same pass
         verify(redisBookCacheService).cacheAvailableBooks(argThat(books -> 
             books.size() == 2 && 
             books.stream().anyMatch(book -> ((BookResponse) book).getTitle().equals("Test Book 1")) &&
@@ -205,89 +223,61 @@ class CacheWarmupServiceTest {
     }
 
     @Test
-    void warmupAvailableBooks_EmptyList() {
-        // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(Collections.emptyList());
-
-        // When
-        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupAvailableBooks");
-
-        // Then
-        verify(bookRepository).findByIsAvailableTrue();
-        verify(redisBookCacheService).cacheAvailableBooks(argThat(books -> books.isEmpty()));
-    }
-
-    @Test
-    void warmupAvailableBooks_Exception() {
-        // Given
-        when(bookRepository.findByIsAvailableTrue()).thenThrow(new RuntimeException("Database connection failed"));
-
-        // When & Then - should not throw exception
-        assertDoesNotThrow(() -> ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupAvailableBooks"));
-
-        // Verify repository was called
-        verify(bookRepository).findByIsAvailableTrue();
-        // Verify cache service was not called due to exception
-         verify(redisBookCacheService, never()).cacheAvailableBooks(any());
-     }
-
-    @Test
-    void warmupBookDetails_Success() {
-        // Given
-        when(bookRepository.findAll()).thenReturn(testBooks);
+    void warmupCatalog_StopsOnShortChunk() {
+        // Given - a full chunk followed by an empty one
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(testBook1, testBook2));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
 
         // When
-        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupBookDetails");
+        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupCatalog");
 
         // Then
-        verify(bookRepository, times(1)).findAll(); // Only called once in warmupBookDetails method
-        verify(redisBookCacheService, times(3)).cacheBookDetail(any(BookResponse.class));
-        
-        // Verify each book was cached
-        verify(redisBookCacheService).cacheBookDetail(argThat(book -> book.getId().equals(1L)));
-        verify(redisBookCacheService).cacheBookDetail(argThat(book -> book.getId().equals(2L)));
-        verify(redisBookCacheService).cacheBookDetail(argThat(book -> book.getId().equals(3L)));
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        verify(redisBookCacheService, times(1)).cacheBookDetails(any(List.class));
+        verify(redisBookCacheService).cacheAvailableBooks(argThat(books -> books.size() == 2));
     }
 
     @Test
-    void warmupBookDetails_EmptyList() {
+    void warmupCatalog_EmptyCatalog() {
         // Given
-        when(bookRepository.findAll()).thenReturn(Collections.emptyList());
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
 
         // When
-        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupBookDetails");
+        ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupCatalog");
 
         // Then
-        verify(bookRepository, times(1)).findAll(); // Only called once in warmupBookDetails method
-        verify(redisBookCacheService, never()).cacheBookDetail(any(BookResponse.class));
+        verify(redisBookCacheService, never()).cacheBookDetails(any(List.class));
+        verify(redisBookCacheService).cacheAvailableBooks(argThat(books -> books.isEmpty()));
     }
 
     @Test
-    void warmupBookDetails_Exception() {
+    void warmupCatalog_Exception() {
         // Given
-        when(bookRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then - should not throw exception
-        assertDoesNotThrow(() -> ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupBookDetails"));
+        assertDoesNotThrow(() -> ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupCatalog"));
 
-        // Verify repository was called
-        verify(bookRepository, times(1)).findAll(); // Only called once in warmupBookDetails method
         // Verify cache service was not called due to exception
-         verify(redisBookCacheService, never()).cacheBookDetail(any(BookResponse.class));
+        verify(redisBookCacheService, never()).cacheBookDetails(any());
+        verify(redisBookCacheService, never()).cacheAvailableBooks(any());
      }
 
     @Test
     void warmupBorrowedBooksTracking_Success() {
         // Given
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
-        when(bookRepository.findAll()).thenReturn(testBooks);
 
         // When
         ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupBorrowedBooksTracking");
 
         // Then
         verify(bookBorrowingRepository).findByIsReturnedFalse();
-        verify(bookRepository, times(1)).findAll(); // Only called once in warmupBorrowedBooksTracking method
+        verifyNoInteractions(bookRepository);
         
         // Verify borrowed books cached for each user
         verify(redisBookCacheService).cacheBorrowedBooks(eq(1L), argThat(books -> 
@@ -298,7 +288,7 @@ class CacheWarmupServiceTest {
         ));
         
         // Verify warmup cache called with borrowed book IDs
-        verify(redisBookCacheService).warmUpCache(any(List.class), argThat(borrowedIds -> 
+        verify(redisBookCacheService).warmUpCache(argThat(borrowedIds -> 
             borrowedIds.contains(2L) && borrowedIds.contains(3L) && borrowedIds.size() == 2
         ));
     }
@@ -307,20 +297,19 @@ class CacheWarmupServiceTest {
     void warmupBorrowedBooksTracking_EmptyBorrowings() {
         // Given
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(Collections.emptyList());
-        when(bookRepository.findAll()).thenReturn(testBooks);
 
         // When
         ReflectionTestUtils.invokeMethod(cacheWarmupService, "warmupBorrowedBooksTracking");
 
         // Then
         verify(bookBorrowingRepository).findByIsReturnedFalse();
-        verify(bookRepository, times(1)).findAll(); // Only called once in warmupBorrowedBooksTracking method
+        verifyNoInteractions(bookRepository);
         
         // Verify no user-specific caching
         verify(redisBookCacheService, never()).cacheBorrowedBooks(anyLong(), any());
         
         // Verify warmup cache called with empty borrowed book IDs
-        verify(redisBookCacheService).warmUpCache(any(List.class), argThat(borrowedIds -> 
+        verify(redisBookCacheService).warmUpCache(argThat(borrowedIds -> 
             borrowedIds.isEmpty()
         ));
     }
@@ -337,27 +326,26 @@ class CacheWarmupServiceTest {
         verify(bookBorrowingRepository).findByIsReturnedFalse();
         // Verify cache service was not called due to exception
          verify(redisBookCacheService, never()).cacheBorrowedBooks(anyLong(), any());
-         verify(redisBookCacheService, never()).warmUpCache(any(), any());
+         verify(redisBookCacheService, never()).warmUpCache(any());
      }
 
     @Test
     void manualWarmup_Success() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
-        when(bookRepository.findAll()).thenReturn(testBooks);
+        stubCatalogChunks();
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
 
         // When
         cacheWarmupService.manualWarmup();
 
         // Then - verify all warmup operations are called
-        verify(bookRepository).findByIsAvailableTrue();
-        verify(bookRepository, times(2)).findAll(); // Called twice: once for book details, once for borrowed books tracking
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        verify(bookRepository, never()).findAll();
         verify(bookBorrowingRepository).findByIsReturnedFalse();
         verify(redisBookCacheService).cacheAvailableBooks(any(List.class));
-        verify(redisBookCacheService, times(3)).cacheBookDetail(any(BookResponse.class));
+        verify(redisBookCacheService, times(2)).cacheBookDetails(any(List.class));
         verify(redisBookCacheService, times(2)).cacheBorrowedBooks(anyLong(), any(List.class));
-        verify(redisBookCacheService).warmUpCache(any(List.class), any(Set.class));
+        verify(redisBookCacheService).warmUpCache(any(Set.class));
     }
 
     @Test
@@ -406,20 +394,146 @@ class CacheWarmupServiceTest {
     @Test
     void applicationReadyEvent_TriggersWarmup() {
         // Given
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(availableBooks);
-        when(bookRepository.findAll()).thenReturn(testBooks);
+        stubCatalogChunks();
         when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
 
         // When
         cacheWarmupService.warmupCache();
 
         // Then - verify warmup is triggered
-        verify(bookRepository).findByIsAvailableTrue();
-        verify(bookRepository, times(2)).findAll();
+        verify(bookRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        verify(bookRepository, never()).findAll();
         verify(bookBorrowingRepository).findByIsReturnedFalse();
         verify(redisBookCacheService).cacheAvailableBooks(any(List.class));
-        verify(redisBookCacheService, times(3)).cacheBookDetail(any(BookResponse.class));
+        verify(redisBookCacheService, times(2)).cacheBookDetails(any(List.class));
         verify(redisBookCacheService, times(2)).cacheBorrowedBooks(anyLong(), any(List.class));
-        verify(redisBookCacheService).warmUpCache(any(List.class), any(Set.class));
+        verify(redisBookCacheService).warmUpCache(any(Set.class));
+    }
+
+    @Test
+    void warmupCache_ReportsCompletedStatus() {
+        // Given
+        stubCatalogChunks();
+        when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
+
+        // When
+        cacheWarmupService.warmupCache();
+
+        // Then
+        CacheWarmupService.WarmupStatus status = cacheWarmupService.getWarmupStatus();
+        assertEquals(CacheWarmupService.WarmupState.COMPLETED, status.state());
+        assertEquals(3, status.booksProcessed());
+        assertFalse(status.refresh());
+        assertNotNull(status.finishedAt());
+        assertEquals(1, meterRegistry.get("booking.cache.warmup").tag("outcome", "completed").timer().count());
+        assertEquals(3.0, meterRegistry.get("booking.cache.warmup.books").tag("type", "warmup").summary().totalAmount());
+    }
+
+    @Test
+    void startWarmup_SkipsWhileAnotherIsQueued() {
+        // Given
+        List<Runnable> queued = queueSubmittedTasks();
+        stubCatalogChunks();
+        when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
+
+        // When
+        boolean first = cacheWarmupService.startWarmup();
+        boolean second = cacheWarmupService.startRefresh();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, queued.size());
+        assertEquals(CacheWarmupService.WarmupState.QUEUED, cacheWarmupService.getWarmupStatus().state());
+
+        // And once it has run, the next one is accepted
+        queued.get(0).run();
+        assertEquals(CacheWarmupService.WarmupState.COMPLETED, cacheWarmupService.getWarmupStatus().state());
+        assertTrue(cacheWarmupService.startWarmup());
+    }
+
+    @Test
+    void startRefresh_InvalidatesBeforeWarmingUp() {
+        // Given
+        stubCatalogChunks();
+        when(bookBorrowingRepository.findByIsReturnedFalse()).thenReturn(activeBorrowings);
+
+        // When
+        boolean started = cacheWarmupService.startRefresh();
+
+        // Then
+        assertTrue(started);
+        InOrder inOrder = inOrder(redisBookCacheService, bookRepository);
+        inOrder.verify(redisBookCacheService).invalidateAllBookCaches();
+        inOrder.verify(bookRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class));
+        inOrder.verify(redisBookCacheService).cacheAvailableBooks(any(List.class));
+        assertTrue(cacheWarmupService.getWarmupStatus().refresh());
+    }
+
+    @Test
+    void startRefresh_SkipsWarmup_WhenInvalidationFails() {
+        // Given
+        doThrow(new RuntimeException("Redis connection error")).when(redisBookCacheService).invalidateAllBookCaches();
+
+        // When
+        cacheWarmupService.startRefresh();
+
+        // Then
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+        assertEquals(CacheWarmupService.WarmupState.FAILED, cacheWarmupService.getWarmupStatus().state());
+    }
+
+    @Test
+    void cancelWarmup_StopsBetweenChunks() {
+        // Given - cancelled while the first chunk is being read
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            cacheWarmupService.cancelWarmup();
+            return Arrays.asList(testBook1, testBook2);
+        });
+
+        // When
+        cacheWarmupService.startWarmup();
+
+        // Then - the partial pass never replaces the available list
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class));
+        verify(redisBookCacheService).cacheBookDetails(any(List.class));
+        verify(redisBookCacheService, never()).cacheAvailableBooks(any());
+        verify(bookBorrowingRepository, never()).findByIsReturnedFalse();
+        CacheWarmupService.WarmupStatus status = cacheWarmupService.getWarmupStatus();
+        assertEquals(CacheWarmupService.WarmupState.CANCELLED, status.state());
+        assertEquals(2, status.booksProcessed());
+    }
+
+    @Test
+    void cancelWarmup_QueuedWarmupNeverStarts() {
+        // Given
+        List<Runnable> queued = queueSubmittedTasks();
+        cacheWarmupService.startWarmup();
+
+        // When
+        boolean cancelled = cacheWarmupService.cancelWarmup();
+        queued.get(0).run();
+
+        // Then
+        assertTrue(cancelled);
+        assertEquals(CacheWarmupService.WarmupState.CANCELLED, cacheWarmupService.getWarmupStatus().state());
+        verifyNoInteractions(bookRepository, redisBookCacheService);
+        assertFalse(cacheWarmupService.cancelWarmup());
+    }
+
+    @Test
+    void startWarmup_ReportsRejection_WhenExecutorIsFull() {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmupService, "cacheTaskExecutor", new TaskExecutorAdapter(task -> {
+            throw new TaskRejectedException("Queue full");
+        }));
+
+        // When
+        boolean started = cacheWarmupService.startWarmup();
+
+        // Then
+        assertFalse(started);
+        assertEquals(CacheWarmupService.WarmupState.REJECTED, cacheWarmupService.getWarmupStatus().state());
+        verifyNoInteractions(bookRepository);
     }
-}
\ No newline at end of file
+}
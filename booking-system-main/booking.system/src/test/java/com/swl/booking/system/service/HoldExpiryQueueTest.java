@@ -0,0 +1,106 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.swl.booking.system.repository.BookHoldRepository;
+
+/**
+ * Test class for HoldExpiryQueue
+ * Tests delay ordering, sweeping of holds queued elsewhere and retry after a failed expiry
+ */
+@ExtendWith(MockitoExtension.class)
+class HoldExpiryQueueTest {
+
+    @Mock
+    private BookHoldService bookHoldService;
+
+    @Mock
+    private BookHoldRepository bookHoldRepository;
+
+    private HoldExpiryQueue holdExpiryQueue;
+
+    @BeforeEach
+    void setUp() {
+        holdExpiryQueue = new HoldExpiryQueue(bookHoldService, bookHoldRepository, 60_000);
+    }
+
+    private static Date inMillis(long millis) {
+        return new Date(System.currentTimeMillis() + millis);
+    }
+
+    private static BookHoldRepository.ReadyHold readyHold(Long id, Date expiresAt) {
+        return new BookHoldRepository.ReadyHold() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Date getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+
+    @Test
+    void drainDue_ExpiresOnlyHoldsPastTheirWindow() {
+        // Given
+        holdExpiryQueue.onHoldReady(new HoldExpiryQueue.HoldReady(2L, inMillis(-1_000)));
+        holdExpiryQueue.onHoldReady(new HoldExpiryQueue.HoldReady(3L, inMillis(3_600_000)));
+        holdExpiryQueue.onHoldReady(new HoldExpiryQueue.HoldReady(1L, inMillis(-5_000)));
+
+        // When
+        int drained = holdExpiryQueue.drainDue();
+
+        // Then - earliest first, the future hold keeps waiting
+        assertEquals(2, drained);
+        InOrder order = inOrder(bookHoldService);
+        order.verify(bookHoldService).expireHold(1L);
+        order.verify(bookHoldService).expireHold(2L);
+        verify(bookHoldService, never()).expireHold(3L);
+        assertEquals(1, holdExpiryQueue.size());
+    }
+
+    @Test
+    void sweep_QueuesHoldsOnceEach() {
+        // Given - hold 1 was made ready on this node, hold 2 on another
+        holdExpiryQueue.onHoldReady(new HoldExpiryQueue.HoldReady(1L, inMillis(10_000)));
+        when(bookHoldRepository.findReadyExpiringBefore(any(Date.class)))
+                .thenReturn(List.of(readyHold(1L, inMillis(10_000)), readyHold(2L, inMillis(20_000))));
+
+        // When
+        holdExpiryQueue.sweep();
+        holdExpiryQueue.sweep();
+
+        // Then
+        assertEquals(2, holdExpiryQueue.size());
+    }
+
+    @Test
+    void sweep_RequeuesHold_WhenExpiryFailed() {
+        // Given
+        doThrow(new RuntimeException("DB down")).when(bookHoldService).expireHold(1L);
+        holdExpiryQueue.onHoldReady(new HoldExpiryQueue.HoldReady(1L, inMillis(-1_000)));
+        holdExpiryQueue.drainDue();
+        when(bookHoldRepository.findReadyExpiringBefore(any(Date.class)))
+                .thenReturn(List.of(readyHold(1L, inMillis(-1_000))));
+
+        // When
+        holdExpiryQueue.sweep();
+
+        // Then
+        assertEquals(1, holdExpiryQueue.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.swl.booking.system.response.book.BookResponse;
+
+/**
+ * Test class for LocalBookCacheService
+ * Tests L1 reads/writes, size bound and pub/sub invalidation
+ */
+@ExtendWith(MockitoExtension.class)
+class LocalBookCacheServiceTest {
+
+    private static final String CHANNEL = "booking:book:invalidation";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private LocalBookCacheService localCache;
+
+    private BookResponse testBook;
+
+    @BeforeEach
+    void setUp() {
+        localCache = new LocalBookCacheService(stringRedisTemplate, "booking:book", 100, 30);
+
+        testBook = new BookResponse();
+        testBook.setId(1L);
+        testBook.setTitle("Test Book");
+    }
+
+    @Test
+    void putAndGet_ReturnsCachedValues() {
+        // When
+        localCache.putAvailableBooks(Arrays.asList(testBook));
+        localCache.putBorrowedBooks(7L, Arrays.asList(testBook));
+        localCache.putBookDetail(testBook);
+
+        // Then
+        assertEquals(1, localCache.getAvailableBooks().size());
+        assertEquals(1, localCache.getBorrowedBooks(7L).size());
+        assertNull(localCache.getBorrowedBooks(8L));
+        assertSame(testBook, localCache.getBookDetail(1L));
+    }
+
+    @Test
+    void putAvailableBooks_StoresImmutableCopy() {
+        // Given
+        List<BookResponse> books = new ArrayList<>(Arrays.asList(testBook));
+
+        // When
+        localCache.putAvailableBooks(books);
+        books.clear();
+
+        // Then
+        assertEquals(1, localCache.getAvailableBooks().size());
+        assertThrows(UnsupportedOperationException.class, () -> localCache.getAvailableBooks().clear());
+    }
+
+    @Test
+    void invalidateAvailableBooks_EvictsAndPublishes() {
+        // Given
+        localCache.putAvailableBooks(Arrays.asList(testBook));
+
+        // When
+        localCache.invalidateAvailableBooks();
+
+        // Then
+        assertNull(localCache.getAvailableBooks());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|available"));
+    }
+
+    @Test
+    void invalidate_EvictsLocally_WhenPublishFails() {
+        // Given
+        localCache.putBookDetail(testBook);
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new RuntimeException("Redis down"));
+
+        // When & Then
+        assertDoesNotThrow(() -> localCache.invalidateBookDetail(1L));
+        assertNull(localCache.getBookDetail(1L));
+    }
+
+    @Test
+    void onMessage_EvictsEntry_FromOtherNode() {
+        // Given
+        localCache.putBorrowedBooks(7L, Arrays.asList(testBook));
+
+        // When
+        localCache.onMessage(message("other-node|borrowed:7"), null);
+
+        // Then
+        assertNull(localCache.getBorrowedBooks(7L));
+    }
+
+    @Test
+    void onMessage_EvictsEverything_OnWildcard() {
+        // Given
+        localCache.putAvailableBooks(Arrays.asList(testBook));
+        localCache.putBookDetail(testBook);
+        Runnable flushListener = mock(Runnable.class);
+        localCache.addFlushListener(flushListener);
+
+        // When
+        localCache.onMessage(message("other-node|*"), null);
+
+        // Then
+        assertNull(localCache.getAvailableBooks());
+        assertNull(localCache.getBookDetail(1L));
+        verify(flushListener).run();
+    }
+
+    @Test
+    void onMessage_IgnoresMalformedMessage() {
+        // Given
+        localCache.putBookDetail(testBook);
+
+        // When & Then
+        assertDoesNotThrow(() -> localCache.onMessage(message("detail:1"), null));
+        assertSame(testBook, localCache.getBookDetail(1L));
+    }
+
+    @Test
+    void cache_IsBoundedByWeight() {
+        // Given - each list weighs its size plus one, the bound is 100
+        List<BookResponse> books = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            books.add(testBook);
+        }
+
+        // When
+        localCache.putAvailableBooks(books);
+        localCache.putBorrowedBooks(1L, books);
+        localCache.putBorrowedBooks(2L, books);
+
+        // Then
+        assertTrue(localCache.estimatedSize() <= 2);
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,230 @@
+package com.swl.booking.system.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.swl.booking.system.config.RedisConfig;
+import com.swl.booking.system.response.book.BookResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test class for the encodings of the available set
+ * Runs a full load and per-book deltas through the template and serializers built by RedisConfig,
+ * against an in-memory connection that stores raw bytes, so both writers must agree on the format
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisBookCacheServiceEncodingTest {
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private LocalBookCacheService localCache;
+
+    private final FakeRedis redis = new FakeRedis();
+
+    private RedisBookCacheService redisBookCacheService;
+
+    private void createService(String codecFormat) {
+        RedisConfig redisConfig = new RedisConfig();
+        ReflectionTestUtils.setField(redisConfig, "codecFormat", codecFormat);
+        ReflectionTestUtils.setField(redisConfig, "compressThreshold", 1024);
+        RedisConnection connection = mock(RedisConnection.class, redis);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        RedisTemplate<String, Object> redisTemplate = redisConfig.redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+
+        redisBookCacheService = new RedisBookCacheService(redisTemplate, localCache,
+                new CacheMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(redisBookCacheService, "keyPrefix", "booking:book");
+        ReflectionTestUtils.setField(redisBookCacheService, "availableBooksTtl", 300L);
+        ReflectionTestUtils.setField(redisBookCacheService, "staleGraceSeconds", 60L);
+        ReflectionTestUtils.setField(redisBookCacheService, "generationRefreshMillis", 60000L);
+    }
+
+    private static BookResponse book(long id, String title, boolean available) {
+        BookResponse book = new BookResponse();
+        book.setId(id);
+        book.setIsbn("978000000000" + id);
+        book.setTitle(title);
+        book.setAuthor("Author " + id);
+        book.setAvailable(available);
+        book.setCreatedTime(new Date(1_700_000_000_000L));
+        book.setUpdatedTime(new Date(1_700_000_000_000L));
+        return book;
+    }
+
+    private List<String> cachedTitles() {
+        CachedBookList cached = redisBookCacheService.getCachedAvailableBooks(true);
+        assertNotNull(cached);
+        return cached.getBooks().stream().map(BookResponse::getTitle).collect(Collectors.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "json", "binary" })
+    void warmupThenDeltas_KeepEveryBookReadable(String codecFormat) {
+        // Given
+        createService(codecFormat);
+        redisBookCacheService.cacheAvailableBooks(List.of(book(1, "First", true), book(3, "Third", true)));
+
+        // When - a returned book is added, a borrowed one removed, and a loaded one updated
+        redisBookCacheService.applyAvailabilityChange(book(2, "Second", true));
+        redisBookCacheService.applyAvailabilityChange(book(1, "First", false));
+        redisBookCacheService.applyAvailabilityChange(book(3, "Third, Revised", true));
+
+        // Then - fields written by the bulk load and by the script decode the same way
+        assertEquals(List.of("Second", "Third, Revised"), cachedTitles());
+        assertEquals(List.of("Second"), redisBookCacheService.getCachedAvailableBooksAfter(0, 1).getBooks()
+                .stream().map(BookResponse::getTitle).collect(Collectors.toList()));
+        assertEquals(Set.of("2", "3"), redis.hashFields("booking:book:v0:available:books"));
+    }
+
+    /**
+     * Byte-level Redis for the commands the available set uses. Commands are looked up by name, so
+     * the connection's default methods and its xxxCommands() views all land here.
+     */
+    private static final class FakeRedis implements Answer<Object> {
+
+        private final Map<String, byte[]> strings = new HashMap<>();
+        private final Map<String, TreeMap<Double, byte[]>> zsets = new HashMap<>();
+        private final Map<String, Map<String, byte[]>> hashes = new HashMap<>();
+
+        Set<String> hashFields(String key) {
+            return hashes.getOrDefault(key, Map.of()).keySet();
+        }
+
+        private static String str(Object raw) {
+            return new String((byte[]) raw, StandardCharsets.UTF_8);
+        }
+
+        private boolean exists(String key) {
+            return strings.containsKey(key) || zsets.containsKey(key) || hashes.containsKey(key);
+        }
+
+        @Override
+        public Object answer(InvocationOnMock invocation) {
+            Method method = invocation.getMethod();
+            // Raw arguments keep varargs such as DEL keys as one array
+            Object[] args = invocation.getRawArguments();
+            if (method.getName().endsWith("Commands") && args.length == 0) {
+                return invocation.getMock();
+            }
+            switch (method.getName()) {
+                case "isPipelined", "isQueueing", "isClosed":
+                    return false;
+                case "close":
+                    return null;
+                case "get":
+                    return strings.get(str(args[0]));
+                case "set":
+                    strings.put(str(args[0]), (byte[]) args[1]);
+                    return true;
+                case "setEx":
+                    strings.put(str(args[0]), (byte[]) args[2]);
+                    return true;
+                case "incr":
+                    return incr(args[0]);
+                case "del": {
+                    long removed = 0;
+                    for (Object raw : (Object[]) args[0]) {
+                        String key = str(raw);
+                        boolean existed = exists(key);
+                        strings.remove(key);
+                        zsets.remove(key);
+                        hashes.remove(key);
+                        removed += existed ? 1 : 0;
+                    }
+                    return removed;
+                }
+                case "expire", "pExpire":
+                    return exists(str(args[0]));
+                case "zAdd": {
+                    TreeMap<Double, byte[]> zset = zsets.computeIfAbsent(str(args[0]), key -> new TreeMap<>());
+                    for (Object tuple : (Set<?>) args[1]) {
+                        zset.put(((Tuple) tuple).getScore(), ((Tuple) tuple).getValue());
+                    }
+                    return (long) ((Set<?>) args[1]).size();
+                }
+                case "zRange":
+                    return new LinkedHashSet<>(zsets.getOrDefault(str(args[0]), new TreeMap<>()).values());
+                case "zRangeByScore":
+                    return zRangeByScore(args);
+                case "hMSet": {
+                    Map<String, byte[]> hash = hashes.computeIfAbsent(str(args[0]), key -> new HashMap<>());
+                    ((Map<?, ?>) args[1]).forEach((field, value) -> hash.put(str(field), (byte[]) value));
+                    return null;
+                }
+                case "hMGet": {
+                    Map<String, byte[]> hash = hashes.getOrDefault(str(args[0]), Map.of());
+                    return Arrays.stream((Object[]) args[1]).map(field -> hash.get(str(field)))
+                            .collect(Collectors.toCollection(ArrayList::new));
+                }
+                case "evalSha", "eval":
+                    return applyAvailability(args);
+                default:
+                    throw new UnsupportedOperationException("Fake Redis does not support " + method);
+            }
+        }
+
+        // (key, min, max, offset, count)
+        private Set<byte[]> zRangeByScore(Object[] args) {
+            return zsets.getOrDefault(str(args[0]), new TreeMap<>()).tailMap((Double) args[1], true).values().stream()
+                    .limit((Long) args[4]).collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+
+        // Same steps as APPLY_AVAILABILITY_SCRIPT; arguments arrive exactly as the template encoded them
+        private byte[] applyAvailability(Object[] args) {
+            Object[] keysAndArgs = (Object[]) args[3];
+            incr(keysAndArgs[3]);
+            if (!strings.containsKey(str(keysAndArgs[0]))) {
+                return "0".getBytes(StandardCharsets.UTF_8);
+            }
+            String id = str(keysAndArgs[4]);
+            byte[] payload = (byte[]) keysAndArgs[5];
+            TreeMap<Double, byte[]> zset = zsets.computeIfAbsent(str(keysAndArgs[1]), key -> new TreeMap<>());
+            Map<String, byte[]> hash = hashes.computeIfAbsent(str(keysAndArgs[2]), key -> new HashMap<>());
+            if (payload.length == 0) {
+                zset.remove(Double.valueOf(id));
+                hash.remove(id);
+            } else {
+                zset.put(Double.valueOf(id), (byte[]) keysAndArgs[4]);
+                hash.put(id, payload);
+            }
+            return "1".getBytes(StandardCharsets.UTF_8);
+        }
+
+        private long incr(Object rawKey) {
+            String key = str(rawKey);
+            long value = strings.containsKey(key) ? Long.parseLong(str(strings.get(key))) + 1 : 1;
+            strings.put(key, String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            return value;
+        }
+    }
+}
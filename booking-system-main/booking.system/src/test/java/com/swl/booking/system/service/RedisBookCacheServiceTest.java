@@ -1,6 +1,7 @@
 package com.swl.booking.system.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
@@ -13,30 +14,52 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.swl.booking.system.response.book.BookResponse;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class RedisBookCacheServiceTest {
 
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
 
-    @Mock
-    private ListOperations<String, Object> listOperations;
-
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
     @Mock
     private SetOperations<String, Object> setOperations;
 
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private LocalBookCacheService localCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CacheMetrics cacheMetrics = new CacheMetrics(meterRegistry);
+
     @InjectMocks
     private RedisBookCacheService redisBookCacheService;
 
@@ -46,13 +69,15 @@ class RedisBookCacheServiceTest {
     private final long availableBooksTtl = 300L;
     private final long borrowedBooksTtl = 600L;
     private final long bookDetailTtl = 1800L;
+    private final long staleGrace = 60L;
 
     @BeforeEach
     void setUp() {
         // Set up mock operations with lenient stubbing to avoid unnecessary stubbing exceptions
-        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
         lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         lenient().when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
 
         // Set up test data
         testBookResponse = new BookResponse();
@@ -71,151 +96,324 @@ class RedisBookCacheServiceTest {
         ReflectionTestUtils.setField(redisBookCacheService, "availableBooksTtl", availableBooksTtl);
         ReflectionTestUtils.setField(redisBookCacheService, "borrowedBooksTtl", borrowedBooksTtl);
         ReflectionTestUtils.setField(redisBookCacheService, "bookDetailTtl", bookDetailTtl);
+        ReflectionTestUtils.setField(redisBookCacheService, "generationRefreshMillis", 60000L);
+        ReflectionTestUtils.setField(redisBookCacheService, "sweepBatchSize", 2);
+        ReflectionTestUtils.setField(redisBookCacheService, "staleGraceSeconds", staleGrace);
+
+        // No flush has happened yet, so keys live in generation 0
+        lenient().when(valueOperations.get(keyPrefix + ":generation")).thenReturn(null);
+
+        // L1 misses by default so reads fall through to Redis
+        lenient().when(localCache.getAvailableBooks()).thenReturn(null);
+        lenient().when(localCache.getBorrowedBooks(anyLong())).thenReturn(null);
     }
 
     @Test
     void cacheAvailableBooks_Success() {
         // Given
-        String expectedKey = keyPrefix + ":available";
+        List<String> expectedKeys = availableSetKeys(0);
+        long before = System.currentTimeMillis();
         
         // When
         redisBookCacheService.cacheAvailableBooks(testBookResponses);
         
-        // Then
-        verify(redisTemplate).delete(expectedKey);
-        verify(listOperations).rightPushAll(expectedKey, testBookResponses.toArray());
-        verify(redisTemplate).expire(expectedKey, availableBooksTtl, TimeUnit.SECONDS);
+        // Then - kept for the grace period past the soft expiry held by the marker
+        verify(redisTemplate).delete(expectedKeys);
+        verify(zSetOperations).add(eq(expectedKeys.get(1)), argThat((Set<ZSetOperations.TypedTuple<Object>> ids) ->
+                ids.size() == 1 && ids.iterator().next().getScore() == 1.0));
+        verify(hashOperations).putAll(expectedKeys.get(2), Map.of("1", testBookResponse));
+        verify(redisTemplate).expire(expectedKeys.get(1), availableBooksTtl + staleGrace, TimeUnit.SECONDS);
+        verify(redisTemplate).expire(expectedKeys.get(2), availableBooksTtl + staleGrace, TimeUnit.SECONDS);
+        verify(valueOperations).set(eq(expectedKeys.get(0)),
+                argThat(refreshAt -> (Long) refreshAt >= before + availableBooksTtl * 1000),
+                eq(availableBooksTtl + staleGrace), eq(TimeUnit.SECONDS));
+        verify(valueOperations).increment(keyPrefix + ":v0:available:version");
+        verify(localCache).putAvailableBooks(testBookResponses);
     }
 
     @Test
     void cacheAvailableBooks_EmptyList() {
         // Given
-        String expectedKey = keyPrefix + ":available";
+        List<String> expectedKeys = availableSetKeys(0);
         List<BookResponse> emptyList = new ArrayList<>();
         
         // When
         redisBookCacheService.cacheAvailableBooks(emptyList);
         
-        // Then
-        verify(redisTemplate).delete(expectedKey);
-        verify(listOperations, never()).rightPushAll(any(), (Object[]) any());
-        verify(redisTemplate, never()).expire(any(), anyLong(), any());
+        // Then - still marked as loaded so an empty set is a hit, not a miss
+        verify(redisTemplate).delete(expectedKeys);
+        verify(zSetOperations, never()).add(any(), anySet());
+        verify(hashOperations, never()).putAll(any(), any());
+        verify(valueOperations).set(eq(expectedKeys.get(0)), any(), eq(availableBooksTtl + staleGrace), eq(TimeUnit.SECONDS));
     }
 
     @Test
     void getCachedAvailableBooks_CacheHit() {
         // Given
-        String expectedKey = keyPrefix + ":available";
-        List<Object> cachedObjects = Arrays.asList((Object) testBookResponse);
-        when(listOperations.range(expectedKey, 0, -1)).thenReturn(cachedObjects);
+        List<String> keys = availableSetKeys(0);
+        when(valueOperations.get(keys.get(0))).thenReturn(System.currentTimeMillis() + 60000);
+        when(zSetOperations.range(keys.get(1), 0, -1)).thenReturn(new LinkedHashSet<>(List.of(1)));
+        when(hashOperations.multiGet(keys.get(2), List.of("1"))).thenReturn(List.of(testBookResponse));
         
         // When
-        List<BookResponse> result = redisBookCacheService.getCachedAvailableBooks();
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks();
         
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBookResponse.getId(), result.get(0).getId());
-        verify(listOperations).range(expectedKey, 0, -1);
+        assertFalse(result.isStale());
+        assertEquals(1, result.getBooks().size());
+        assertEquals(testBookResponse.getId(), result.getBooks().get(0).getId());
+        verify(localCache).putAvailableBooks(result.getBooks());
+        assertEquals(1.0, cacheRequests("available", CacheMetrics.HIT));
+    }
+
+    @Test
+    void getCachedAvailableBooks_StaleHit_SkipsLocalCache() {
+        // Given
+        List<String> keys = availableSetKeys(0);
+        when(valueOperations.get(keys.get(0))).thenReturn(System.currentTimeMillis() - 1);
+        when(zSetOperations.range(keys.get(1), 0, -1)).thenReturn(new LinkedHashSet<>(List.of(1)));
+        when(hashOperations.multiGet(keys.get(2), List.of("1"))).thenReturn(List.of(testBookResponse));
+
+        // When
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks();
+
+        // Then - served, but not pinned in L1 past the rebuild
+        assertTrue(result.isStale());
+        assertEquals(1, result.getBooks().size());
+        verify(localCache, never()).putAvailableBooks(any());
+        assertEquals(1.0, cacheRequests("available", CacheMetrics.STALE_HIT));
+    }
+
+    @Test
+    void getCachedAvailableBooks_LocalCacheHit() {
+        // Given
+        when(localCache.getAvailableBooks()).thenReturn(testBookResponses);
+
+        // When
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks();
+
+        // Then
+        assertSame(testBookResponses, result.getBooks());
+        assertFalse(result.isStale());
+        verify(redisTemplate, never()).opsForZSet();
+        assertEquals(1.0, cacheRequests("available", CacheMetrics.LOCAL_HIT));
+    }
+
+    @Test
+    void getCachedAvailableBooks_SkipLocalCache_ReadsRedis() {
+        // Given
+        List<String> keys = availableSetKeys(0);
+        lenient().when(localCache.getAvailableBooks()).thenReturn(testBookResponses);
+        when(valueOperations.get(keys.get(0))).thenReturn(null);
+
+        // When
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks(true);
+
+        // Then
+        assertNull(result);
+        verify(localCache, never()).getAvailableBooks();
+    }
+
+    @Test
+    void getAvailableBooksVersion_CombinesGenerationAndCounter() {
+        // Given
+        when(valueOperations.get(keyPrefix + ":v0:available:version")).thenReturn(7);
+
+        // When & Then
+        assertEquals("0-7", redisBookCacheService.getAvailableBooksVersion());
+    }
+
+    @Test
+    void getAvailableBooksVersion_ReturnsNull_WhenRedisFails() {
+        // Given
+        when(valueOperations.get(keyPrefix + ":v0:available:version")).thenThrow(new RuntimeException("Redis down"));
+
+        // When & Then
+        assertNull(redisBookCacheService.getAvailableBooksVersion());
+        assertEquals(1.0, meterRegistry.get(CacheMetrics.ERRORS).tag("operation", "getAvailableBooksVersion").counter().count());
     }
 
     @Test
     void getCachedAvailableBooks_CacheMiss() {
         // Given
-        String expectedKey = keyPrefix + ":available";
-        when(listOperations.range(expectedKey, 0, -1)).thenReturn(null);
+        List<String> keys = availableSetKeys(0);
+        when(valueOperations.get(keys.get(0))).thenReturn(null);
         
         // When
-        List<BookResponse> result = redisBookCacheService.getCachedAvailableBooks();
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks();
         
         // Then
         assertNull(result);
-        verify(listOperations).range(expectedKey, 0, -1);
+        verify(redisTemplate, never()).opsForZSet();
+        assertEquals(1.0, cacheRequests("available", CacheMetrics.MISS));
     }
 
     @Test
     void getCachedAvailableBooks_EmptyCache() {
         // Given
-        String expectedKey = keyPrefix + ":available";
-        when(listOperations.range(expectedKey, 0, -1)).thenReturn(new ArrayList<>());
+        List<String> keys = availableSetKeys(0);
+        when(valueOperations.get(keys.get(0))).thenReturn(System.currentTimeMillis() + 60000);
+        when(zSetOperations.range(keys.get(1), 0, -1)).thenReturn(Collections.emptySet());
         
         // When
-        List<BookResponse> result = redisBookCacheService.getCachedAvailableBooks();
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooks();
         
         // Then
-        assertNull(result);
-        verify(listOperations).range(expectedKey, 0, -1);
+        assertNotNull(result);
+        assertTrue(result.getBooks().isEmpty());
+        verify(redisTemplate, never()).opsForHash();
+    }
+
+    @Test
+    void getCachedAvailableBooksAfter_ReadsRangeByScore() {
+        // Given
+        List<String> keys = availableSetKeys(0);
+        BookResponse second = new BookResponse();
+        second.setId(12L);
+        when(valueOperations.get(keys.get(0))).thenReturn(System.currentTimeMillis() + 60000);
+        when(zSetOperations.rangeByScore(keys.get(1), 11, Double.POSITIVE_INFINITY, 0, 3))
+                .thenReturn(new LinkedHashSet<>(List.of(11, 12, 13)));
+        when(hashOperations.multiGet(keys.get(2), List.of("11", "12", "13")))
+                .thenReturn(Arrays.asList(testBookResponse, null, second));
+
+        // When
+        CachedBookList result = redisBookCacheService.getCachedAvailableBooksAfter(10L, 3);
+
+        // Then - a member whose payload vanished in between is skipped
+        assertEquals(List.of(testBookResponse, second), result.getBooks());
+    }
+
+    @Test
+    void getCachedAvailableBooksAfter_ReturnsNull_WhenNotLoaded() {
+        // Given
+        when(valueOperations.get(availableSetKeys(0).get(0))).thenReturn(null);
+
+        // When & Then
+        assertNull(redisBookCacheService.getCachedAvailableBooksAfter(0L, 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyAvailabilityChange_AddsAvailableBook() {
+        // Given
+        RedisSerializer<Object> valueSerializer = mock(RedisSerializer.class);
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) valueSerializer);
+        byte[] payload = { (byte) 0xB1, 1, 2, 3 };
+        when(valueSerializer.serialize(testBookResponse)).thenReturn(payload);
+
+        // When
+        redisBookCacheService.applyAvailabilityChange(testBookResponse);
+
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(availableScriptKeys(0)), aryEq("1".getBytes()), aryEq(payload));
+        verify(localCache).invalidateAvailableBooks();
+        verify(redisTemplate, never()).delete(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyAvailabilityChange_RemovesUnavailableBook() {
+        // Given
+        testBookResponse.setAvailable(false);
+
+        // When
+        redisBookCacheService.applyAvailabilityChange(testBookResponse);
+
+        // Then - an empty payload tells the script to remove the book
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(availableScriptKeys(0)), aryEq("1".getBytes()), aryEq(new byte[0]));
+        verify(redisTemplate, never()).getValueSerializer();
+        verify(localCache).invalidateAvailableBooks();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyAvailabilityChange_DropsSet_WhenScriptFails() {
+        // Given
+        testBookResponse.setAvailable(false);
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                anyList(), any(), any())).thenThrow(new RuntimeException("Redis down"));
+
+        // When
+        redisBookCacheService.applyAvailabilityChange(testBookResponse);
+
+        // Then
+        verify(redisTemplate).delete(availableSetKeys(0));
+        verify(localCache).invalidateAvailableBooks();
     }
 
     @Test
     void cacheBorrowedBooks_Success() {
         // Given
         Long userId = 1L;
-        String expectedKey = keyPrefix + ":borrowed:" + userId;
+        String expectedKey = keyPrefix + ":v0:borrowed:" + userId;
         
         // When
         redisBookCacheService.cacheBorrowedBooks(userId, testBookResponses);
         
         // Then
-        verify(redisTemplate).delete(expectedKey);
-        verify(listOperations).rightPushAll(expectedKey, testBookResponses.toArray());
-        verify(redisTemplate).expire(expectedKey, borrowedBooksTtl, TimeUnit.SECONDS);
+        verify(valueOperations).set(eq(expectedKey),
+                argThat(cached -> ((CachedBookList) cached).getBooks().equals(testBookResponses)
+                        && !((CachedBookList) cached).isStale()),
+                eq(borrowedBooksTtl + staleGrace), eq(TimeUnit.SECONDS));
+        verify(localCache).putBorrowedBooks(userId, testBookResponses);
     }
 
     @Test
     void cacheBorrowedBooks_EmptyList() {
         // Given
         Long userId = 1L;
-        String expectedKey = keyPrefix + ":borrowed:" + userId;
+        String expectedKey = keyPrefix + ":v0:borrowed:" + userId;
         List<BookResponse> emptyList = new ArrayList<>();
         
         // When
         redisBookCacheService.cacheBorrowedBooks(userId, emptyList);
         
-        // Then
-        verify(redisTemplate).delete(expectedKey);
-        verify(listOperations, never()).rightPushAll(any(), (Object[]) any());
-        verify(redisTemplate, never()).expire(any(), anyLong(), any());
+        // Then - cached too, so users without borrowings do not query on every request
+        verify(valueOperations).set(eq(expectedKey), argThat(cached -> ((CachedBookList) cached).getBooks().isEmpty()),
+                eq(borrowedBooksTtl + staleGrace), eq(TimeUnit.SECONDS));
     }
 
     @Test
     void getCachedBorrowedBooks_CacheHit() {
         // Given
         Long userId = 1L;
-        String expectedKey = keyPrefix + ":borrowed:" + userId;
-        List<Object> cachedObjects = Arrays.asList((Object) testBookResponse);
-        when(listOperations.range(expectedKey, 0, -1)).thenReturn(cachedObjects);
+        String expectedKey = keyPrefix + ":v0:borrowed:" + userId;
+        when(valueOperations.get(expectedKey))
+                .thenReturn(new CachedBookList(testBookResponses, System.currentTimeMillis() + 60000));
         
         // When
-        List<BookResponse> result = redisBookCacheService.getCachedBorrowedBooks(userId);
+        CachedBookList result = redisBookCacheService.getCachedBorrowedBooks(userId);
         
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBookResponse.getId(), result.get(0).getId());
-        verify(listOperations).range(expectedKey, 0, -1);
+        assertEquals(1, result.getBooks().size());
+        assertEquals(testBookResponse.getId(), result.getBooks().get(0).getId());
+        verify(localCache).putBorrowedBooks(userId, testBookResponses);
     }
 
     @Test
     void getCachedBorrowedBooks_CacheMiss() {
         // Given
         Long userId = 1L;
-        String expectedKey = keyPrefix + ":borrowed:" + userId;
-        when(listOperations.range(expectedKey, 0, -1)).thenReturn(null);
+        String expectedKey = keyPrefix + ":v0:borrowed:" + userId;
+        when(valueOperations.get(expectedKey)).thenReturn(null);
         
         // When
-        List<BookResponse> result = redisBookCacheService.getCachedBorrowedBooks(userId);
+        CachedBookList result = redisBookCacheService.getCachedBorrowedBooks(userId);
         
         // Then
         assertNull(result);
-        verify(listOperations).range(expectedKey, 0, -1);
+        verify(valueOperations).get(expectedKey);
     }
 
     @Test
     void cacheBookDetail_Success() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":detail:" + bookId;
+        String expectedKey = keyPrefix + ":v0:detail:" + bookId;
         
         // When
         redisBookCacheService.cacheBookDetail(testBookResponse);
@@ -228,7 +426,7 @@ class RedisBookCacheServiceTest {
     void getCachedBookDetail_CacheHit() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":detail:" + bookId;
+        String expectedKey = keyPrefix + ":v0:detail:" + bookId;
         when(valueOperations.get(expectedKey)).thenReturn(testBookResponse);
         
         // When
@@ -245,7 +443,7 @@ class RedisBookCacheServiceTest {
     void getCachedBookDetail_CacheMiss() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":detail:" + bookId;
+        String expectedKey = keyPrefix + ":v0:detail:" + bookId;
         when(valueOperations.get(expectedKey)).thenReturn(null);
         
         // When
@@ -260,7 +458,7 @@ class RedisBookCacheServiceTest {
     void addToBorrowedBooks_Success() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":borrowed-set";
+        String expectedKey = keyPrefix + ":v0:borrowed-set";
         
         // When
         redisBookCacheService.addToBorrowedBooks(bookId);
@@ -274,7 +472,7 @@ class RedisBookCacheServiceTest {
     void removeFromBorrowedBooks_Success() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":borrowed-set";
+        String expectedKey = keyPrefix + ":v0:borrowed-set";
         
         // When
         redisBookCacheService.removeFromBorrowedBooks(bookId);
@@ -287,7 +485,7 @@ class RedisBookCacheServiceTest {
     void isBookBorrowed_ReturnsTrue() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":borrowed-set";
+        String expectedKey = keyPrefix + ":v0:borrowed-set";
         when(setOperations.isMember(expectedKey, bookId)).thenReturn(true);
         
         // When
@@ -302,7 +500,7 @@ class RedisBookCacheServiceTest {
     void isBookBorrowed_ReturnsFalse() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":borrowed-set";
+        String expectedKey = keyPrefix + ":v0:borrowed-set";
         when(setOperations.isMember(expectedKey, bookId)).thenReturn(false);
         
         // When
@@ -317,7 +515,7 @@ class RedisBookCacheServiceTest {
     void isBookBorrowed_ReturnsNull() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":borrowed-set";
+        String expectedKey = keyPrefix + ":v0:borrowed-set";
         when(setOperations.isMember(expectedKey, bookId)).thenReturn(null);
         
         // When
@@ -331,134 +529,249 @@ class RedisBookCacheServiceTest {
     @Test
     void invalidateAllBookCaches_Success() {
         // Given
-        String keyPattern = keyPrefix + ":*";
-        Set<String> mockKeys = Set.of(
-            keyPrefix + ":available",
-            keyPrefix + ":borrowed:1",
-            keyPrefix + ":detail:1"
-        );
-        when(redisTemplate.keys(keyPattern)).thenReturn(mockKeys);
+        when(valueOperations.increment(keyPrefix + ":generation")).thenReturn(1L);
         
         // When
         redisBookCacheService.invalidateAllBookCaches();
         
-        // Then
-        verify(redisTemplate).keys(keyPattern);
-        verify(redisTemplate).delete(mockKeys);
+        // Then - a single INCR, no key enumeration, and new keys use the new generation
+        verify(valueOperations).increment(keyPrefix + ":generation");
+        verify(redisTemplate, never()).keys(anyString());
+        verify(localCache).invalidateAll();
+        redisBookCacheService.invalidateAvailableBooksCache();
+        verify(redisTemplate).delete(availableSetKeys(1));
     }
 
     @Test
-    void invalidateAllBookCaches_NoKeys() {
+    void invalidateAllBookCaches_RedisFailure() {
         // Given
-        String keyPattern = keyPrefix + ":*";
-        when(redisTemplate.keys(keyPattern)).thenReturn(null);
+        when(valueOperations.increment(keyPrefix + ":generation")).thenThrow(new RuntimeException("Redis down"));
         
         // When
-        redisBookCacheService.invalidateAllBookCaches();
+        assertDoesNotThrow(() -> redisBookCacheService.invalidateAllBookCaches());
         
-        // Then
-        verify(redisTemplate).keys(keyPattern);
-        verify(redisTemplate, never()).delete(any(Set.class));
+        // Then - local entries are still dropped
+        verify(localCache).invalidateAll();
+    }
+
+    @Test
+    void currentGeneration_ReadsStoredGeneration() {
+        // Given
+        when(valueOperations.get(keyPrefix + ":generation")).thenReturn(7);
+        
+        // When & Then - read once, then served from memory
+        assertEquals(7L, redisBookCacheService.currentGeneration());
+        assertEquals(7L, redisBookCacheService.currentGeneration());
+        verify(valueOperations, times(1)).get(keyPrefix + ":generation");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sweepStaleGenerations_UnlinksOnlyOlderGenerations() {
+        // Given
+        when(valueOperations.get(keyPrefix + ":generation")).thenReturn(2);
+        Iterator<String> keys = List.of(
+            keyPrefix + ":v0:available",
+            keyPrefix + ":v1:detail:1",
+            keyPrefix + ":v1:borrowed:3",
+            keyPrefix + ":v2:available",
+            keyPrefix + ":v3:available",
+            keyPrefix + ":vbad:available"
+        ).iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(inv -> keys.hasNext());
+        when(cursor.next()).thenAnswer(inv -> keys.next());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        List<List<String>> unlinked = new ArrayList<>();
+        when(redisTemplate.unlink(anyCollection())).thenAnswer(inv -> {
+            Collection<String> batch = inv.getArgument(0);
+            unlinked.add(new ArrayList<>(batch));
+            return (long) batch.size();
+        });
+        
+        // When
+        long removed = redisBookCacheService.sweepStaleGenerations();
+        
+        // Then - batches of two, current and newer generations untouched
+        assertEquals(3L, removed);
+        assertEquals(List.of(
+            List.of(keyPrefix + ":v0:available", keyPrefix + ":v1:detail:1"),
+            List.of(keyPrefix + ":v1:borrowed:3")), unlinked);
+        verify(redisTemplate, never()).keys(anyString());
+        verify(cursor).close();
+    }
+
+    @Test
+    void sweepStaleGenerations_RedisFailure() {
+        // Given
+        when(redisTemplate.scan(any(ScanOptions.class))).thenThrow(new RuntimeException("Redis down"));
+        
+        // When & Then
+        assertEquals(0L, redisBookCacheService.sweepStaleGenerations());
     }
 
     @Test
     void invalidateUserBorrowedBooksCache_Success() {
         // Given
         Long userId = 1L;
-        String expectedKey = keyPrefix + ":borrowed:" + userId;
+        String expectedKey = keyPrefix + ":v0:borrowed:" + userId;
         
         // When
         redisBookCacheService.invalidateUserBorrowedBooksCache(userId);
         
         // Then
         verify(redisTemplate).delete(expectedKey);
+        verify(localCache).invalidateBorrowedBooks(userId);
     }
 
     @Test
     void invalidateAvailableBooksCache_Success() {
         // Given
-        String expectedKey = keyPrefix + ":available";
+        List<String> expectedKeys = availableSetKeys(0);
         
         // When
         redisBookCacheService.invalidateAvailableBooksCache();
         
+        // Then - the version moves on but is never deleted, so it cannot repeat
+        verify(redisTemplate).delete(expectedKeys);
+        verify(valueOperations).increment(keyPrefix + ":v0:available:version");
+        verify(redisTemplate, never()).delete(keyPrefix + ":v0:available:version");
+        verify(localCache).invalidateAvailableBooks();
+    }
+
+    @Test
+    void invalidateAvailableBooksCache_EvictsLocalCache_WhenRedisFails() {
+        // Given
+        when(redisTemplate.delete(availableSetKeys(0))).thenThrow(new RuntimeException("Redis down"));
+
+        // When
+        redisBookCacheService.invalidateAvailableBooksCache();
+
         // Then
-        verify(redisTemplate).delete(expectedKey);
+        verify(localCache).invalidateAvailableBooks();
     }
 
     @Test
     void invalidateBookDetailCache_Success() {
         // Given
         Long bookId = 1L;
-        String expectedKey = keyPrefix + ":detail:" + bookId;
+        String expectedKey = keyPrefix + ":v0:detail:" + bookId;
         
         // When
         redisBookCacheService.invalidateBookDetailCache(bookId);
         
         // Then
         verify(redisTemplate).delete(expectedKey);
+        verify(localCache).invalidateBookDetail(bookId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheBookDetails_PipelinesOneSetExPerBook() {
+        // Given
+        BookResponse second = new BookResponse();
+        second.setId(2L);
+        RedisSerializer<String> keySerializer = RedisSerializer.string();
+        RedisSerializer<Object> valueSerializer = mock(RedisSerializer.class);
+        when(valueSerializer.serialize(any())).thenReturn(new byte[] { 1 });
+        doReturn(keySerializer).when(redisTemplate).getKeySerializer();
+        doReturn(valueSerializer).when(redisTemplate).getValueSerializer();
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            ((RedisCallback<Object>) inv.getArgument(0)).doInRedis(connection);
+            return List.of();
+        });
+        
+        // When
+        redisBookCacheService.cacheBookDetails(Arrays.asList(testBookResponse, second));
+        
+        // Then - a single pipeline, no per-book round trips, L1 untouched
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(stringCommands).setEx(aryEq(keySerializer.serialize(keyPrefix + ":v0:detail:1")), eq(bookDetailTtl), any());
+        verify(stringCommands).setEx(aryEq(keySerializer.serialize(keyPrefix + ":v0:detail:2")), eq(bookDetailTtl), any());
+        verify(valueOperations, never()).set(anyString(), any(), anyLong(), any());
+        verify(localCache, never()).putBookDetail(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheBookDetails_EmptyList() {
+        // When
+        redisBookCacheService.cacheBookDetails(Collections.emptyList());
+        
+        // Then
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheBookDetails_RedisFailure() {
+        // Given
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("Redis down"));
+        
+        // When & Then
+        assertDoesNotThrow(() -> redisBookCacheService.cacheBookDetails(testBookResponses));
     }
 
     @Test
     void warmUpCache_Success() {
         // Given
         Set<Long> borrowedBookIds = Set.of(2L, 3L);
-        String borrowedSetKey = keyPrefix + ":borrowed-set";
+        String borrowedSetKey = keyPrefix + ":v0:borrowed-set";
         
         // When
-        redisBookCacheService.warmUpCache(testBookResponses, borrowedBookIds);
+        redisBookCacheService.warmUpCache(borrowedBookIds);
         
         // Then
-        // Verify borrowed books set operations
         verify(redisTemplate).delete(borrowedSetKey);
         verify(setOperations).add(borrowedSetKey, borrowedBookIds.toArray());
         verify(redisTemplate).expire(borrowedSetKey, borrowedBooksTtl, TimeUnit.SECONDS);
         
-        // Verify individual book details caching
-        for (BookResponse book : testBookResponses) {
-            String bookDetailKey = keyPrefix + ":detail:" + book.getId();
-            verify(valueOperations).set(bookDetailKey, book, bookDetailTtl, TimeUnit.SECONDS);
-        }
+        // Book details are no longer rewritten here
+        verify(valueOperations, never()).set(anyString(), any(), anyLong(), any());
     }
 
     @Test
     void warmUpCache_EmptyBorrowedBooks() {
         // Given
         Set<Long> emptyBorrowedBookIds = new HashSet<>();
-        String borrowedSetKey = keyPrefix + ":borrowed-set";
+        String borrowedSetKey = keyPrefix + ":v0:borrowed-set";
         
         // When
-        redisBookCacheService.warmUpCache(testBookResponses, emptyBorrowedBookIds);
+        redisBookCacheService.warmUpCache(emptyBorrowedBookIds);
         
         // Then
-        // Verify no borrowed books set operations for empty set
         verify(redisTemplate, never()).delete(borrowedSetKey);
         verify(setOperations, never()).add(eq(borrowedSetKey), any());
-        
-        // Verify individual book details caching still happens
-        for (BookResponse book : testBookResponses) {
-            String bookDetailKey = keyPrefix + ":detail:" + book.getId();
-            verify(valueOperations).set(bookDetailKey, book, bookDetailTtl, TimeUnit.SECONDS);
-        }
     }
 
     @Test
     void warmUpCache_NullBorrowedBooks() {
         // Given
-        String borrowedSetKey = keyPrefix + ":borrowed-set";
+        String borrowedSetKey = keyPrefix + ":v0:borrowed-set";
         
         // When
-        redisBookCacheService.warmUpCache(testBookResponses, null);
+        redisBookCacheService.warmUpCache(null);
         
         // Then
-        // Verify no borrowed books set operations for null set
         verify(redisTemplate, never()).delete(borrowedSetKey);
         verify(setOperations, never()).add(eq(borrowedSetKey), any());
-        
-        // Verify individual book details caching still happens
-        for (BookResponse book : testBookResponses) {
-            String bookDetailKey = keyPrefix + ":detail:" + book.getId();
-            verify(valueOperations).set(bookDetailKey, book, bookDetailTtl, TimeUnit.SECONDS);
-        }
     }
-}
\ No newline at end of file
+
+    private List<String> availableScriptKeys(long generation) {
+        List<String> keys = new ArrayList<>(availableSetKeys(generation));
+        keys.add(keyPrefix + ":v" + generation + ":available:version");
+        return keys;
+    }
+
+    private List<String> availableSetKeys(long generation) {
+        String base = keyPrefix + ":v" + generation + ":available";
+        return List.of(base + ":loaded", base + ":ids", base + ":books");
+    }
+
+    private double cacheRequests(String cache, String result) {
+        return meterRegistry.get(CacheMetrics.REQUESTS).tag("cache", cache).tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,206 @@
+package com.swl.booking.system.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.swl.booking.system.entity.Book;
+import com.swl.booking.system.entity.BookHold;
+import com.swl.booking.system.entity.CacheOutboxEvent;
+import com.swl.booking.system.exception.AlreadyExitException;
+import com.swl.booking.system.exception.ResponseInfoException;
+import com.swl.booking.system.repository.BookBorrowingRepository;
+import com.swl.booking.system.repository.BookHoldRepository;
+import com.swl.booking.system.repository.BookRepository;
+import com.swl.booking.system.repository.UserRepository;
+import com.swl.booking.system.request.book.HoldBookRequest;
+import com.swl.booking.system.service.BookCacheSyncService;
+import com.swl.booking.system.service.HoldExpiryQueue;
+
+/**
+ * Test class for BookHoldServiceImpl
+ * Tests queueing, FIFO hand-over of returned copies, cancellation and expiry
+ */
+@ExtendWith(MockitoExtension.class)
+class BookHoldServiceImplTest {
+
+    private static final long PICKUP_WINDOW = 60_000;
+
+    @Mock
+    private BookHoldRepository bookHoldRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookBorrowingRepository bookBorrowingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookCacheSyncService bookCacheSyncService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BookHoldServiceImpl bookHoldService;
+
+    private HoldBookRequest holdRequest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookHoldService, "pickupWindowMillis", PICKUP_WINDOW);
+        holdRequest = new HoldBookRequest();
+        holdRequest.setBookId(1L);
+    }
+
+    private static Book book(int available) {
+        Book book = new Book();
+        book.setId(1L);
+        book.setQuantity(1);
+        book.setAvailableQuantity(available);
+        return book;
+    }
+
+    private static BookHold hold(long id, BookHold.Status status) {
+        BookHold hold = new BookHold();
+        hold.setId(id);
+        hold.setBook(book(0));
+        hold.setStatus(status);
+        return hold;
+    }
+
+    @Test
+    void placeHold_QueuesUserBehindEarlierHolds() {
+        // Given
+        when(bookRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(book(0)));
+        when(bookHoldRepository.save(any(BookHold.class))).thenAnswer(invocation -> {
+            BookHold saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+        when(bookHoldRepository.countByBookIdAndStatusAndIdLessThanEqual(1L, BookHold.Status.WAITING, 9L)).thenReturn(3L);
+
+        // When
+        String result = bookHoldService.placeHold(holdRequest, 2L);
+
+        // Then
+        assertEquals("Hold placed, you are number 3 in the queue", result);
+        verify(bookHoldRepository).save(argThat(hold -> hold.getStatus() == BookHold.Status.WAITING));
+    }
+
+    @Test
+    void placeHold_ThrowsException_WhenCopyIsAvailable() {
+        // Given
+        when(bookRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(book(1)));
+
+        // When & Then
+        ResponseInfoException exception = assertThrows(ResponseInfoException.class,
+                () -> bookHoldService.placeHold(holdRequest, 2L));
+        assertEquals("Book is available for borrowing", exception.getMessage());
+        verify(bookHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void placeHold_ThrowsException_WhenAlreadyHolding() {
+        // Given
+        when(bookRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(book(0)));
+        when(bookHoldRepository.existsByUserIdAndBookIdAndStatusIn(eq(2L), eq(1L), anyCollection())).thenReturn(true);
+
+        // When & Then
+        assertThrows(AlreadyExitException.class, () -> bookHoldService.placeHold(holdRequest, 2L));
+        verify(bookHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void allocateReturnedCopy_ReadiesOldestHoldAndQueuesItsExpiry() {
+        // Given
+        BookHold oldest = hold(4L, BookHold.Status.WAITING);
+        when(bookHoldRepository.findWaitingForUpdate(eq(1L), any(Pageable.class))).thenReturn(List.of(oldest));
+
+        // When
+        boolean allocated = bookHoldService.allocateReturnedCopy(1L);
+
+        // Then
+        assertTrue(allocated);
+        assertEquals(BookHold.Status.READY, oldest.getStatus());
+        long window = oldest.getExpiresAt().getTime() - System.currentTimeMillis();
+        assertTrue(window > 0 && window <= PICKUP_WINDOW);
+        verify(bookHoldRepository).save(oldest);
+        verify(eventPublisher).publishEvent(new HoldExpiryQueue.HoldReady(4L, oldest.getExpiresAt()));
+    }
+
+    @Test
+    void allocateReturnedCopy_ReturnsFalse_WhenNobodyWaits() {
+        // Given
+        when(bookHoldRepository.findWaitingForUpdate(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        // When & Then
+        assertFalse(bookHoldService.allocateReturnedCopy(1L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void expireHold_PutsCopyBackOnShelf_WhenQueueIsEmpty() {
+        // Given
+        when(bookHoldRepository.findById(4L)).thenReturn(Optional.of(hold(4L, BookHold.Status.READY)));
+        when(bookHoldRepository.expireIfDue(eq(4L), any(Date.class))).thenReturn(1);
+        when(bookHoldRepository.findWaitingForUpdate(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(bookRepository.incrementAvailableQuantity(1L)).thenReturn(1);
+
+        // When
+        bookHoldService.expireHold(4L);
+
+        // Then
+        verify(bookRepository).incrementAvailableQuantity(1L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 1L);
+    }
+
+    @Test
+    void expireHold_DoesNothing_WhenHoldWasPickedUp() {
+        // Given - claimed between the read and the conditional update
+        when(bookHoldRepository.findById(4L)).thenReturn(Optional.of(hold(4L, BookHold.Status.READY)));
+        when(bookHoldRepository.expireIfDue(eq(4L), any(Date.class))).thenReturn(0);
+
+        // When
+        bookHoldService.expireHold(4L);
+
+        // Then
+        verify(bookHoldRepository, never()).findWaitingForUpdate(any(), any());
+        verify(bookRepository, never()).incrementAvailableQuantity(any());
+    }
+
+    @Test
+    void cancelHold_PassesReadyCopyToNextHolder() {
+        // Given
+        BookHold ready = hold(4L, BookHold.Status.READY);
+        BookHold next = hold(5L, BookHold.Status.WAITING);
+        when(bookHoldRepository.findOpenForUpdate(2L, 1L)).thenReturn(Optional.of(ready));
+        when(bookHoldRepository.findWaitingForUpdate(eq(1L), any(Pageable.class))).thenReturn(List.of(next));
+
+        // When
+        String result = bookHoldService.cancelHold(holdRequest, 2L);
+
+        // Then
+        assertEquals("Hold cancelled successfully", result);
+        assertEquals(BookHold.Status.CANCELLED, ready.getStatus());
+        assertEquals(BookHold.Status.READY, next.getStatus());
+        verify(bookRepository, never()).incrementAvailableQuantity(any());
+    }
+}
@@ -4,33 +4,53 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.swl.booking.system.entity.Book;
 import com.swl.booking.system.entity.BookBorrowing;
+import com.swl.booking.system.entity.CacheOutboxEvent;
 import com.swl.booking.system.entity.User;
 import com.swl.booking.system.exception.AlreadyExitException;
 import com.swl.booking.system.exception.ResponseInfoException;
 import com.swl.booking.system.repository.BookBorrowingRepository;
 import com.swl.booking.system.repository.BookRepository;
 import com.swl.booking.system.repository.UserRepository;
+import com.swl.booking.system.request.book.BookBatchRequest;
 import com.swl.booking.system.request.book.BookRegisterRequest;
 import com.swl.booking.system.request.book.BorrowBookRequest;
 import com.swl.booking.system.request.book.ReturnBookRequest;
+import com.swl.booking.system.response.book.BookBatchResponse;
 import com.swl.booking.system.response.book.BookListResponse;
+import com.swl.booking.system.response.book.BookPageResponse;
 import com.swl.booking.system.response.book.BookResponse;
+import com.swl.booking.system.service.BookCacheSyncService;
+import com.swl.booking.system.service.BookHoldService;
+import com.swl.booking.system.service.BookSearchIndex;
+import com.swl.booking.system.service.CacheLoadCoordinator;
+import com.swl.booking.system.service.CachedBookList;
 import com.swl.booking.system.service.RedisBookCacheService;
+import com.swl.booking.system.util.CommonUtil;
+
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceImplTest {
@@ -47,6 +67,24 @@ class BookServiceImplTest {
     @Mock
     private RedisBookCacheService redisBookCacheService;
 
+    @Mock
+    private CacheLoadCoordinator cacheLoadCoordinator;
+
+    @Mock
+    private BookCacheSyncService bookCacheSyncService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookHoldService bookHoldService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -118,7 +156,25 @@ class BookServiceImplTest {
         assertTrue(result.isAvailable());
 
         verify(bookRepository).countByIsbn(bookRegisterRequest.getIsbn());
-        verify(bookRepository).save(any(Book.class));
+        verify(bookRepository).save(argThat(book -> book.getQuantity() == 1 && book.getAvailableQuantity() == 1));
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, testBook.getId());
+        verifyNoInteractions(redisBookCacheService);
+    }
+
+    @Test
+    void registerBook_UsesRequestedQuantity() {
+        // Given
+        bookRegisterRequest.setQuantity(5);
+        when(bookRepository.countByIsbn(bookRegisterRequest.getIsbn())).thenReturn(0L);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        BookResponse result = bookService.registerBook(bookRegisterRequest);
+
+        // Then
+        assertEquals(5, result.getQuantity());
+        assertEquals(5, result.getAvailableQuantity());
+        assertTrue(result.isAvailable());
     }
 
     @Test
@@ -140,7 +196,7 @@ class BookServiceImplTest {
     void getAvailableBooksResponse_CacheHit() {
         // Given
         List<BookResponse> cachedBooks = Arrays.asList(bookResponse);
-        when(redisBookCacheService.getCachedAvailableBooks()).thenReturn(cachedBooks);
+        when(redisBookCacheService.getCachedAvailableBooks(false)).thenReturn(CachedBookList.fresh(cachedBooks));
 
         // When
         BookListResponse result = bookService.getAvailableBooksResponse();
@@ -151,16 +207,33 @@ class BookServiceImplTest {
         assertEquals(1, result.getBooks().size());
         assertEquals(bookResponse.getId(), result.getBooks().get(0).getId());
 
-        verify(redisBookCacheService).getCachedAvailableBooks();
-        verify(bookRepository, never()).findByIsAvailableTrue();
+        verify(redisBookCacheService).getCachedAvailableBooks(false);
+        verify(bookRepository, never()).findByIsAvailableTrueOrderByIdAsc();
         verify(redisBookCacheService, never()).cacheAvailableBooks(any());
+        verify(cacheLoadCoordinator, never()).refreshInBackground(anyString(), any());
+    }
+
+    @Test
+    void getAvailableBooksResponse_StaleHit_RefreshesInBackground() {
+        // Given
+        when(redisBookCacheService.getCachedAvailableBooks(false))
+                .thenReturn(new CachedBookList(Arrays.asList(bookResponse), System.currentTimeMillis() - 1));
+
+        // When
+        BookListResponse result = bookService.getAvailableBooksResponse();
+
+        // Then - the stale list is served without waiting on the database
+        assertEquals(1, result.getTotalBooks());
+        verify(cacheLoadCoordinator).refreshInBackground(eq("available"), any());
+        verify(bookRepository, never()).findByIsAvailableTrueOrderByIdAsc();
     }
 
     @Test
     void getAvailableBooksResponse_CacheMiss() {
         // Given
-        when(redisBookCacheService.getCachedAvailableBooks()).thenReturn(null);
-        when(bookRepository.findByIsAvailableTrue()).thenReturn(Arrays.asList(testBook));
+        when(redisBookCacheService.getCachedAvailableBooks(false)).thenReturn(null);
+        runLoadsInline();
+        when(bookRepository.findByIsAvailableTrueOrderByIdAsc()).thenReturn(Arrays.asList(testBook));
 
         // When
         BookListResponse result = bookService.getAvailableBooksResponse();
@@ -171,77 +244,221 @@ class BookServiceImplTest {
         assertEquals(1, result.getBooks().size());
         assertEquals(testBook.getId(), result.getBooks().get(0).getId());
 
-        verify(redisBookCacheService).getCachedAvailableBooks();
-        verify(bookRepository).findByIsAvailableTrue();
+        verify(redisBookCacheService).getCachedAvailableBooks(false);
+        verify(cacheLoadCoordinator).load(eq("available"), any(), any());
+        verify(bookRepository).findByIsAvailableTrueOrderByIdAsc();
         verify(redisBookCacheService).cacheAvailableBooks(any());
     }
 
+    @Test
+    void getAvailableBooks_ServesPageFromCache() {
+        // Given
+        List<BookResponse> cached = new ArrayList<>();
+        for (long id = 11; id <= 13; id++) {
+            BookResponse book = new BookResponse();
+            book.setId(id);
+            cached.add(book);
+        }
+        when(redisBookCacheService.getCachedAvailableBooksAfter(10L, 3)).thenReturn(CachedBookList.fresh(cached));
+
+        // When
+        BookPageResponse result = bookService.getAvailableBooks(CommonUtil.encodeCursor(10L), 2);
+
+        // Then
+        assertEquals(2, result.getTotalBooks());
+        assertTrue(result.isHasMore());
+        assertEquals(12L, CommonUtil.decodeCursor(result.getNextCursor()));
+        verify(bookRepository, never()).findByIsAvailableTrueOrderByIdAsc();
+    }
+
+    @Test
+    void getAvailableBooks_RebuildsCache_WhenCold() {
+        // Given
+        Book other = new Book();
+        other.setId(2L);
+        other.setAvailable(true);
+        when(redisBookCacheService.getCachedAvailableBooksAfter(1L, 51)).thenReturn(null);
+        runLoadsInline();
+        when(bookRepository.findByIsAvailableTrueOrderByIdAsc()).thenReturn(Arrays.asList(testBook, other));
+
+        // When
+        BookPageResponse result = bookService.getAvailableBooks(CommonUtil.encodeCursor(1L), null);
+
+        // Then
+        assertEquals(1, result.getTotalBooks());
+        assertEquals(2L, result.getBooks().get(0).getId());
+        assertFalse(result.isHasMore());
+        verify(redisBookCacheService).cacheAvailableBooks(argThat(books -> books.size() == 2));
+    }
+
     @Test
     void getAllBooks_Success() {
         // Given
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(testBook));
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 51)))
+                .thenReturn(Arrays.asList(testBook));
 
         // When
-        BookListResponse result = bookService.getAllBooks();
+        BookPageResponse result = bookService.getAllBooks(null, null);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalBooks());
         assertEquals(1, result.getBooks().size());
         assertEquals(testBook.getId(), result.getBooks().get(0).getId());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
 
-        verify(bookRepository).findAll();
+        verify(bookRepository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 51));
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
-    void borrowBook_Success() {
+    void searchBooks_PagesIndexResults() {
+        // Given - one more match than the page holds
+        List<BookResponse> matches = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            matches.add(new BookResponse(id, "978000000000" + id, "Title " + id, "Author", true, 1, 1, null, null));
+        }
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("title", false, 3)).thenReturn(matches);
+
+        // When
+        BookPageResponse result = bookService.searchBooks("title", false, null, 2);
+
+        // Then
+        assertEquals(2, result.getBooks().size());
+        assertTrue(result.isHasMore());
+        assertEquals(2L, CommonUtil.decodeCursor(result.getNextCursor()));
+        verify(bookRepository, never()).findByTitleContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void searchBooks_SkipsPreviousPages() {
         // Given
-        Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(borrowBookRequest.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookBorrowingRepository.findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook))
-                .thenReturn(Optional.empty());
-        when(bookBorrowingRepository.save(any(BookBorrowing.class))).thenReturn(testBorrowing);
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        List<BookResponse> matches = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            matches.add(new BookResponse(id, null, "Title " + id, "Author", true, 1, 1, null, null));
+        }
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.search("title", true, 5)).thenReturn(matches);
 
         // When
-        String result = bookService.borrowBook(borrowBookRequest, userId);
+        BookPageResponse result = bookService.searchBooks("title", true, CommonUtil.encodeCursor(2L), 2);
 
         // Then
-        assertEquals("Book borrowed successfully", result);
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(borrowBookRequest.getBookId());
-        verify(bookBorrowingRepository).findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook);
-        verify(bookBorrowingRepository).save(any(BookBorrowing.class));
-        verify(bookRepository).save(any(Book.class));
-        verify(redisBookCacheService).invalidateAvailableBooksCache();
-        verify(redisBookCacheService).invalidateUserBorrowedBooksCache(userId);
-        verify(redisBookCacheService).invalidateBookDetailCache(testBook.getId());
-        verify(redisBookCacheService).cacheBookDetail(any(BookResponse.class));
+        assertEquals(1, result.getBooks().size());
+        assertEquals(3L, result.getBooks().get(0).getId());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    void borrowBook_ThrowsException_WhenUserNotFound() {
+    void searchBooks_FallsBackToDatabase_WhenIndexNotReady() {
         // Given
-        Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        Book unavailable = new Book();
+        unavailable.setId(2L);
+        unavailable.setTitle("Other");
+        unavailable.setAuthor("Test Author");
+        unavailable.setAvailable(false);
+        when(bookSearchIndex.isReady()).thenReturn(false);
+        when(bookRepository.findByTitleContainingIgnoreCase("test")).thenReturn(Arrays.asList(testBook));
+        when(bookRepository.findByAuthorContainingIgnoreCase("test")).thenReturn(Arrays.asList(unavailable, testBook));
+
+        // When
+        BookPageResponse result = bookService.searchBooks(" test ", true, null, null);
+
+        // Then - deduplicated and filtered to available books
+        assertEquals(1, result.getBooks().size());
+        assertEquals(testBook.getId(), result.getBooks().get(0).getId());
+        verify(bookSearchIndex, never()).search(anyString(), anyBoolean(), anyInt());
+    }
 
+    @Test
+    void searchBooks_RejectsBlankQuery() {
+        // When & Then
+        assertThrows(ResponseInfoException.class, () -> bookService.searchBooks("  ", false, null, null));
+    }
+
+    @Test
+    void getAllBooks_ReturnsCursor_WhenMorePagesExist() {
+        // Given
+        List<Book> books = new ArrayList<>();
+        for (long id = 11; id <= 13; id++) {
+            Book book = new Book();
+            book.setId(id);
+            books.add(book);
+        }
+        String cursor = CommonUtil.encodeCursor(10L);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 3))).thenReturn(books);
+
+        // When
+        BookPageResponse result = bookService.getAllBooks(cursor, 2);
+
+        // Then
+        assertEquals(2, result.getTotalBooks());
+        assertTrue(result.isHasMore());
+        assertEquals(12L, CommonUtil.decodeCursor(result.getNextCursor()));
+    }
+
+    @Test
+    void getAllBooks_ThrowsException_WhenCursorIsInvalid() {
         // When & Then
         ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
-            bookService.borrowBook(borrowBookRequest, userId);
+            bookService.getAllBooks("not-a-cursor", 10);
         });
 
-        assertEquals("User not found", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository, never()).findById(any());
+        assertEquals("Invalid cursor", exception.getMessage());
+        verify(bookRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    @Test
+    void streamAllBooks_DetachesEachRow() {
+        // Given
+        when(bookRepository.streamAllOrderById()).thenReturn(Stream.of(testBook));
+        List<BookResponse> streamed = new ArrayList<>();
+
+        // When
+        bookService.streamAllBooks(streamed::add);
+
+        // Then
+        assertEquals(1, streamed.size());
+        assertEquals(testBook.getId(), streamed.get(0).getId());
+        verify(entityManager).detach(testBook);
+    }
+
+    @Test
+    void borrowBook_Success() {
+        // Given
+        Long userId = 1L;
+        when(bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, 1L)).thenReturn(false);
+        when(bookRepository.decrementAvailableQuantity(1L)).thenReturn(1);
+        when(userRepository.getReferenceById(userId)).thenReturn(testUser);
+        when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+        when(bookBorrowingRepository.save(any(BookBorrowing.class))).thenReturn(testBorrowing);
+
+        // When
+        String result = bookService.borrowBook(borrowBookRequest, userId);
+
+        // Then
+        assertEquals("Book borrowed successfully", result);
+        verify(bookRepository).decrementAvailableQuantity(1L);
+        verify(bookBorrowingRepository).save(argThat(borrowing ->
+                borrowing.getBorrower() == testUser && borrowing.getBook() == testBook && !borrowing.isReturned()));
+        verify(userRepository, never()).findById(any());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 1L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        // Redis is only touched after commit
+        verifyNoInteractions(redisBookCacheService);
     }
 
     @Test
     void borrowBook_ThrowsException_WhenBookNotFound() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(borrowBookRequest.getBookId())).thenReturn(Optional.empty());
+        when(bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, 1L)).thenReturn(false);
+        when(bookRepository.decrementAvailableQuantity(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         // When & Then
         ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
@@ -249,17 +466,16 @@ class BookServiceImplTest {
         });
 
         assertEquals("Book not found", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(borrowBookRequest.getBookId());
+        verify(bookBorrowingRepository, never()).save(any(BookBorrowing.class));
     }
 
     @Test
     void borrowBook_ThrowsException_WhenBookNotAvailable() {
         // Given
         Long userId = 1L;
-        testBook.setAvailable(false);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(borrowBookRequest.getBookId())).thenReturn(Optional.of(testBook));
+        when(bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, 1L)).thenReturn(false);
+        when(bookRepository.decrementAvailableQuantity(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
 
         // When & Then
         ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
@@ -267,18 +483,15 @@ class BookServiceImplTest {
         });
 
         assertEquals("Book is not available for borrowing", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(borrowBookRequest.getBookId());
+        verify(bookBorrowingRepository, never()).save(any(BookBorrowing.class));
+        verifyNoInteractions(bookCacheSyncService);
     }
 
     @Test
     void borrowBook_ThrowsException_WhenAlreadyBorrowed() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(borrowBookRequest.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookBorrowingRepository.findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook))
-                .thenReturn(Optional.of(testBorrowing));
+        when(bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, 1L)).thenReturn(true);
 
         // When & Then
         AlreadyExitException exception = assertThrows(AlreadyExitException.class, () -> {
@@ -286,79 +499,228 @@ class BookServiceImplTest {
         });
 
         assertEquals("You have already borrowed this book", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(borrowBookRequest.getBookId());
-        verify(bookBorrowingRepository).findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook);
+        verify(bookRepository, never()).decrementAvailableQuantity(any());
+        verify(bookBorrowingRepository, never()).save(any(BookBorrowing.class));
+    }
+
+    private static Book stockedBook(long id, int available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setQuantity(Math.max(available, 1));
+        book.setAvailableQuantity(available);
+        return book;
+    }
+
+    private static BookBatchRequest batchRequest(Long... bookIds) {
+        BookBatchRequest request = new BookBatchRequest();
+        request.setBookIds(Arrays.asList(bookIds));
+        return request;
+    }
+
+    private static List<Boolean> outcomes(BookBatchResponse response) {
+        return response.getItems().stream().map(BookBatchResponse.Item::isSuccess).toList();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void borrowBooks_ReportsEachBookAndInsertsBorrowingsInOneBatch() {
+        // Given - 1 and 4 can be borrowed, 2 is out of stock, 3 is already borrowed, 5 does not exist
+        Long userId = 1L;
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(stockedBook(1, 2), stockedBook(2, 0), stockedBook(3, 1), stockedBook(4, 1)));
+        when(bookBorrowingRepository.findActiveBookIds(eq(userId), anyList())).thenReturn(List.of(3L));
+        when(bookRepository.decrementAvailableQuantities(List.of(1L, 4L))).thenReturn(2);
+
+        // When
+        BookBatchResponse response = bookService.borrowBooks(batchRequest(1L, 2L, 3L, 4L, 5L, 1L), userId);
+
+        // Then
+        assertEquals(List.of(true, false, false, true, false, false), outcomes(response));
+        assertEquals("Book is not available for borrowing", response.getItems().get(1).getMessage());
+        assertEquals("You have already borrowed this book", response.getItems().get(2).getMessage());
+        assertEquals("Book not found", response.getItems().get(4).getMessage());
+        assertEquals("Book is listed more than once", response.getItems().get(5).getMessage());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(4, response.getFailed());
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(1L, 4L)), eq(2), any());
+        verify(bookBorrowingRepository, never()).save(any(BookBorrowing.class));
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 1L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 4L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        verifyNoMoreInteractions(bookCacheSyncService);
+        verifyNoInteractions(redisBookCacheService);
+    }
+
+    @Test
+    void borrowBooks_WritesNothing_WhenNoBookCanBeBorrowed() {
+        // Given
+        Long userId = 1L;
+        when(bookRepository.findAllByIdForUpdate(List.of(2L))).thenReturn(List.of(stockedBook(2, 0)));
+        when(bookBorrowingRepository.findActiveBookIds(eq(userId), anyList())).thenReturn(List.of());
+
+        // When
+        BookBatchResponse response = bookService.borrowBooks(batchRequest(2L), userId);
+
+        // Then
+        assertEquals(1, response.getFailed());
+        verify(bookRepository, never()).decrementAvailableQuantities(any());
+        verifyNoInteractions(jdbcTemplate, bookCacheSyncService);
+    }
+
+    @Test
+    void borrowBooks_ClaimsHeldCopy_WithoutTakingItFromShelf() {
+        // Given - the only copy of 2 is set aside for this user's hold, 1 is on the shelf
+        Long userId = 1L;
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(stockedBook(1, 1), stockedBook(2, 0)));
+        when(bookBorrowingRepository.findActiveBookIds(eq(userId), anyList())).thenReturn(List.of());
+        when(bookHoldService.claimHold(anyLong(), eq(userId))).thenAnswer(invocation -> invocation.getArgument(0).equals(2L));
+        when(bookRepository.decrementAvailableQuantities(List.of(1L))).thenReturn(1);
+
+        // When
+        BookBatchResponse response = bookService.borrowBooks(batchRequest(1L, 2L), userId);
+
+        // Then
+        assertEquals(List.of(true, true), outcomes(response));
+        verify(bookHoldService).claimHold(1L, userId);
+        verify(bookRepository).decrementAvailableQuantities(List.of(1L));
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(List.of(1L, 2L)), eq(2), any());
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 2L);
+    }
+
+    @Test
+    void borrowBooks_ThrowsException_WhenInventoryChangedUnderLock() {
+        // Given
+        Long userId = 1L;
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 4L))).thenReturn(List.of(stockedBook(1, 1), stockedBook(4, 1)));
+        when(bookBorrowingRepository.findActiveBookIds(eq(userId), anyList())).thenReturn(List.of());
+        when(bookRepository.decrementAvailableQuantities(List.of(1L, 4L))).thenReturn(1);
+
+        // When & Then - the whole checkout rolls back
+        assertThrows(ResponseInfoException.class, () -> bookService.borrowBooks(batchRequest(1L, 4L), userId));
+        verifyNoInteractions(jdbcTemplate, bookCacheSyncService);
+    }
+
+    @Test
+    void returnBooks_ClosesActiveBorrowingsInOneStatement() {
+        // Given - book 1 is out, book 2 is not
+        Long userId = 1L;
+        when(bookBorrowingRepository.findActiveForUpdate(userId, List.of(1L, 2L))).thenReturn(List.of(testBorrowing));
+        when(bookRepository.incrementAvailableQuantities(List.of(1L))).thenReturn(1);
+
+        // When
+        BookBatchResponse response = bookService.returnBooks(batchRequest(1L, 2L), userId);
+
+        // Then
+        assertEquals(List.of(true, false), outcomes(response));
+        assertEquals("No active borrowing record found for this book", response.getItems().get(1).getMessage());
+        verify(bookBorrowingRepository).markReturnedByIds(eq(List.of(1L)), any(Date.class));
+        verify(bookBorrowingRepository, never()).markReturned(any(), any(), any());
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 1L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        verifyNoMoreInteractions(bookCacheSyncService);
+    }
+
+    @Test
+    void returnBooks_LocksAllReturnedBooksInIdOrder_BeforeHandingOverCopies() {
+        // Given - both books are out, listed in descending order
+        Long userId = 1L;
+        BookBorrowing secondBorrowing = new BookBorrowing();
+        secondBorrowing.setId(2L);
+        secondBorrowing.setBorrower(testUser);
+        secondBorrowing.setBook(stockedBook(2, 0));
+        when(bookBorrowingRepository.findActiveForUpdate(userId, List.of(2L, 1L)))
+                .thenReturn(List.of(secondBorrowing, testBorrowing));
+        when(bookHoldService.allocateReturnedCopy(anyLong())).thenReturn(false);
+        when(bookRepository.incrementAvailableQuantities(anyList())).thenReturn(2);
+
+        // When
+        BookBatchResponse response = bookService.returnBooks(batchRequest(2L, 1L), userId);
+
+        // Then - one lock in id order, taken before any copy is handed over
+        assertEquals(List.of(true, true), outcomes(response));
+        InOrder inOrder = inOrder(bookRepository, bookHoldService);
+        inOrder.verify(bookRepository).findAllByIdForUpdate(List.of(1L, 2L));
+        inOrder.verify(bookHoldService).allocateReturnedCopy(1L);
+        inOrder.verify(bookHoldService).allocateReturnedCopy(2L);
+        verify(bookRepository, times(1)).findAllByIdForUpdate(anyCollection());
     }
 
     @Test
     void returnBook_Success() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(returnBookRequest.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookBorrowingRepository.findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook))
-                .thenReturn(Optional.of(testBorrowing));
-        when(bookBorrowingRepository.save(any(BookBorrowing.class))).thenReturn(testBorrowing);
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookBorrowingRepository.markReturned(eq(userId), eq(1L), any(Date.class))).thenReturn(1);
+        when(bookRepository.incrementAvailableQuantity(1L)).thenReturn(1);
 
         // When
         String result = bookService.returnBook(returnBookRequest, userId);
 
         // Then
         assertEquals("Book returned successfully", result);
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(returnBookRequest.getBookId());
-        verify(bookBorrowingRepository).findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook);
-        verify(bookBorrowingRepository).save(any(BookBorrowing.class));
-        verify(bookRepository).save(any(Book.class));
-        verify(redisBookCacheService).invalidateAvailableBooksCache();
-        verify(redisBookCacheService).invalidateUserBorrowedBooksCache(userId);
-        verify(redisBookCacheService).invalidateBookDetailCache(testBook.getId());
-        verify(redisBookCacheService).cacheBookDetail(any(BookResponse.class));
+        verify(bookBorrowingRepository).markReturned(eq(userId), eq(1L), any(Date.class));
+        verify(bookRepository).incrementAvailableQuantity(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BOOK, 1L);
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+        verifyNoInteractions(redisBookCacheService);
     }
 
     @Test
-    void returnBook_ThrowsException_WhenUserNotFound() {
+    void returnBook_Succeeds_WhenInventoryAlreadyFull() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(bookBorrowingRepository.markReturned(eq(userId), eq(1L), any(Date.class))).thenReturn(1);
+        when(bookRepository.incrementAvailableQuantity(1L)).thenReturn(0);
 
-        // When & Then
-        ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
-            bookService.returnBook(returnBookRequest, userId);
-        });
+        // When
+        String result = bookService.returnBook(returnBookRequest, userId);
 
-        assertEquals("User not found", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository, never()).findById(any());
+        // Then
+        assertEquals("Book returned successfully", result);
+        verify(bookCacheSyncService, never()).record(eq(CacheOutboxEvent.Type.BOOK), any());
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
     }
 
     @Test
-    void returnBook_ThrowsException_WhenBookNotFound() {
+    void returnBook_SetsCopyAsideForNextHold() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(returnBookRequest.getBookId())).thenReturn(Optional.empty());
+        when(bookBorrowingRepository.markReturned(eq(userId), eq(1L), any(Date.class))).thenReturn(1);
+        when(bookHoldService.allocateReturnedCopy(1L)).thenReturn(true);
 
-        // When & Then
-        ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
-            bookService.returnBook(returnBookRequest, userId);
-        });
+        // When
+        String result = bookService.returnBook(returnBookRequest, userId);
 
-        assertEquals("Book not found", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(returnBookRequest.getBookId());
+        // Then - the copy never reaches the shelf, so the available list is unchanged
+        assertEquals("Book returned successfully", result);
+        verify(bookRepository, never()).incrementAvailableQuantity(any());
+        verify(bookCacheSyncService, never()).record(eq(CacheOutboxEvent.Type.BOOK), any());
+        verify(bookCacheSyncService).record(CacheOutboxEvent.Type.BORROWED_BOOKS, userId);
+    }
+
+    @Test
+    void borrowBook_TakesHeldCopy_WhenHoldIsReady() {
+        // Given
+        Long userId = 1L;
+        when(bookBorrowingRepository.existsByBorrowerIdAndBookIdAndIsReturnedFalse(userId, 1L)).thenReturn(false);
+        when(bookHoldService.claimHold(1L, userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(testUser);
+        when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+
+        // When
+        String result = bookService.borrowBook(borrowBookRequest, userId);
+
+        // Then
+        assertEquals("Book borrowed successfully", result);
+        verify(bookRepository, never()).decrementAvailableQuantity(any());
+        verify(bookBorrowingRepository).save(any(BookBorrowing.class));
     }
 
     @Test
     void returnBook_ThrowsException_WhenNoActiveBorrowing() {
         // Given
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(bookRepository.findById(returnBookRequest.getBookId())).thenReturn(Optional.of(testBook));
-        when(bookBorrowingRepository.findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook))
-                .thenReturn(Optional.empty());
+        when(bookBorrowingRepository.markReturned(eq(userId), eq(1L), any(Date.class))).thenReturn(0);
 
         // When & Then
         ResponseInfoException exception = assertThrows(ResponseInfoException.class, () -> {
@@ -366,9 +728,8 @@ class BookServiceImplTest {
         });
 
         assertEquals("No active borrowing record found for this book", exception.getMessage());
-        verify(userRepository).findById(userId);
-        verify(bookRepository).findById(returnBookRequest.getBookId());
-        verify(bookBorrowingRepository).findByBorrowerAndBookAndIsReturnedFalse(testUser, testBook);
+        verify(bookRepository, never()).incrementAvailableQuantity(any());
+        verifyNoInteractions(bookCacheSyncService);
     }
 
     @Test
@@ -376,7 +737,7 @@ class BookServiceImplTest {
         // Given
         Long userId = 1L;
         List<BookResponse> cachedBooks = Arrays.asList(bookResponse);
-        when(redisBookCacheService.getCachedBorrowedBooks(userId)).thenReturn(cachedBooks);
+        when(redisBookCacheService.getCachedBorrowedBooks(userId)).thenReturn(CachedBookList.fresh(cachedBooks));
 
         // When
         BookListResponse result = bookService.getBorrowedBooks(userId);
@@ -388,7 +749,7 @@ class BookServiceImplTest {
         assertEquals(bookResponse.getId(), result.getBooks().get(0).getId());
 
         verify(redisBookCacheService).getCachedBorrowedBooks(userId);
-        verify(bookBorrowingRepository, never()).findByBorrowerId(any());
+        verify(bookBorrowingRepository, never()).findActiveBorrowedBooks(any());
         verify(redisBookCacheService, never()).cacheBorrowedBooks(any(), any());
     }
 
@@ -397,7 +758,8 @@ class BookServiceImplTest {
         // Given
         Long userId = 1L;
         when(redisBookCacheService.getCachedBorrowedBooks(userId)).thenReturn(null);
-        when(bookBorrowingRepository.findByBorrowerId(userId)).thenReturn(Arrays.asList(testBorrowing));
+        runLoadsInline();
+        when(bookBorrowingRepository.findActiveBorrowedBooks(userId)).thenReturn(Arrays.asList(new BookResponse(testBook)));
 
         // When
         BookListResponse result = bookService.getBorrowedBooks(userId);
@@ -409,7 +771,46 @@ class BookServiceImplTest {
         assertEquals(testBook.getId(), result.getBooks().get(0).getId());
 
         verify(redisBookCacheService).getCachedBorrowedBooks(userId);
-        verify(bookBorrowingRepository).findByBorrowerId(userId);
+        verify(cacheLoadCoordinator).load(eq("borrowed:" + userId), any(), any());
+        verify(bookBorrowingRepository).findActiveBorrowedBooks(userId);
+        verify(bookBorrowingRepository, never()).findByBorrowerId(any());
         verify(redisBookCacheService).cacheBorrowedBooks(eq(userId), any());
     }
-}
\ No newline at end of file
+
+    // The coordinator is a mock; let it run the database loader directly
+    private void runLoadsInline() {
+        when(cacheLoadCoordinator.load(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(2).get());
+    }
+
+    @Test
+    void cachedReads_RunWithoutTransaction() throws NoSuchMethodException {
+        // Given - a node that lost the rebuild lease polls Redis from inside these methods
+        List<Method> reads = List.of(
+                BookServiceImpl.class.getMethod("getAvailableBooksResponse"),
+                BookServiceImpl.class.getMethod("getAvailableBooksResponse", boolean.class),
+                BookServiceImpl.class.getMethod("getAvailableBooks", String.class, Integer.class),
+                BookServiceImpl.class.getMethod("getBorrowedBooks", Long.class));
+
+        // When & Then - none of them holds a pooled connection while it waits
+        for (Method read : reads) {
+            Transactional transactional = read.getAnnotation(Transactional.class);
+            assertNotNull(transactional, read.getName());
+            assertEquals(Propagation.NOT_SUPPORTED, transactional.propagation(), read.getName());
+        }
+    }
+
+    @Test
+    void searchBooks_RunsWithoutTransaction() throws NoSuchMethodException {
+        // Given
+        Method search = BookServiceImpl.class.getMethod("searchBooks", String.class, boolean.class, String.class,
+                Integer.class);
+
+        // When
+        Transactional transactional = search.getAnnotation(Transactional.class);
+
+        // Then - index hits never open a transaction or take a connection
+        assertNotNull(transactional);
+        assertEquals(Propagation.NOT_SUPPORTED, transactional.propagation());
+    }
+}
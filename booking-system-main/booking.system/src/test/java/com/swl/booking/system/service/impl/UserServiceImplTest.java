@@ -25,6 +25,7 @@ import com.swl.booking.system.request.user.UserUpdateRequest;
 import com.swl.booking.system.response.user.UserLoginResponse;
 import com.swl.booking.system.response.user.UserProfileResponse;
 import com.swl.booking.system.security.UserPrincipal;
+import com.swl.booking.system.security.UserPrincipalCache;
 import com.swl.booking.system.util.CommonUtil;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +37,9 @@ class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -171,6 +175,7 @@ class UserServiceImplTest {
             verify(userRepository).findById(userPrincipal.getId());
             verify(passwordEncoder).encode(userUpdateRequest.getPassword());
             verify(userRepository).save(testUser);
+            verify(userPrincipalCache).evict(testUser.getEmail());
         }
     }
 